@@ -10,7 +10,16 @@ public abstract class AbstractActor extends AbstractVerticle implements Actor{
 
   @Override
   public void start(final Future<Void> startFuture) throws Exception {
-    Actor.register(this);
-    super.start(startFuture);
+    Actor.register(this).setHandler(registered -> {
+      if (registered.failed()) {
+        startFuture.fail(registered.cause());
+        return;
+      }
+      try {
+        super.start(startFuture);
+      } catch (Exception e) {
+        startFuture.fail(e);
+      }
+    });
   }
 }
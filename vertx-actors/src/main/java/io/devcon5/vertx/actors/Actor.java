@@ -6,24 +6,27 @@ import static io.vertx.core.logging.LoggerFactory.getLogger;
 import static java.util.function.Predicate.not;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.ServiceLoader;
 import java.util.Set;
-import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import io.devcon5.vertx.codec.ChunkedStreams;
+import io.devcon5.vertx.codec.CodecIds;
 import io.devcon5.vertx.codec.GenericTypeArrayCodec;
 import io.devcon5.vertx.codec.GenericTypeCodec;
 import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Verticle;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 
@@ -146,7 +149,8 @@ public interface Actor extends Verticle {
   }
 
   /**
-   * Creates a dynamic client to communicate with an actor that implements the specified interface.
+   * Creates a dynamic client to communicate with an actor that implements the specified interface. The client is
+   * created once per vertx instance and contract, further invocations return the same client.
    *
    * @param vertx
    *     the vertx instance the backing actor {@link io.vertx.core.Verticle} is deployed
@@ -163,9 +167,7 @@ public interface Actor extends Verticle {
     if (!contract.isInterface()) {
       throw new IllegalArgumentException("Contract " + contract.getName() + " is no interface");
     }
-    return (T) Proxy.newProxyInstance(contract.getClassLoader(),
-                                      new Class[] { contract },
-                                      new MessageInvocationHandler(vertx));
+    return ContractProxies.forContract(vertx, contract);
   }
 
   /**
@@ -174,21 +176,26 @@ public interface Actor extends Verticle {
    * handlers. All the actor's interfaces are registered, except the {@link io.vertx.core.Verticle} interfaces. For
    * each registered method a codec is registered on the event bus that decodes messages to match
    * the signature of the method so that native objects (Pojos) can be transmitted.
+   * <br>
+   * On a clustered event bus, the compact ids of the codecs are resolved before the addresses are registered, see
+   * {@link io.devcon5.vertx.codec.CodecIds}. On a local event bus, the addresses are registered immediately.
    *
    * @param actor
    *     the actor {@link io.vertx.core.Verticle} whose methods should be registered as addresses
    * @param <T>
    *     the type of the actor
+   *
+   * @return future handle for tracking the registration of all addresses
    */
-  static <T extends Verticle> void register(final T actor) {
+  static <T extends Verticle> Future<CompositeFuture> register(final T actor) {
 
     final Set<Class> ignoreSet = getIgnoredInterfaces(actor);
-    Arrays.stream(actor.getClass().getInterfaces())
-          .filter(not(ignoreSet::contains))
-          .flatMap(c -> Arrays.stream(c.getMethods()))
-          .filter(Actor::isSuitable)
-          .forEach(registerAddress(actor));
-
+    return CompositeFuture.all(Arrays.stream(actor.getClass().getInterfaces())
+                                     .filter(not(ignoreSet::contains))
+                                     .flatMap(c -> Arrays.stream(c.getMethods()))
+                                     .filter(Actor::isSuitable)
+                                     .map(registerAddress(actor))
+                                     .collect(Collectors.toList()));
   }
 
   private static <T extends Verticle> Set<Class> getIgnoredInterfaces(final T actor) {
@@ -218,44 +225,60 @@ public interface Actor extends Verticle {
     return method.getAnnotation(Contracts.Ignore.class) == null;
   }
 
-  private static <T extends Verticle> Consumer<Method> registerAddress(final T actor) {
+  private static <T extends Verticle> Function<Method, Future> registerAddress(final T actor) {
     final Logger LOG = getLogger(Actor.class);
-    final EventBus eb = actor.getVertx().eventBus();
+    final Vertx vertx = actor.getVertx();
+    final Context context = vertx.getOrCreateContext();
     return method -> {
       final String addr = getContractMethodAddress(method);
       LOG.debug("registering {} at address {}", method, addr);
       //TODO add security
-      registerCodecs(eb, method).consumer(addr, new MessageMethodHandler<>(actor, method));
+      //messages may be sent using the ids of the codecs as soon as the address is registered
+      return registerCodecs(vertx, method).map(v -> {
+        final MessageMethodHandler<T, Object> handler = new MessageMethodHandler<>(actor, method);
+        final MessageConsumer<Object> consumer = vertx.eventBus().consumer(addr, handler);
+        //messages that have not been dispatched to the actor are failed when it is undeployed
+        consumer.endHandler(end -> handler.close());
+        //callers in the same vertx instance invoke the method directly on the context of the actor
+        LocalActors.forVertx(vertx).register(addr, handler, consumer, context);
+        return consumer;
+      });
     };
   }
 
-  private static EventBus registerCodecs(final EventBus eb, final Method method) {
+  private static Future<CompositeFuture> registerCodecs(final Vertx vertx, final Method method) {
 
     //register the codec for the return type
     final Type returnType = unwrapFutureType(method.getGenericReturnType());
-    if (!isSimpleType(returnType)) {
-      registerCodec(eb, GenericTypeCodec.forType(returnType));
+    final Future<String> returnTypeCodec;
+    //streams are replied with the address of the stream
+    if (!isSimpleType(returnType) && ChunkedStreams.elementTypeOf(returnType) == null) {
+      returnTypeCodec = registerCodec(vertx, GenericTypeCodec.offloadingForType(returnType));
+    } else {
+      returnTypeCodec = Future.succeededFuture();
     }
     //register a codec for the argument types
-    registerCodec(eb, GenericTypeArrayCodec.forType(method.getGenericParameterTypes()));
-    return eb;
+    return CompositeFuture.all(returnTypeCodec,
+                               registerCodec(vertx,
+                                             GenericTypeArrayCodec.offloadingForType(method.getGenericParameterTypes())));
   }
 
-  private static void registerCodec(final EventBus eb, final MessageCodec codec) {
+  private static Future<String> registerCodec(final Vertx vertx, final MessageCodec codec) {
 
     if (codec == null || codec.name() == null) {
       //the codec might be null, i.e. for simple types / natively supported types
-      return;
+      return Future.succeededFuture();
     }
 
     //unfortunately there is no access to the internal code map of the event bus, so we
     //have to check a pre-registered codec the hard way as there is no globally safe way
     //to track all registered codecs
     try {
-      eb.registerCodec(codec);
+      vertx.eventBus().registerCodec(codec);
     } catch (IllegalStateException e) {
       getLogger(Actor.class).debug("Skipped registering codec: {}", e.getMessage());
     }
+    return CodecIds.register(vertx, codec);
   }
 
   static String getContractMethodAddress(final Method method) {
@@ -0,0 +1,61 @@
+package io.devcon5.vertx.actors;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * The dynamic clients of the contracts of a single vertx instance. Clients are stateless, so a single client per
+ * contract is created and shared by all callers, including the call sites of its methods. The clients are kept in a
+ * local map of the vertx instance, so they are released when the instance is closed.
+ */
+final class ContractProxies implements Shareable {
+
+  /**
+   * Name of the local map holding the clients
+   */
+  static final String PROXIES = "io.devcon5.vertx.actors.proxies";
+
+  private final MessageInvocationHandler handler;
+  private final Map<Class<?>, Object> proxies = new ConcurrentHashMap<>();
+
+  private ContractProxies(final Vertx vertx) {
+
+    this.handler = new MessageInvocationHandler(vertx);
+  }
+
+  /**
+   * Provides the client for the contract.
+   *
+   * @param vertx
+   *     the vertx instance to send the messages with
+   * @param contract
+   *     the interface of the contract
+   * @param <T>
+   *     the type of the contract
+   *
+   * @return the shared client of the contract
+   */
+  static <T> T forContract(Vertx vertx, Class<T> contract) {
+
+    final LocalMap<String, ContractProxies> map = vertx.sharedData().getLocalMap(PROXIES);
+    ContractProxies proxies = map.get(PROXIES);
+    if (proxies == null) {
+      final ContractProxies created = new ContractProxies(vertx);
+      proxies = map.putIfAbsent(PROXIES, created);
+      if (proxies == null) {
+        proxies = created;
+      }
+    }
+    return (T) proxies.proxies.computeIfAbsent(contract, proxies::newProxy);
+  }
+
+  private Object newProxy(final Class<?> contract) {
+
+    return Proxy.newProxyInstance(contract.getClassLoader(), new Class[] { contract }, handler);
+  }
+}
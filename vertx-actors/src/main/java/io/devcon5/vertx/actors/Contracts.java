@@ -34,4 +34,32 @@ public final class Contracts {
     Class[] value() default {};
   }
 
+  /**
+   * Annotation for contract methods whose messages are received in batches. The messages are accumulated until
+   * either {@link #size()} messages have been received or the {@link #window()} has elapsed since the first message
+   * of the batch, and are then passed at once to the batch method of the actor.
+   *
+   * The batch method has the same name as the contract method, but takes a single {@link java.util.List} of the
+   * arguments of each message as <code>Object[]</code>. It returns - directly or as {@link io.vertx.core.Future} -
+   * a {@link java.util.List} with one result per message in the same order, which are replied to the individual
+   * callers. If the batch fails, all messages of the batch are failed. The contract method itself is not invoked for
+   * received messages.
+   */
+  @Target(ElementType.METHOD)
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface Batch {
+
+    /**
+     * @return
+     *  the maximum number of messages per batch
+     */
+    int size() default 100;
+
+    /**
+     * @return
+     *  the maximum time in milliseconds a message waits for the batch to be completed
+     */
+    long window() default 10;
+  }
+
 }
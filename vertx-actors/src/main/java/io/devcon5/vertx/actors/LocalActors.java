@@ -0,0 +1,152 @@
+package io.devcon5.vertx.actors;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * The actor methods registered within a single vertx instance. Calls to a contract method that is registered by an
+ * actor in the same JVM are dispatched directly onto the context of the actor instead of sending a message over the
+ * event bus, which avoids registering a reply handler and sending a reply message. The arguments and the result are
+ * still copied as on local delivery over the event bus, so immutable values are passed by reference and all other
+ * values are copied.
+ * <br>
+ * If multiple actors registered the same method, the calls are distributed round robin among them. Direct dispatch
+ * is enabled unless the <code>actors.directDispatch</code> jvm parameter is set to <code>false</code>, the parameter
+ * is read once per vertx instance.
+ */
+final class LocalActors implements Shareable {
+
+  /**
+   * Name of the local map holding the actor methods
+   */
+  static final String LOCAL_ACTORS = "io.devcon5.vertx.actors.local";
+
+  private final boolean directDispatch = Boolean.parseBoolean(System.getProperty("actors.directDispatch", "true"));
+  private final Map<String, Targets> addresses = new ConcurrentHashMap<>();
+
+  private LocalActors() {
+
+  }
+
+  /**
+   * @param vertx
+   *     the vertx instance the actors are deployed in
+   *
+   * @return the actor methods registered within the vertx instance
+   */
+  static LocalActors forVertx(Vertx vertx) {
+
+    final LocalMap<String, LocalActors> map = vertx.sharedData().getLocalMap(LOCAL_ACTORS);
+    final LocalActors created = new LocalActors();
+    final LocalActors existing = map.putIfAbsent(LOCAL_ACTORS, created);
+    return existing != null ? existing : created;
+  }
+
+  /**
+   * Registers the handler of an actor method for direct dispatch
+   *
+   * @param address
+   *     the address of the method
+   * @param handler
+   *     the handler invoking the method
+   * @param consumer
+   *     the consumer the handler is registered with on the event bus. Once it is unregistered, i.e. when the actor is
+   *     undeployed, the handler is no longer used.
+   * @param context
+   *     the context of the actor to invoke the method on
+   */
+  void register(String address, MessageMethodHandler<?, ?> handler, MessageConsumer<?> consumer, Context context) {
+
+    if (directDispatch && handler.isDirectDispatchable()) {
+      addresses.computeIfAbsent(address, a -> new Targets()).targets.add(new Target(handler, consumer, context));
+    }
+  }
+
+  /**
+   * @param address
+   *     the address of a contract method
+   *
+   * @return the registered actor method to invoke next or null, if no actor in this JVM registered the method
+   */
+  Target targetFor(String address) {
+
+    final Targets targets = addresses.get(address);
+    return targets == null ? null : targets.next();
+  }
+
+  /**
+   * The actor methods registered for a single address
+   */
+  private static final class Targets {
+
+    private final List<Target> targets = new CopyOnWriteArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    Target next() {
+
+      while (!targets.isEmpty()) {
+        final int size = targets.size();
+        final Target target;
+        try {
+          target = targets.get(Math.floorMod(next.getAndIncrement(), size));
+        } catch (IndexOutOfBoundsException e) {
+          //removed concurrently
+          continue;
+        }
+        if (target.consumer.isRegistered()) {
+          return target;
+        }
+        targets.remove(target);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * A method of an actor that is invoked on the context of the actor
+   */
+  static final class Target {
+
+    private final MessageMethodHandler<?, ?> handler;
+    private final MessageConsumer<?> consumer;
+    private final Context context;
+
+    Target(final MessageMethodHandler<?, ?> handler, final MessageConsumer<?> consumer, final Context context) {
+
+      this.handler = handler;
+      this.consumer = consumer;
+      this.context = context;
+    }
+
+    /**
+     * Invokes the method on the context of the actor.
+     *
+     * @param args
+     *     the arguments, which must have been copied by the caller
+     * @param resultHandler
+     *     the handler of the copied result, invoked on the context of the caller
+     */
+    void dispatch(Object[] args, Handler<AsyncResult<Object>> resultHandler) {
+
+      final Context caller = Vertx.currentContext();
+      context.runOnContext(v -> handler.invokeDirect(args).setHandler(r -> {
+        if (caller == null || caller == Vertx.currentContext()) {
+          resultHandler.handle(r);
+        } else {
+          caller.runOnContext(c -> resultHandler.handle(r));
+        }
+      }));
+    }
+  }
+}
@@ -1,6 +1,5 @@
 package io.devcon5.vertx.actors;
 
-import static io.devcon5.vertx.codec.GenericTypeArrayCodec.codecNameFor;
 import static io.devcon5.vertx.codec.GenericTypes.unwrapFutureType;
 import static io.vertx.core.logging.LoggerFactory.getLogger;
 
@@ -8,10 +7,22 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
+import io.devcon5.vertx.codec.ChunkedStreams;
+import io.devcon5.vertx.codec.CodecIds;
+import io.devcon5.vertx.codec.GenericTypeArrayCodec;
+import io.devcon5.vertx.codec.LazyPayload;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
@@ -22,76 +33,138 @@ import io.vertx.core.logging.Logger;
 /**
  * Invokation Handler for a dynamic proxy that sends method arguments as payload to a receiving actor over the event
  * bus.
+ * <br>
+ * Everything that is constant per method - the address, the codec of the arguments, the delivery options and the
+ * adapter of the response - is resolved once on the first invocation of the method and kept in a {@link CallSite}.
+ * <br>
+ * Methods that do not return a {@link io.vertx.core.Future} block the caller until the response is received or the
+ * <code>actors.blockingTimeout</code> has elapsed. The caller is parked while waiting, so it does not consume any CPU
+ * and virtual threads are unmounted from their carrier thread.
+ * <br>
+ * Methods of actors deployed in the same vertx instance are invoked directly on the context of the actor, see {@link
+ * LocalActors}.
  */
 class MessageInvocationHandler implements InvocationHandler {
 
   private static final Logger LOG = getLogger(MessageInvocationHandler.class);
 
+  /**
+   * The time in milliseconds blocking calls wait for the response, configured using the
+   * <code>actors.blockingTimeout</code> jvm parameter. Defaults to the send timeout of the event bus.
+   */
+  static final long BLOCKING_TIMEOUT = Long.getLong("actors.blockingTimeout", DeliveryOptions.DEFAULT_TIMEOUT);
+
+  private final Vertx vertx;
   private final EventBus eb;
+  private final LocalActors localActors;
+  private final long blockingTimeout;
+  private final Map<Method, CallSite> callSites = new ConcurrentHashMap<>();
 
   MessageInvocationHandler(final Vertx vertx) {
 
+    this(vertx, BLOCKING_TIMEOUT);
+  }
+
+  /**
+   * @param vertx
+   *     the vertx instance to send the messages with
+   * @param blockingTimeout
+   *     the time in milliseconds blocking calls wait for the response
+   */
+  MessageInvocationHandler(final Vertx vertx, final long blockingTimeout) {
+
+    this.vertx = vertx;
     this.eb = vertx.eventBus();
+    this.localActors = LocalActors.forVertx(vertx);
+    this.blockingTimeout = blockingTimeout;
   }
 
   @Override
   public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
 
-    checkIgnored(method);
+    final CallSite callSite = callSiteFor(method);
+    if (callSite.ignored) {
+      throw new UnsupportedOperationException(method + " is not supported");
+    }
+    if (callSite.kind == Kind.BLOCKING && Context.isOnEventLoopThread()) {
+      throw new UnsupportedOperationException("Blocking methods are not supported to be executed on the eventloop."
+                                                  + "Non-blocking method must have a io.vertx.core.Future "
+                                                  + "as return type, but "
+                                                  + method
+                                                  + " returns "
+                                                  + method.getReturnType());
+    }
 
-    final DeliveryOptions opts = new DeliveryOptions().setCodecName(codecNameFor(method.getGenericParameterTypes()));
+    final LocalActors.Target target = callSite.returnsMessage ? null : localActors.targetFor(callSite.address);
     final Future result = Future.future();
-
-    final String ebAddress = Actor.getContractMethodAddress(method);
-    LOG.debug("Sending message to {} using codec {}", ebAddress, opts.getCodecName());
-    eb.send(ebAddress, args, opts, result.completer());
-
-    if (getReturnType(method) == void.class) {
-      return null;
-    } else if (isNonBlocking(method)) {
-      return handleResponseNonBlocking(result, method);
+    //blocking callers are notified by the handler of the response, so the handler of the result is not replaced
+    final CompletableFuture<Void> completed = callSite.kind == Kind.BLOCKING ? new CompletableFuture<>() : null;
+    final Handler<AsyncResult<?>> completer = completed == null ? result : r -> {
+      result.handle(r);
+      completed.complete(null);
+    };
+    if (target != null) {
+      LOG.debug("Invoking {} directly", callSite.address);
+      //the arguments are copied as on local delivery, the result is passed as is instead of a reply message
+      target.dispatch(args == null ? new Object[0] : callSite.codec.transform(args), (Handler) completer);
     } else {
-      return handleResponseBlocking(result, method);
+      final DeliveryOptions opts = callSite.deliveryOptions();
+      LOG.debug("Sending message to {} using codec {}", callSite.address, opts.getCodecName());
+      eb.send(callSite.address, args, opts, (Handler) completer);
+    }
+
+    switch (callSite.kind) {
+      case VOID:
+        return null;
+      case NON_BLOCKING:
+        return handleResponseNonBlocking(result, callSite, target != null);
+      default:
+        return handleResponseBlocking(result, completed, callSite, target != null);
     }
   }
 
-  private void checkIgnored(final Method method) {
+  /**
+   * @return the call site of the method, which is created on the first invocation of the method
+   */
+  CallSite callSiteFor(final Method method) {
 
-    if (method.getAnnotation(Contracts.Ignore.class) != null) {
-      throw new UnsupportedOperationException(method + " is not supported");
+    final CallSite callSite = callSites.get(method);
+    if (callSite != null) {
+      return callSite;
     }
+    return callSites.computeIfAbsent(method, m -> new CallSite(vertx, m, blockingTimeout));
   }
 
-  private Object handleResponseNonBlocking(final Future result, final Method method) {
+  private Object handleResponseNonBlocking(final Future result, final CallSite callSite, final boolean direct) {
 
-    if (getReturnType(method) == Message.class) {
+    if (callSite.returnsMessage) {
       return result;
+    } else if (direct) {
+      return result.recover(callSite.exceptionHandler);
     } else {
-      return result.map(this::unwrapBody).recover(exceptionHandler(method));
+      //large responses are decoded on a worker thread before being passed to the caller
+      return result.compose(msg -> LazyPayload.resolve(vertx, ((Message) msg).body()).map(body -> msg))
+                   .map(callSite.responseAdapter)
+                   .recover(callSite.exceptionHandler);
     }
   }
 
-  private Object handleResponseBlocking(final Future result, final Method method) throws Throwable {
+  private Object handleResponseBlocking(final Future result,
+                                        final CompletableFuture<Void> completed,
+                                        final CallSite callSite,
+                                        final boolean direct) throws Throwable {
 
-    if (isEventLoopThred()) {
-      throw new UnsupportedOperationException("Blocking methods are not supported to be executed on the eventloop."
-                                                  + "Non-blocking method must have a io.vertx.core.Future "
-                                                  + "as return type, but "
-                                                  + method
-                                                  + " returns "
-                                                  + method.getReturnType());
-    }
-    while (!result.isComplete()) {
-      Thread.onSpinWait();
+    if (!result.isComplete()) {
+      await(completed);
     }
     if (result.succeeded()) {
-      return result.map(this::unwrapBody).result();
+      return direct ? result.result() : result.map(callSite.responseAdapter).result();
     } else {
-      throw result.recover(exceptionHandler(method)).cause();
+      throw result.recover(callSite.exceptionHandler).cause();
     }
   }
 
-  private Function<Throwable, Future> exceptionHandler(final Method method) {
+  private static Function<Throwable, Future> exceptionHandler(final Method method) {
 
     return ex -> {
       if (ex instanceof ReplyException) {
@@ -109,22 +182,37 @@ class MessageInvocationHandler implements InvocationHandler {
     };
   }
 
-  private Object unwrapBody(final Object oMsg) {
+  private static Function<Object, Object> responseAdapter(final Vertx vertx, final Method method) {
 
-    return ((Message) oMsg).body();
+    final Type streamElementType = ChunkedStreams.elementTypeOf(method.getGenericReturnType());
+    if (streamElementType != null) {
+      //the response is the address of the stream published by the actor
+      return oMsg -> ChunkedStreams.subscribe(vertx, (String) unwrapBody(oMsg), streamElementType);
+    }
+    return MessageInvocationHandler::unwrapBody;
   }
 
-  private boolean isEventLoopThred() {
+  private static Object unwrapBody(final Object oMsg) {
 
-    return Thread.currentThread().getName().startsWith("vert.x-eventloop-thread");
+    return LazyPayload.unwrap(((Message) oMsg).body());
   }
 
-  private boolean isNonBlocking(final Method method) {
+  /**
+   * Parks the calling thread until the response has been received or the timeout for blocking calls has elapsed.
+   */
+  private void await(final CompletableFuture<Void> completed) throws TimeoutException, InterruptedException {
 
-    return Future.class.isAssignableFrom(method.getReturnType());
+    try {
+      completed.get(blockingTimeout, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      //the future is never completed exceptionally
+      throw new IllegalStateException(e);
+    } catch (TimeoutException e) {
+      throw new TimeoutException("Method timed out");
+    }
   }
 
-  private Class<?> getReturnType(final Method method) {
+  private static Class<?> getReturnType(final Method method) {
 
     final Type returnType = unwrapFutureType(method.getGenericReturnType());
     if (returnType instanceof ParameterizedType) {
@@ -134,4 +222,88 @@ class MessageInvocationHandler implements InvocationHandler {
     }
     return null;
   }
+
+  /**
+   * How the response of a method is passed to the caller
+   */
+  private enum Kind {
+    /**
+     * No response is expected
+     */
+    VOID,
+    /**
+     * The response is passed as future
+     */
+    NON_BLOCKING,
+    /**
+     * The caller is blocked until the response is received
+     */
+    BLOCKING
+  }
+
+  /**
+   * The precomputed invocation of a single contract method
+   */
+  static final class CallSite {
+
+    private final Vertx vertx;
+    private final Method method;
+    private final String address;
+    private final GenericTypeArrayCodec codec;
+    private final boolean ignored;
+    private final Kind kind;
+    private final boolean returnsMessage;
+    private final Function<Object, Object> responseAdapter;
+    private final Function<Throwable, Future> exceptionHandler;
+
+    private final long blockingTimeout;
+
+    private volatile DeliveryOptions options;
+
+    CallSite(final Vertx vertx, final Method method, final long blockingTimeout) {
+
+      this.vertx = vertx;
+      this.blockingTimeout = blockingTimeout;
+      this.method = method;
+      this.address = Actor.getContractMethodAddress(method);
+      //actors resolve large payloads on a worker thread, so they may receive lazy payloads
+      this.codec = GenericTypeArrayCodec.offloadingForType(method.getGenericParameterTypes());
+      this.ignored = method.getAnnotation(Contracts.Ignore.class) != null;
+      final Class<?> returnType = getReturnType(method);
+      if (returnType == void.class) {
+        this.kind = Kind.VOID;
+      } else if (Future.class.isAssignableFrom(method.getReturnType())) {
+        this.kind = Kind.NON_BLOCKING;
+      } else {
+        this.kind = Kind.BLOCKING;
+      }
+      this.returnsMessage = returnType == Message.class;
+      this.responseAdapter = responseAdapter(vertx, method);
+      this.exceptionHandler = exceptionHandler(method);
+    }
+
+    GenericTypeArrayCodec codec() {
+
+      return codec;
+    }
+
+    /**
+     * The delivery options are shared by all invocations, they are only replaced when the codec name changes, i.e.
+     * once the compact id of the codec is known on a clustered event bus.
+     */
+    DeliveryOptions deliveryOptions() {
+
+      final String codecName = CodecIds.nameFor(vertx, codec);
+      DeliveryOptions opts = options;
+      if (opts == null || !codecName.equals(opts.getCodecName())) {
+        opts = new DeliveryOptions().setCodecName(codecName);
+        if (kind == Kind.BLOCKING) {
+          //the reply handler is released when the caller stops waiting
+          opts.setSendTimeout(blockingTimeout);
+        }
+        options = opts;
+      }
+      return opts;
+    }
+  }
 }
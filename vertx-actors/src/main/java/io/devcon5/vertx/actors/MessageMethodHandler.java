@@ -1,47 +1,194 @@
 package io.devcon5.vertx.actors;
 
+import static io.devcon5.vertx.codec.GenericTypes.unwrapFutureType;
 import static io.vertx.core.logging.LoggerFactory.getLogger;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
 
+import io.devcon5.vertx.codec.ChunkedStreams;
 import io.devcon5.vertx.codec.GenericTypeCodec;
+import io.devcon5.vertx.codec.LazyPayload;
+import io.devcon5.vertx.codec.PayloadView;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Verticle;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
+import io.vertx.core.streams.ReadStream;
 
 /**
  * Handler to invoke methods on an actor that correspond to the address of a received event bus message.
+ * <br>
+ * The method is bound to the actor once when the handler is created. The resulting method handle takes the arguments
+ * as array and is invoked exactly, so no access checks or argument validation are done per message.
+ * <br>
+ * Large arguments received as {@link io.devcon5.vertx.codec.LazyPayload} are decoded on a worker thread. Messages
+ * received in the meantime are queued, so messages are dispatched in the order they were received.
+ * <br>
+ * Messages of methods annotated with {@link io.devcon5.vertx.actors.Contracts.Batch} are accumulated and passed to the
+ * batch method of the actor at once, the results are replied to the individual messages.
+ * <br>
+ * Once the consumer of the handler is unregistered, i.e. when the actor is undeployed, messages of an incomplete batch
+ * and messages waiting for a previous one to be decoded are failed, so their callers do not wait for a timeout.
  */
 class MessageMethodHandler<A extends Verticle, T>  implements Handler<Message<T>> {
 
   private static final Logger LOG = getLogger(MessageMethodHandler.class);
+  private static final String UNDEPLOYED = "Actor has been undeployed";
 
   private final A actor;
-  private final Method method;
-  private final String returnTypeCodec;
+  private final MethodHandle invoker;
+  private final DeliveryOptions replyOptions;
+  private final GenericTypeCodec returnCodec;
+  private final Type streamElementType;
+  private final boolean[] views;
+  private final Contracts.Batch batch;
+  private final MethodHandle batchInvoker;
+  //messages received while the arguments of a previous message are decoded
+  private final Queue<Message<T>> pending = new ArrayDeque<>();
+  private boolean decoding;
+  private List<Message<T>> batchMessages = new ArrayList<>();
+  private List<Object[]> batchArgs = new ArrayList<>();
+  private long batchTimer = -1;
+  private boolean closed;
 
   MessageMethodHandler(A actor, Method m){
     this.actor = actor;
-    this.method = m;
-    this.returnTypeCodec = getReturnTypeCodec(m.getGenericReturnType());
+    this.invoker = bind(actor, m);
+    this.batch = m.getAnnotation(Contracts.Batch.class);
+    this.batchInvoker = batch != null ? bind(actor, batchMethodOf(actor, m)) : null;
+    this.views = new boolean[m.getParameterCount()];
+    for (int i = 0; i < views.length; i++) {
+      views[i] = m.getParameterTypes()[i] == PayloadView.class;
+    }
+    this.streamElementType = ChunkedStreams.elementTypeOf(m.getGenericReturnType());
+    final Type returnType = unwrapFutureType(m.getGenericReturnType());
+    //the reply is decoded by the caller, which resolves lazy payloads
+    this.returnCodec = streamElementType == null && GenericTypeCodec.codecNameFor(returnType) != null
+                       ? GenericTypeCodec.offloadingForType(returnType)
+                       : null;
+    //the options are shared by all replies
+    this.replyOptions = returnCodec != null ? new DeliveryOptions().setCodecName(returnCodec.name())
+                                            : new DeliveryOptions();
+  }
+
+  /**
+   * Binds the method to the actor, accepting the arguments as array and returning the result as object
+   */
+  private static MethodHandle bind(final Object actor, final Method method) {
+
+    try {
+      return unreflect(method).bindTo(actor)
+                              .asSpreader(Object[].class, method.getParameterCount())
+                              .asType(MethodType.methodType(Object.class, Object[].class));
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Method " + method + " is not accessible", e);
+    }
+  }
+
+  /**
+   * Resolves the method of the actor that receives the batched messages of a contract method
+   */
+  private static Method batchMethodOf(final Object actor, final Method method) {
+
+    try {
+      return actor.getClass().getMethod(method.getName(), List.class);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Batched method " + method + " requires a method "
+                                          + method.getName() + "(List<Object[]>) on " + actor.getClass(), e);
+    }
   }
 
-  private String getReturnTypeCodec(Type type) {
+  private static MethodHandle unreflect(final Method method) throws IllegalAccessException {
 
-    return GenericTypeCodec.codecNameFor(type);
+    if (!Modifier.isPublic(method.getModifiers())) {
+      LOG.warn("method {} is not public, access may be removed in the future", method);
+      //Note: this option requires the target modules to be opened (open module ...)
+      method.setAccessible(true);
+    }
+    try {
+      return MethodHandles.lookup().unreflect(method);
+    } catch (IllegalAccessException e) {
+      //public methods of non-public classes or of packages not exported to this module
+      method.setAccessible(true);
+      return MethodHandles.lookup().unreflect(method);
+    }
   }
 
   @Override
   public void handle(final Message<T> msg) {
-    invoke(actor, method, (Object[])msg.body()).setHandler(res -> {
-      if(res.succeeded()){
+
+    if (decoding) {
+      //messages are dispatched in the order they were received
+      pending.add(msg);
+    } else {
+      receive(msg);
+    }
+  }
+
+  private void receive(final Message<T> msg) {
+
+    final Object[] args = (Object[]) msg.body();
+    final LazyPayload payload = LazyPayload.of(args);
+    if (payload == null) {
+      dispatch(msg, args);
+      return;
+    }
+    //large arguments are decoded on a worker thread, the method is invoked on the context of the actor afterwards
+    decoding = true;
+    payload.<Object[]>decode(actor.getVertx()).setHandler(decoded -> {
+      decoding = false;
+      if (decoded.succeeded()) {
+        dispatch(msg, decoded.result());
+      } else {
+        LOG.debug("Decoding arguments failed", decoded.cause());
+        msg.fail(500, decoded.cause().getMessage());
+      }
+      while (!decoding && !pending.isEmpty()) {
+        receive(pending.poll());
+      }
+    });
+  }
+
+  private void dispatch(final Message<T> msg, final Object[] args) {
+    if (closed) {
+      //the arguments were decoded after the actor was undeployed
+      msg.fail(500, UNDEPLOYED);
+      return;
+    }
+    if (batchInvoker != null) {
+      enqueue(msg, adaptViews(args));
+      return;
+    }
+    invoke(invoker, adaptViews(args)).setHandler(res -> {
+      if(res.succeeded() && res.result() instanceof ReadStream && streamElementType != null){
+        //large results are not sent at once, but published as stream
+        ChunkedStreams.publish(actor.getVertx(), (ReadStream<?>) res.result(), streamElementType)
+                      .setHandler(address -> {
+                        if (address.succeeded()) {
+                          msg.reply(address.result());
+                        } else {
+                          msg.fail(500, address.cause().getMessage());
+                        }
+                      });
+      } else if(res.succeeded()){
         Object result = res.result();
-        msg.reply(result, getDeliveryOpts());
+        msg.reply(result, replyOptions);
       } else {
         //TODO pass through exceptions
         LOG.debug("Invocation resulted in error", res.cause());
@@ -50,36 +197,155 @@ class MessageMethodHandler<A extends Verticle, T>  implements Handler<Message<T>
     });
   }
 
-  private DeliveryOptions getDeliveryOpts() {
+  /**
+   * Adds the message to the current batch, which is passed to the actor once it is full or its window has elapsed.
+   * Messages are received on the context of the actor, so the batch is not shared between threads.
+   */
+  private void enqueue(final Message<T> msg, final Object[] args) {
 
-    final DeliveryOptions opts = new DeliveryOptions();
-    if(returnTypeCodec != null) {
-      opts.setCodecName(returnTypeCodec);
+    batchMessages.add(msg);
+    batchArgs.add(args);
+    if (batchMessages.size() >= batch.size()) {
+      flush();
+    } else if (batchTimer == -1) {
+      batchTimer = actor.getVertx().setTimer(Math.max(batch.window(), 1), id -> {
+        batchTimer = -1;
+        flush();
+      });
     }
-    return opts;
   }
 
-  private <A extends Verticle> Future<?> invoke(final A actor, final Method method, final Object... arg) {
+  private void flush() {
+
+    if (batchTimer != -1) {
+      actor.getVertx().cancelTimer(batchTimer);
+      batchTimer = -1;
+    }
+    final List<Message<T>> messages = batchMessages;
+    final List<Object[]> args = batchArgs;
+    batchMessages = new ArrayList<>();
+    batchArgs = new ArrayList<>();
+    invoke(batchInvoker, new Object[] { args }).setHandler(res -> {
+      if (res.failed()) {
+        LOG.debug("Batch invocation resulted in error", res.cause());
+        messages.forEach(msg -> msg.fail(500, res.cause().getMessage()));
+      } else if (res.result() == null) {
+        //batches of methods without result
+        messages.forEach(msg -> msg.reply(null, replyOptions));
+      } else if (!(res.result() instanceof List) || ((List<?>) res.result()).size() != messages.size()) {
+        final String error = "Batch of " + messages.size() + " messages returned " + res.result();
+        LOG.debug(error);
+        messages.forEach(msg -> msg.fail(500, error));
+      } else {
+        final List<?> results = (List<?>) res.result();
+        for (int i = 0; i < messages.size(); i++) {
+          messages.get(i).reply(results.get(i), replyOptions);
+        }
+      }
+    });
+  }
+
+  /**
+   * Fails the messages that have been received but not dispatched to the actor. Must be called on the context of the
+   * actor once the consumer is unregistered, as the timer of the batch is cancelled with the context.
+   */
+  void close() {
+
+    closed = true;
+    if (batchTimer != -1) {
+      actor.getVertx().cancelTimer(batchTimer);
+      batchTimer = -1;
+    }
+    batchMessages.forEach(msg -> msg.fail(500, UNDEPLOYED));
+    batchMessages = new ArrayList<>();
+    batchArgs = new ArrayList<>();
+    pending.forEach(msg -> msg.fail(500, UNDEPLOYED));
+    pending.clear();
+  }
+
+  /**
+   * @return true if the method may be invoked directly by callers in the same vertx instance. Streams are always
+   * published over the event bus and batched messages are always received over the event bus.
+   */
+  boolean isDirectDispatchable() {
+
+    return streamElementType == null && batchInvoker == null;
+  }
+
+  /**
+   * Invokes the method directly, without receiving a message. Must be called on the context of the actor.
+   *
+   * @param args
+   *     the arguments, already copied by the caller
+   *
+   * @return a future of the result, which is copied the same way as a reply delivered locally over the event bus.
+   * Failures are reported as {@link io.vertx.core.eventbus.ReplyException}, as if the reply had failed.
+   */
+  Future<Object> invokeDirect(final Object[] args) {
+
+    final Future<Object> result = Future.future();
+    invoke(invoker, adaptViews(args)).setHandler(res -> {
+      if (res.succeeded()) {
+        result.complete(copy(res.result()));
+      } else {
+        LOG.debug("Invocation resulted in error", res.cause());
+        result.fail(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, 500, res.cause().getMessage()));
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Copies the result like the codecs do for local delivery
+   */
+  private Object copy(final Object result) {
+
+    if (result == null) {
+      return null;
+    } else if (returnCodec != null) {
+      return returnCodec.transform(result);
+    } else if (result instanceof JsonObject) {
+      return ((JsonObject) result).copy();
+    } else if (result instanceof JsonArray) {
+      return ((JsonArray) result).copy();
+    } else if (result instanceof Buffer) {
+      return ((Buffer) result).copy();
+    } else if (result instanceof byte[]) {
+      return ((byte[]) result).clone();
+    }
+    return result;
+  }
+
+  /**
+   * Views and values share the same codec name, so the arguments are decoded by whichever codec has been registered
+   * first for the name. Values are wrapped and views are decoded to match the declared parameter types.
+   */
+  private Object[] adaptViews(final Object[] args) {
+
+    for (int i = 0; i < views.length && i < args.length; i++) {
+      if (views[i] && !(args[i] instanceof PayloadView)) {
+        args[i] = PayloadView.of(args[i]);
+      } else if (!views[i] && args[i] instanceof PayloadView) {
+        args[i] = ((PayloadView<?>) args[i]).get();
+      }
+    }
+    return args;
+  }
+
+  private static Future<?> invoke(final MethodHandle handle, final Object[] args) {
 
     try {
-      openMethod(method);
-      final Object returnValue = method.invoke(actor, arg);
+      final Object returnValue = (Object) handle.invokeExact(args);
       if(returnValue instanceof Future){
         return (Future)returnValue;
       } else {
         return Future.succeededFuture(returnValue);
       }
-    } catch (Exception e) {
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
+      //exceptions thrown by the actor are replied as failure
       return Future.failedFuture(e);
     }
   }
-
-  private void openMethod(final Method method) {
-
-    if (!Modifier.isPublic(method.getModifiers())) {
-      LOG.warn("method {} is not public, access may be removed in the future", method);
-      //Note: this option requires the target modules to be opened (open module ...)
-      method.setAccessible(true);
-    }
-  }
 }
@@ -0,0 +1,131 @@
+package io.devcon5.vertx.actors;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import io.devcon5.vertx.actors.MessageInvocationHandler.CallSite;
+import io.devcon5.vertx.actors.model.User;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ */
+@RunWith(VertxUnitRunner.class)
+public class ContractProxiesTest {
+
+  @Rule
+  public RunTestOnContext context = new RunTestOnContext();
+
+  @Test
+  public void sameVertxAndContract_sameProxy(TestContext ctx) throws Exception {
+
+    Contract first = Actor.withContract(context.vertx(), Contract.class);
+    Contract second = Actor.withContract(context.vertx(), Contract.class);
+
+    ctx.assertTrue(first == second);
+  }
+
+  @Test
+  public void differentContracts_differentProxies_sharedHandler(TestContext ctx) throws Exception {
+
+    Contract contract = Actor.withContract(context.vertx(), Contract.class);
+    OtherContract other = Actor.withContract(context.vertx(), OtherContract.class);
+
+    ctx.assertFalse((Object) contract == other);
+    ctx.assertTrue(Proxy.getInvocationHandler(contract) == Proxy.getInvocationHandler(other));
+  }
+
+  @Test
+  public void differentVertx_differentProxies(TestContext ctx) throws Exception {
+
+    Vertx otherVertx = Vertx.vertx();
+    try {
+      Contract first = Actor.withContract(context.vertx(), Contract.class);
+      Contract second = Actor.withContract(otherVertx, Contract.class);
+
+      ctx.assertFalse(first == second);
+      ctx.assertTrue(second == Actor.withContract(otherVertx, Contract.class));
+    } finally {
+      otherVertx.close(ctx.asyncAssertSuccess());
+    }
+  }
+
+  @Test
+  public void callSite_reusedAcrossInvocations(TestContext ctx) throws Exception {
+
+    Async done = ctx.async();
+    context.vertx().deployVerticle(new HelloActor(), ctx.asyncAssertSuccess(id -> {
+      Contract contract = Actor.withContract(context.vertx(), Contract.class);
+      MessageInvocationHandler handler = (MessageInvocationHandler) Proxy.getInvocationHandler(contract);
+      Method method = getMethod(Contract.class, "hello", User.class);
+
+      contract.hello(new User().withName("Bob")).setHandler(first -> {
+        CallSite callSite = handler.callSiteFor(method);
+        contract.hello(new User().withName("Alice")).setHandler(second -> {
+          ctx.assertEquals("Hello Alice", second.result());
+          ctx.assertTrue(callSite == handler.callSiteFor(method));
+          done.complete();
+        });
+      });
+    }));
+  }
+
+  @Test
+  public void callSite_deliveryOptionsAndCodecReused(TestContext ctx) throws Exception {
+
+    Contract contract = Actor.withContract(context.vertx(), Contract.class);
+    MessageInvocationHandler handler = (MessageInvocationHandler) Proxy.getInvocationHandler(contract);
+
+    CallSite callSite = handler.callSiteFor(Contract.class.getMethod("hello", User.class));
+    CallSite otherCallSite = handler.callSiteFor(Contract.class.getMethod("hello", String.class));
+
+    ctx.assertTrue(callSite.deliveryOptions() == callSite.deliveryOptions());
+    ctx.assertTrue(callSite.codec() == handler.callSiteFor(Contract.class.getMethod("hello", User.class)).codec());
+    ctx.assertFalse(callSite == otherCallSite);
+    ctx.assertNotEquals(callSite.deliveryOptions().getCodecName(), otherCallSite.deliveryOptions().getCodecName());
+  }
+
+  private static Method getMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+
+    try {
+      return type.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public interface Contract {
+
+    Future<String> hello(String name);
+
+    Future<String> hello(User user);
+  }
+
+  public interface OtherContract {
+
+    Future<String> bye(String name);
+  }
+
+  public static class HelloActor extends AbstractActor implements Contract {
+
+    @Override
+    public Future<String> hello(final String name) {
+
+      return Future.succeededFuture("Hello " + name);
+    }
+
+    @Override
+    public Future<String> hello(final User user) {
+
+      return Future.succeededFuture("Hello " + user.getName());
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package io.devcon5.vertx.actors;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.devcon5.vertx.actors.model.User;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ */
+@RunWith(VertxUnitRunner.class)
+public class DirectDispatchTest {
+
+  private static volatile User received;
+  private static volatile User kept;
+  private static volatile Context actorContext;
+
+  @Rule
+  public RunTestOnContext context = new RunTestOnContext();
+
+  private final AtomicInteger sent = new AtomicInteger();
+  private String deploymentId;
+
+  @Before
+  public void setUp(TestContext ctx) throws Exception {
+
+    received = null;
+    kept = null;
+    actorContext = null;
+    countMessagesSent(context.vertx());
+    context.vertx().deployVerticle(LocalActor.class.getName(), ctx.asyncAssertSuccess(id -> deploymentId = id));
+  }
+
+  @Test
+  public void localCall_dispatchedDirectly(TestContext ctx) throws Exception {
+
+    Contract actor = Actor.withContract(Contract.class);
+
+    actor.hello("Bob").setHandler(ctx.asyncAssertSuccess(result -> {
+      ctx.assertEquals("Hello Bob", result);
+      ctx.assertEquals(0, sent.get());
+    }));
+  }
+
+  @Test
+  public void localCall_argumentsAndResultCopied(TestContext ctx) throws Exception {
+
+    Contract actor = Actor.withContract(Contract.class);
+    User bob = new User().withName("Bob");
+
+    Future<User> result = actor.remember(bob);
+    bob.setName("Eve");
+
+    result.setHandler(ctx.asyncAssertSuccess(user -> {
+      ctx.assertEquals("Bob", received.getName());
+      ctx.assertFalse(user == kept);
+      user.setName("Mallory");
+      ctx.assertEquals("Bob", kept.getName());
+    }));
+  }
+
+  @Test
+  public void localCall_completedOnCallerContext(TestContext ctx) throws Exception {
+
+    Contract actor = Actor.withContract(Contract.class);
+    Context caller = Vertx.currentContext();
+
+    actor.hello("Bob").setHandler(ctx.asyncAssertSuccess(result -> {
+      ctx.assertTrue(actorContext != caller);
+      ctx.assertTrue(Vertx.currentContext() == caller);
+    }));
+  }
+
+  @Test
+  public void localCall_failure_mappedToReplyException(TestContext ctx) throws Exception {
+
+    Contract actor = Actor.withContract(Contract.class);
+
+    actor.deny("Bob").setHandler(ctx.asyncAssertFailure(cause -> {
+      ctx.assertTrue(cause instanceof ReplyException);
+      ctx.assertEquals(ReplyFailure.RECIPIENT_FAILURE, ((ReplyException) cause).failureType());
+      ctx.assertEquals(500, ((ReplyException) cause).failureCode());
+      ctx.assertEquals("Bob is denied", cause.getMessage());
+    }));
+  }
+
+  @Test
+  public void undeployedActor_fallbackToEventBus(TestContext ctx) throws Exception {
+
+    Contract actor = Actor.withContract(Contract.class);
+
+    Async done = ctx.async();
+    context.vertx().undeploy(deploymentId, ctx.asyncAssertSuccess(v -> {
+      actor.hello("Bob").setHandler(result -> {
+        //the message is sent, but no actor receives it
+        ctx.assertTrue(result.failed());
+        ctx.assertTrue(result.cause() instanceof UnsupportedOperationException);
+        ctx.assertEquals(1, sent.get());
+        done.complete();
+      });
+    }));
+  }
+
+  @Test
+  public void directDispatchDisabled_sentOverEventBus(TestContext ctx) throws Exception {
+
+    final Vertx vertx;
+    System.setProperty("actors.directDispatch", "false");
+    try {
+      vertx = Vertx.vertx();
+      //the parameter is read once per vertx instance
+      LocalActors.forVertx(vertx);
+    } finally {
+      System.clearProperty("actors.directDispatch");
+    }
+    final AtomicInteger sentOnVertx = new AtomicInteger();
+    vertx.eventBus().addOutboundInterceptor(delivery -> {
+      if (delivery.message().address().startsWith(Contract.class.getName())) {
+        sentOnVertx.incrementAndGet();
+      }
+      delivery.next();
+    });
+
+    Async done = ctx.async();
+    vertx.deployVerticle(LocalActor.class.getName(), ctx.asyncAssertSuccess(id -> {
+      Actor.withContract(vertx, Contract.class).hello("Bob").setHandler(result -> {
+        ctx.assertTrue(result.succeeded());
+        ctx.assertEquals("Hello Bob", result.result());
+        ctx.assertEquals(1, sentOnVertx.get());
+        vertx.close(closed -> done.complete());
+      });
+    }));
+  }
+
+  private void countMessagesSent(Vertx vertx) {
+
+    vertx.eventBus().addOutboundInterceptor(delivery -> {
+      if (delivery.message().address().startsWith(Contract.class.getName())) {
+        sent.incrementAndGet();
+      }
+      delivery.next();
+    });
+  }
+
+  public interface Contract {
+
+    Future<String> hello(String name);
+
+    Future<User> remember(User user);
+
+    Future<String> deny(String name);
+  }
+
+  public static class LocalActor extends AbstractActor implements Contract {
+
+    @Override
+    public Future<String> hello(final String name) {
+
+      actorContext = Vertx.currentContext();
+      return Future.succeededFuture("Hello " + name);
+    }
+
+    @Override
+    public Future<User> remember(final User user) {
+
+      received = user;
+      kept = new User().withName(user.getName());
+      return Future.succeededFuture(kept);
+    }
+
+    @Override
+    public Future<String> deny(final String name) {
+
+      return Future.failedFuture(name + " is denied");
+    }
+  }
+}
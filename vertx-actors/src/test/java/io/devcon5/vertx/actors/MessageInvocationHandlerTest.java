@@ -0,0 +1,120 @@
+package io.devcon5.vertx.actors;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ */
+@RunWith(VertxUnitRunner.class)
+public class MessageInvocationHandlerTest {
+
+  private static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+  @Rule
+  public RunTestOnContext context = new RunTestOnContext();
+
+  @Before
+  public void setUp(TestContext ctx) throws Exception {
+
+    INVOCATIONS.set(0);
+    //the actor is a worker, so it can delay its response by sleeping
+    context.vertx().deployVerticle(SlowActor.class.getName(),
+                                   new DeploymentOptions().setWorker(true),
+                                   ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void blockingCall_parksUntilResponse(TestContext ctx) throws Exception {
+
+    BlockingContract actor = withBlockingTimeout(1000);
+
+    Async done = ctx.async();
+    context.vertx().executeBlocking(fut -> {
+      try {
+        fut.complete(actor.echo("Bob", 100));
+      } catch (TimeoutException e) {
+        fut.fail(e);
+      }
+    }, result -> {
+      ctx.assertTrue(result.succeeded());
+      ctx.assertEquals("Bob", result.result());
+      done.complete();
+    });
+  }
+
+  @Test
+  public void blockingCall_timeoutElapsed_expectTimeoutException(TestContext ctx) throws Exception {
+
+    BlockingContract actor = withBlockingTimeout(50);
+
+    Async done = ctx.async();
+    context.vertx().executeBlocking(fut -> {
+      try {
+        fut.complete(actor.echo("Bob", 500));
+      } catch (TimeoutException e) {
+        fut.fail(e);
+      }
+    }, result -> {
+      ctx.assertTrue(result.failed());
+      ctx.assertTrue(result.cause() instanceof TimeoutException);
+      done.complete();
+    });
+  }
+
+  @Test
+  public void blockingCall_onEventLoop_expectException_notInvoked(TestContext ctx) throws Exception {
+
+    BlockingContract actor = withBlockingTimeout(1000);
+
+    try {
+      actor.echo("Bob", 0);
+      ctx.fail("blocking call on the event loop must fail");
+    } catch (UnsupportedOperationException | TimeoutException e) {
+      ctx.assertTrue(e instanceof UnsupportedOperationException);
+    }
+    Async done = ctx.async();
+    context.vertx().setTimer(100, t -> {
+      ctx.assertEquals(0, INVOCATIONS.get());
+      done.complete();
+    });
+  }
+
+  private BlockingContract withBlockingTimeout(long timeout) {
+
+    return (BlockingContract) Proxy.newProxyInstance(BlockingContract.class.getClassLoader(),
+                                                     new Class[] { BlockingContract.class },
+                                                     new MessageInvocationHandler(context.vertx(), timeout));
+  }
+
+  public interface BlockingContract {
+
+    String echo(String value, long delay) throws TimeoutException;
+  }
+
+  public static class SlowActor extends AbstractActor implements BlockingContract {
+
+    @Override
+    public String echo(final String value, final long delay) {
+
+      INVOCATIONS.incrementAndGet();
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return value;
+    }
+  }
+}
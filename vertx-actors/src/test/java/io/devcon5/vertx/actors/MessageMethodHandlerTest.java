@@ -0,0 +1,145 @@
+package io.devcon5.vertx.actors;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.devcon5.vertx.codec.GenericTypeArrayCodec;
+import io.devcon5.vertx.codec.WireFormats;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ */
+@RunWith(VertxUnitRunner.class)
+public class MessageMethodHandlerTest {
+
+  private static final List<String> RECEIVED = Collections.synchronizedList(new ArrayList<>());
+
+  @Rule
+  public RunTestOnContext context = new RunTestOnContext();
+
+  @Before
+  public void setUp(TestContext ctx) throws Exception {
+
+    RECEIVED.clear();
+    context.vertx().eventBus().registerCodec(new WireCodec());
+    context.vertx().deployVerticle(RecordingActor.class.getName(), ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void lazyPayload_laterMessages_dispatchedInOrder(TestContext ctx) throws Exception {
+
+    final Method method = Contract.class.getMethod("record", String.class);
+    final String address = Actor.getContractMethodAddress(method);
+    final DeliveryOptions opts = new DeliveryOptions().setCodecName(WireCodec.NAME);
+    final String large = String.join("", Collections.nCopies(1024, "x"));
+
+    final EventBus eb = context.vertx().eventBus();
+    Async done = ctx.async(3);
+    //the first message is decoded on a worker thread, the small ones are decoded immediately
+    eb.send(address, new Object[] { large }, opts, ctx.asyncAssertSuccess(r -> done.countDown()));
+    eb.send(address, new Object[] { "a" }, opts, ctx.asyncAssertSuccess(r -> done.countDown()));
+    eb.send(address, new Object[] { "b" }, opts, ctx.asyncAssertSuccess(r -> {
+      ctx.assertEquals(List.of("large", "a", "b"), RECEIVED);
+      done.countDown();
+    }));
+  }
+
+  @Test
+  public void undeploy_partialBatch_failed(TestContext ctx) throws Exception {
+
+    final BatchContract actor = Actor.withContract(BatchContract.class);
+
+    Async done = ctx.async();
+    context.vertx().deployVerticle(BatchingActor.class.getName(), ctx.asyncAssertSuccess(id -> {
+      final long sent = System.currentTimeMillis();
+      actor.collect("a").setHandler(result -> {
+        ctx.assertTrue(result.failed());
+        ctx.assertEquals(ReplyFailure.RECIPIENT_FAILURE, ((ReplyException) result.cause()).failureType());
+        //the caller must not wait for the batch window or the timeout of the message
+        ctx.assertTrue(System.currentTimeMillis() - sent < 5_000);
+        done.complete();
+      });
+      context.vertx().setTimer(50, t -> context.vertx().undeploy(id, ctx.asyncAssertSuccess()));
+    }));
+  }
+
+  public interface Contract {
+
+    Future<Void> record(String value);
+  }
+
+  public static class RecordingActor extends AbstractActor implements Contract {
+
+    @Override
+    public Future<Void> record(final String value) {
+
+      RECEIVED.add(value.length() > 1 ? "large" : value);
+      return Future.succeededFuture();
+    }
+  }
+
+  public interface BatchContract {
+
+    @Contracts.Batch(size = 10, window = 60_000)
+    Future<String> collect(String value);
+  }
+
+  public static class BatchingActor extends AbstractActor implements BatchContract {
+
+    @Override
+    public Future<String> collect(final String value) {
+
+      //the messages are received by the batch method
+      return Future.failedFuture("not batched");
+    }
+
+    public List<String> collect(final List<Object[]> values) {
+
+      return values.stream().map(args -> (String) args[0]).collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Offloading codec that encodes and decodes local messages as if they were received from another node
+   */
+  private static class WireCodec extends GenericTypeArrayCodec {
+
+    static final String NAME = "wire";
+
+    WireCodec() {
+
+      super(new Class[] { String.class }, WireFormats.json(), 64);
+    }
+
+    @Override
+    public Object[] transform(final Object[] objects) {
+
+      final Buffer buffer = Buffer.buffer();
+      encodeToWire(buffer, objects);
+      return decodeFromWire(0, buffer);
+    }
+
+    @Override
+    public String name() {
+
+      return NAME;
+    }
+  }
+}
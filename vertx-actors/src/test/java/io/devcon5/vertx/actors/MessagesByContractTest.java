@@ -152,6 +152,45 @@ public class MessagesByContractTest {
 
   }
 
+  @Test
+  public void invoke_batchedMethod_fullBatch(TestContext ctx) throws Exception {
+
+    Contract actor = Actor.withContract(Contract.class);
+
+    Future<String> first = actor.greet("Bob");
+    Future<String> second = actor.greet("Alice");
+    Future<String> third = actor.greet("Eve");
+
+    first.setHandler(assertResult(ctx, "Hi Bob, 3 in batch"));
+    second.setHandler(assertResult(ctx, "Hi Alice, 3 in batch"));
+    third.setHandler(assertResult(ctx, "Hi Eve, 3 in batch"));
+  }
+
+  @Test
+  public void invoke_batchedMethod_windowElapsed(TestContext ctx) throws Exception {
+
+    Contract actor = Actor.withContract(Contract.class);
+
+    Future<String> actual = actor.greet("Bob");
+
+    actual.setHandler(assertResult(ctx, "Hi Bob, 1 in batch"));
+  }
+
+  @Test
+  public void invoke_method_throwingException_expect_failedReply(TestContext ctx) throws Exception {
+
+    Contract actor = Actor.withContract(Contract.class);
+
+    Future<String> actual = actor.reject("Bob");
+
+    Async done = ctx.async();
+    actual.setHandler(result -> {
+      ctx.assertTrue(result.failed());
+      ctx.assertEquals("Bob is not welcome", result.cause().getMessage());
+      done.complete();
+    });
+  }
+
   @Test(expected = UnsupportedOperationException.class)
   public void ingoreAnnotatedMethod() throws Exception {
     Contract actor = Actor.withContract(Contract.class);
@@ -224,6 +263,11 @@ public class MessagesByContractTest {
 
     @Contracts.Ignore
     void ignoreMe();
+
+    @Contracts.Batch(size = 3, window = 50)
+    Future<String> greet(String name);
+
+    Future<String> reject(String name);
   }
 
   public interface NonContract {
@@ -292,6 +336,26 @@ public class MessagesByContractTest {
 
     }
 
+    @Override
+    public Future<String> greet(final String name) {
+
+      //the messages are received by the batch method
+      return Future.failedFuture("not batched");
+    }
+
+    public Future<List<String>> greet(final List<Object[]> names) {
+
+      return Future.succeededFuture(names.stream()
+                                         .map(args -> "Hi " + args[0] + ", " + names.size() + " in batch")
+                                         .collect(Collectors.toList()));
+    }
+
+    @Override
+    public Future<String> reject(final String name) {
+
+      throw new IllegalArgumentException(name + " is not welcome");
+    }
+
     @Override
     public Future<String> notSupported() {
       return Future.succeededFuture("Don't call us, we call you!");
@@ -0,0 +1,25 @@
+package io.devcon5.vertx.codec.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the codec benchmarks with the gc profiler, so that the allocation rate (<code>gc.alloc.rate.norm</code>, bytes
+ * per operation) is reported next to the throughput. All the standard JMH command line options are supported, i.e.
+ * <code>java -jar benchmarks.jar GenericTypeCodecBenchmark -p payload=POJO -rf json</code>
+ */
+public final class Benchmarks {
+
+  private Benchmarks() {
+
+  }
+
+  public static void main(String... args) throws RunnerException, CommandLineOptionException {
+
+    new Runner(new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build()).run();
+  }
+}
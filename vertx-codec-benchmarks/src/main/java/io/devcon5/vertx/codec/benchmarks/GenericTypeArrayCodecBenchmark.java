@@ -0,0 +1,76 @@
+package io.devcon5.vertx.codec.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+import io.devcon5.vertx.codec.GenericTypeArrayCodec;
+import io.devcon5.vertx.codec.WireFormats;
+import io.vertx.core.buffer.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks encoding, decoding and local transformation of method arguments with the {@link
+ * io.devcon5.vertx.codec.GenericTypeArrayCodec}. The arguments are a string, a number and the payload, resembling a
+ * typical method signature.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenericTypeArrayCodecBenchmark {
+
+  @Param({"STRING", "POJO", "SHAREABLE", "SERIALIZABLE", "LIST_OF_POJOS", "MAP_OF_LISTS"})
+  private Payloads payload;
+
+  @Param({"1", "100", "10000"})
+  private int size;
+
+  @Param({"json", "binary"})
+  private String format;
+
+  private GenericTypeArrayCodec codec;
+  private Object[] values;
+  private Buffer encoded;
+
+  @Setup
+  public void setup() {
+
+    codec = new GenericTypeArrayCodec(new Type[] { String.class, Integer.class, payload.type() },
+                                      WireFormats.forName(format));
+    values = new Object[] { "key", 42, payload.create(size) };
+    encoded = Buffer.buffer();
+    codec.encodeToWire(encoded, values);
+  }
+
+  @Benchmark
+  public Buffer encodeToWire() {
+
+    final Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, values);
+    return buffer;
+  }
+
+  @Benchmark
+  public Object[] decodeFromWire() {
+
+    return codec.decodeFromWire(0, encoded);
+  }
+
+  @Benchmark
+  public Object[] transform() {
+
+    return codec.transform(values);
+  }
+}
@@ -0,0 +1,73 @@
+package io.devcon5.vertx.codec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import io.devcon5.vertx.codec.GenericTypeCodec;
+import io.devcon5.vertx.codec.WireFormats;
+import io.vertx.core.buffer.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks encoding, decoding and local transformation of single values with the {@link
+ * io.devcon5.vertx.codec.GenericTypeCodec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenericTypeCodecBenchmark {
+
+  @Param({"STRING", "POJO", "SHAREABLE", "SERIALIZABLE", "LIST_OF_POJOS", "MAP_OF_LISTS"})
+  private Payloads payload;
+
+  @Param({"1", "100", "10000"})
+  private int size;
+
+  @Param({"json", "binary"})
+  private String format;
+
+  private GenericTypeCodec codec;
+  private Object value;
+  private Buffer encoded;
+
+  @Setup
+  public void setup() {
+
+    codec = new GenericTypeCodec(payload.type(), WireFormats.forName(format));
+    value = payload.create(size);
+    encoded = Buffer.buffer();
+    codec.encodeToWire(encoded, value);
+  }
+
+  @Benchmark
+  public Buffer encodeToWire() {
+
+    final Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, value);
+    return buffer;
+  }
+
+  @Benchmark
+  public Object decodeFromWire() {
+
+    return codec.decodeFromWire(0, encoded);
+  }
+
+  @Benchmark
+  public Object transform() {
+
+    return codec.transform(value);
+  }
+}
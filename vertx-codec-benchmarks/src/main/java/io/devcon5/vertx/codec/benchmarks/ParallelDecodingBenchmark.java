@@ -0,0 +1,63 @@
+package io.devcon5.vertx.codec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import io.devcon5.vertx.codec.GenericTypeCodec;
+import io.devcon5.vertx.codec.WireFormats;
+import io.vertx.core.buffer.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the serial and the parallel decoding of large Json lists with the {@link
+ * io.devcon5.vertx.codec.GenericTypeCodec}. The parallel decoding is enabled by the
+ * <code>codec.parallelDecodeThreshold</code> jvm parameter, so each variant runs in its own fork. The benchmark threads
+ * are no event loop threads, so the lists are decoded in parallel whenever they exceed the threshold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParallelDecodingBenchmark {
+
+  @Param({"LIST_OF_POJOS"})
+  private Payloads payload;
+
+  @Param({"1000", "10000", "100000"})
+  private int size;
+
+  private GenericTypeCodec codec;
+  private Buffer encoded;
+
+  @Setup
+  public void setup() {
+
+    codec = new GenericTypeCodec(payload.type(), WireFormats.json());
+    encoded = Buffer.buffer();
+    codec.encodeToWire(encoded, payload.create(size));
+  }
+
+  @Benchmark
+  @Fork(1)
+  public Object decodeSerial() {
+
+    return codec.decodeFromWire(0, encoded);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = "-Dcodec.parallelDecodeThreshold=1000")
+  public Object decodeParallel() {
+
+    return codec.decodeFromWire(0, encoded);
+  }
+}
@@ -0,0 +1,193 @@
+package io.devcon5.vertx.codec.benchmarks;
+
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * The payloads used by the benchmarks. Each kind of payload is created with a size, which is the length of strings or
+ * the number of elements of collections, so the cost of the codecs can be compared across payload sizes.
+ */
+public enum Payloads {
+
+  STRING(String.class, Payloads::text),
+  POJO(Pojo.class, size -> new Pojo(size)),
+  SHAREABLE(SharedPojo.class, size -> new SharedPojo(size)),
+  SERIALIZABLE(SerializablePojo.class, size -> new SerializablePojo(size)),
+  LIST_OF_POJOS(new TypeReference<List<Pojo>>() {}.getType(), Payloads::listOfPojos),
+  MAP_OF_LISTS(new TypeReference<Map<String, List<Pojo>>>() {}.getType(), Payloads::mapOfLists);
+
+  private final Type type;
+  private final IntFunction<Object> factory;
+
+  Payloads(final Type type, final IntFunction<Object> factory) {
+
+    this.type = type;
+    this.factory = factory;
+  }
+
+  /**
+   * @return the (generic) type of the payload
+   */
+  public Type type() {
+
+    return type;
+  }
+
+  /**
+   * Creates a payload.
+   *
+   * @param size
+   *     the length of the strings or the number of elements of the collections
+   *
+   * @return a new payload of this kind
+   */
+  public Object create(int size) {
+
+    return factory.apply(size);
+  }
+
+  private static String text(int size) {
+
+    final StringBuilder sb = new StringBuilder(size);
+    for (int i = 0; i < size; i++) {
+      sb.append((char) ('a' + i % 26));
+    }
+    return sb.toString();
+  }
+
+  private static List<Pojo> listOfPojos(int size) {
+
+    final List<Pojo> pojos = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      pojos.add(new Pojo(i % 16));
+    }
+    return pojos;
+  }
+
+  private static Map<String, List<Pojo>> mapOfLists(int size) {
+
+    //the total number of pojos is the size, distributed over the square root of it as keys
+    final int keys = Math.max(1, (int) Math.sqrt(size));
+    final Map<String, List<Pojo>> map = new LinkedHashMap<>();
+    for (int i = 0; i < keys; i++) {
+      map.put("key" + i, listOfPojos(size / keys));
+    }
+    return map;
+  }
+
+  public static class Pojo {
+
+    private String name;
+    private long id;
+    private List<String> tags;
+
+    public Pojo() {
+
+    }
+
+    Pojo(int size) {
+
+      this.name = text(Math.min(size, 32));
+      this.id = size;
+      this.tags = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        tags.add("tag" + i);
+      }
+    }
+
+    public String getName() {
+
+      return name;
+    }
+
+    public void setName(final String name) {
+
+      this.name = name;
+    }
+
+    public long getId() {
+
+      return id;
+    }
+
+    public void setId(final long id) {
+
+      this.id = id;
+    }
+
+    public List<String> getTags() {
+
+      return tags;
+    }
+
+    public void setTags(final List<String> tags) {
+
+      this.tags = tags;
+    }
+  }
+
+  public static class SharedPojo extends Pojo implements Shareable {
+
+    public SharedPojo() {
+
+    }
+
+    SharedPojo(int size) {
+
+      super(size);
+    }
+
+    @Override
+    public Shareable copy() {
+
+      final SharedPojo copy = new SharedPojo();
+      copy.setName(getName());
+      copy.setId(getId());
+      copy.setTags(new ArrayList<>(getTags()));
+      return copy;
+    }
+  }
+
+  /**
+   * Has no default constructor, so it can not be copied field by field and is copied by serialization instead
+   */
+  public static class SerializablePojo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+    private List<String> tags;
+
+    @JsonCreator
+    public SerializablePojo(@JsonProperty("name") final String name, @JsonProperty("tags") final List<String> tags) {
+
+      this.name = name;
+      this.tags = tags;
+    }
+
+    SerializablePojo(int size) {
+
+      this(text(Math.min(size, 32)), new Pojo(size).getTags());
+    }
+
+    public String getName() {
+
+      return name;
+    }
+
+    public List<String> getTags() {
+
+      return tags;
+    }
+  }
+}
@@ -0,0 +1,804 @@
+package io.devcon5.vertx.codec.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a <code>io.devcon5.vertx.codec.TypeCodec</code> for the bean types used in the methods of interfaces
+ * annotated with <code>io.devcon5.vertx.codec.GenerateCodecs</code>. The codec of a bean <code>Pojo</code> is
+ * generated as <code>Pojo_Codec</code> in the package of the bean and registered in
+ * <code>META-INF/services/io.devcon5.vertx.codec.TypeCodec</code>.
+ * <br>
+ * Beans are written as the sequence of their properties, ordered by name. Reference values are prefixed with a
+ * presence flag, collections and maps with their size, the primitives are written by the binary writer of the codec
+ * module. Bean types with properties the processor can not generate code for are reported and skipped, they are
+ * encoded by the runtime codecs instead.
+ * <br>
+ * Codecs are only generated for final classes, as the codec of a declared type would lose the properties of a
+ * subclass, and for classes without Jackson annotations, which the generated code does not honour.
+ */
+@SupportedAnnotationTypes(CodecProcessor.GENERATE_CODECS)
+public class CodecProcessor extends AbstractProcessor {
+
+  static final String GENERATE_CODECS = "io.devcon5.vertx.codec.GenerateCodecs";
+  static final String TYPE_CODEC = "io.devcon5.vertx.codec.TypeCodec";
+  static final String CODEC_SUFFIX = "_Codec";
+  static final String JACKSON_ANNOTATIONS = "com.fasterxml.jackson.";
+  static final String SERVICE_FILE = "META-INF/services/" + TYPE_CODEC;
+
+  private static final Map<String, String[]> PRIMITIVES = new HashMap<>();
+
+  static {
+    //the writer and reader methods of the primitive types
+    PRIMITIVES.put("boolean", new String[] { "writeBoolean", "readBoolean" });
+    PRIMITIVES.put("byte", new String[] { "writeByte", "readByte" });
+    PRIMITIVES.put("short", new String[] { "writeShort", "readShort" });
+    PRIMITIVES.put("char", new String[] { "writeChar", "readChar" });
+    PRIMITIVES.put("int", new String[] { "writeVarInt", "readVarInt" });
+    PRIMITIVES.put("long", new String[] { "writeVarLong", "readVarLong" });
+    PRIMITIVES.put("float", new String[] { "writeFloat", "readFloat" });
+    PRIMITIVES.put("double", new String[] { "writeDouble", "readDouble" });
+  }
+
+  //the codecs generated in all rounds, to be registered as services
+  private final Set<String> generatedCodecs = new LinkedHashSet<>();
+  //the beans that have been analyzed, including those without a codec
+  private final Set<String> visited = new LinkedHashSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+
+    if (roundEnv.processingOver()) {
+      writeServiceFile();
+      return false;
+    }
+    final TypeElement annotation = processingEnv.getElementUtils().getTypeElement(GENERATE_CODECS);
+    if (annotation == null) {
+      return false;
+    }
+
+    final Map<String, Bean> candidates = new LinkedHashMap<>();
+    for (Element contract : roundEnv.getElementsAnnotatedWith(annotation)) {
+      if (contract.getKind() != ElementKind.INTERFACE) {
+        error(contract, "@GenerateCodecs is only supported on interfaces");
+        continue;
+      }
+      for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils()
+                                                                           .getAllMembers((TypeElement) contract))) {
+        if (method.getEnclosingElement().getKind() != ElementKind.INTERFACE
+            || method.getModifiers().contains(Modifier.STATIC)) {
+          continue;
+        }
+        collect(method.getReturnType(), contract, candidates);
+        for (VariableElement parameter : method.getParameters()) {
+          collect(parameter.asType(), contract, candidates);
+        }
+      }
+    }
+
+    final Set<String> supported = resolveSupported(candidates);
+    for (Bean bean : candidates.values()) {
+      if (supported.contains(bean.name) && !codecExists(bean)) {
+        generate(bean);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Collects the bean types referenced by a type, including type arguments, array components and the types of bean
+   * properties.
+   */
+  private void collect(final TypeMirror type, final Element origin, final Map<String, Bean> candidates) {
+
+    switch (type.getKind()) {
+      case ARRAY:
+        collect(((ArrayType) type).getComponentType(), origin, candidates);
+        break;
+      case WILDCARD:
+        final TypeMirror bound = ((WildcardType) type).getExtendsBound();
+        if (bound != null) {
+          collect(bound, origin, candidates);
+        }
+        break;
+      case DECLARED:
+        final DeclaredType declared = (DeclaredType) type;
+        for (TypeMirror argument : declared.getTypeArguments()) {
+          collect(argument, origin, candidates);
+        }
+        final TypeElement element = (TypeElement) declared.asElement();
+        final String name = element.getQualifiedName().toString();
+        if (element.getKind() == ElementKind.CLASS && !isPlatformType(name) && visited.add(name)) {
+          final Bean bean = analyze(element, origin);
+          if (bean != null) {
+            candidates.put(name, bean);
+            for (Property property : bean.properties) {
+              collect(property.type, origin, candidates);
+            }
+          }
+        }
+        break;
+      default:
+    }
+  }
+
+  private Bean analyze(final TypeElement element, final Element origin) {
+
+    final Set<Modifier> modifiers = element.getModifiers();
+    if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)) {
+      note(element, "it is not a public, concrete class");
+      return null;
+    }
+    if (!modifiers.contains(Modifier.FINAL)) {
+      note(element, "it is not final and values of subclasses would lose their properties");
+      return null;
+    }
+    if (hasJacksonAnnotations(element)) {
+      note(element, "it has Jackson annotations");
+      return null;
+    }
+    if (element.getNestingKind() != NestingKind.TOP_LEVEL && !modifiers.contains(Modifier.STATIC)) {
+      note(element, "it is an inner class");
+      return null;
+    }
+    if (!element.getTypeParameters().isEmpty()) {
+      note(element, "it is generic");
+      return null;
+    }
+    if (!hasPublicDefaultConstructor(element)) {
+      note(element, "it has no public default constructor");
+      return null;
+    }
+
+    final Map<String, ExecutableElement> getters = new HashMap<>();
+    final Map<String, ExecutableElement> setters = new HashMap<>();
+    for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(element))) {
+      if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      final String name = method.getSimpleName().toString();
+      final int params = method.getParameters().size();
+      if (params == 0 && name.startsWith("get") && name.length() > 3 && !"getClass".equals(name)
+          && method.getReturnType().getKind() != TypeKind.VOID) {
+        getters.put(name.substring(3), method);
+      } else if (params == 0 && name.startsWith("is") && name.length() > 2
+          && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+        getters.putIfAbsent(name.substring(2), method);
+      } else if (params == 1 && name.startsWith("set") && name.length() > 3) {
+        setters.put(name.substring(3), method);
+      }
+    }
+
+    final List<Property> properties = new ArrayList<>();
+    for (Map.Entry<String, ExecutableElement> getter : getters.entrySet()) {
+      final ExecutableElement setter = setters.get(getter.getKey());
+      final TypeMirror type = getter.getValue().getReturnType();
+      if (setter != null && processingEnv.getTypeUtils().isSameType(type, setter.getParameters().get(0).asType())) {
+        properties.add(new Property(decapitalize(getter.getKey()),
+                                    getter.getValue().getSimpleName().toString(),
+                                    setter.getSimpleName().toString(),
+                                    type));
+      }
+    }
+    //the order of the methods is not defined, so the properties are ordered to get a stable representation
+    properties.sort(Comparator.comparing(p -> p.name));
+    return new Bean(element, origin, properties);
+  }
+
+  /**
+   * Determines the beans codecs can be generated for. Beans that are referenced by other beans must be supported as
+   * well, so unsupported beans are removed until no more beans are affected.
+   */
+  private Set<String> resolveSupported(final Map<String, Bean> candidates) {
+
+    final Set<String> supported = new LinkedHashSet<>(candidates.keySet());
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (Iterator<String> it = supported.iterator(); it.hasNext(); ) {
+        final Bean bean = candidates.get(it.next());
+        for (Property property : bean.properties) {
+          if (!isSupported(property.type, supported)) {
+            note(bean.element, "property " + property.name + " of type " + property.type + " is not supported");
+            it.remove();
+            changed = true;
+            break;
+          }
+        }
+      }
+    }
+    return supported;
+  }
+
+  private boolean isSupported(final TypeMirror type, final Set<String> supported) {
+
+    switch (type.getKind()) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case CHAR:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      case ARRAY:
+        return ((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE;
+      case DECLARED:
+        final DeclaredType declared = (DeclaredType) type;
+        final String name = qualifiedName(declared);
+        if (isValue(declared)) {
+          return true;
+        }
+        if (isCollection(name) || isMap(name)) {
+          for (TypeMirror argument : declared.getTypeArguments()) {
+            if (argument.getKind().isPrimitive() || !isSupported(argument, supported)) {
+              return false;
+            }
+          }
+          return declared.getTypeArguments().size() == (isMap(name) ? 2 : 1);
+        }
+        return supported.contains(name) || codecExists(name);
+      default:
+        return false;
+    }
+  }
+
+  private void generate(final Bean bean) {
+
+    final String packageName = processingEnv.getElementUtils().getPackageOf(bean.element).getQualifiedName().toString();
+    final String codecName = codecSimpleName(bean.element);
+    final String qualifiedCodecName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+    final String beanType = bean.element.getQualifiedName().toString();
+
+    final CodeWriter code = new CodeWriter();
+    code.line("@Override");
+    code.line("public Class<" + beanType + "> type() {");
+    code.line("");
+    code.line("  return " + beanType + ".class;");
+    code.line("}");
+    code.line("");
+    code.line("@Override");
+    code.line("public void write(final BinaryWriter out, final " + beanType + " value) {");
+    code.line("");
+    code.indent++;
+    for (Property property : bean.properties) {
+      code.write(property.type, "value." + property.getter + "()");
+    }
+    code.indent--;
+    code.line("}");
+    code.line("");
+    code.line("@Override");
+    code.line("public " + beanType + " read(final BinaryReader in) {");
+    code.line("");
+    code.indent++;
+    code.line("final " + beanType + " value = new " + beanType + "();");
+    for (Property property : bean.properties) {
+      code.line("value." + property.setter + "(" + code.read(property.type) + ");");
+    }
+    code.line("return value;");
+    code.indent--;
+    code.line("}");
+    code.line("");
+    code.line("@Override");
+    code.line("public " + beanType + " copy(final " + beanType + " value) {");
+    code.line("");
+    code.indent++;
+    code.line("final " + beanType + " copy = new " + beanType + "();");
+    for (Property property : bean.properties) {
+      code.line("copy." + property.setter + "(" + code.copy(property.type, "value." + property.getter + "()") + ");");
+    }
+    code.line("return copy;");
+    code.indent--;
+    code.line("}");
+
+    try (Writer out = processingEnv.getFiler()
+                                   .createSourceFile(qualifiedCodecName, bean.element, bean.origin)
+                                   .openWriter()) {
+      if (!packageName.isEmpty()) {
+        out.write("package " + packageName + ";\n\n");
+      }
+      out.write("import io.devcon5.vertx.codec.BinaryReader;\n");
+      out.write("import io.devcon5.vertx.codec.BinaryWriter;\n");
+      out.write("import io.devcon5.vertx.codec.TypeCodec;\n\n");
+      out.write("/**\n * Codec for {@link " + beanType + "}, generated from the contract {@link "
+                    + ((TypeElement) bean.origin).getQualifiedName() + "}.\n */\n");
+      out.write("public final class " + codecName + " implements TypeCodec<" + beanType + "> {\n\n");
+      for (Map.Entry<String, String> codec : code.codecFields.entrySet()) {
+        out.write("  private static final " + codec.getKey() + " " + codec.getValue() + " = new " + codec.getKey()
+                      + "();\n");
+      }
+      if (!code.codecFields.isEmpty()) {
+        out.write("\n");
+      }
+      out.write(code.toString());
+      out.write("}\n");
+    } catch (IOException e) {
+      error(bean.element, "Could not write codec " + qualifiedCodecName + ": " + e.getMessage());
+      return;
+    }
+    generatedCodecs.add(qualifiedCodecName);
+  }
+
+  /**
+   * Writes the service file of the generated codecs. The codecs registered by a previous compilation are kept as
+   * long as they still exist, so incremental builds that only recompile some contracts keep all registrations.
+   */
+  private void writeServiceFile() {
+
+    if (generatedCodecs.isEmpty()) {
+      return;
+    }
+    final Set<String> codecs = new LinkedHashSet<>(registeredCodecs());
+    codecs.addAll(generatedCodecs);
+    try {
+      final FileObject file = processingEnv.getFiler()
+                                           .createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+      try (Writer out = file.openWriter()) {
+        for (String codec : codecs) {
+          out.write(codec);
+          out.write("\n");
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager()
+                   .printMessage(Diagnostic.Kind.ERROR, "Could not register generated codecs: " + e.getMessage());
+    }
+  }
+
+  /**
+   * @return the codecs registered in the service file of a previous compilation whose classes still exist
+   */
+  private Set<String> registeredCodecs() {
+
+    final Set<String> codecs = new LinkedHashSet<>();
+    try {
+      final FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+      try (BufferedReader in = new BufferedReader(file.openReader(true))) {
+        String line;
+        while ((line = in.readLine()) != null) {
+          final String codec = line.trim();
+          if (!codec.isEmpty() && !codec.startsWith("#")
+              && processingEnv.getElementUtils().getTypeElement(codec) != null) {
+            codecs.add(codec);
+          }
+        }
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      //there is no service file of a previous compilation
+    }
+    return codecs;
+  }
+
+  /**
+   * @return true if the class or any of its members, including inherited ones, is annotated with a Jackson annotation
+   */
+  private boolean hasJacksonAnnotations(final TypeElement element) {
+
+    if (isJacksonAnnotated(element)) {
+      return true;
+    }
+    for (Element member : processingEnv.getElementUtils().getAllMembers(element)) {
+      if (isJacksonAnnotated(member)) {
+        return true;
+      }
+      if (member.getKind() == ElementKind.METHOD) {
+        for (VariableElement parameter : ((ExecutableElement) member).getParameters()) {
+          if (isJacksonAnnotated(parameter)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isJacksonAnnotated(final Element element) {
+
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      final String name = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+      if (name.startsWith(JACKSON_ANNOTATIONS)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean hasPublicDefaultConstructor(final TypeElement element) {
+
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean codecExists(final Bean bean) {
+
+    return codecExists(bean.name);
+  }
+
+  /**
+   * Codecs of beans from other modules may have been generated when compiling those.
+   */
+  private boolean codecExists(final String beanName) {
+
+    final TypeElement bean = processingEnv.getElementUtils().getTypeElement(beanName);
+    return bean != null && processingEnv.getElementUtils().getTypeElement(qualifiedCodecName(bean)) != null;
+  }
+
+  private String qualifiedCodecName(final TypeElement bean) {
+
+    final String packageName = processingEnv.getElementUtils().getPackageOf(bean).getQualifiedName().toString();
+    return packageName.isEmpty() ? codecSimpleName(bean) : packageName + "." + codecSimpleName(bean);
+  }
+
+  /**
+   * Nested classes are named after their enclosing classes, i.e. <code>Outer_Inner_Codec</code>
+   */
+  private static String codecSimpleName(final TypeElement bean) {
+
+    final StringBuilder name = new StringBuilder(bean.getSimpleName());
+    Element enclosing = bean.getEnclosingElement();
+    while (enclosing.getKind().isClass() || enclosing.getKind().isInterface()) {
+      name.insert(0, enclosing.getSimpleName() + "_");
+      enclosing = enclosing.getEnclosingElement();
+    }
+    return name.append(CODEC_SUFFIX).toString();
+  }
+
+  private boolean isValue(final DeclaredType type) {
+
+    final String name = qualifiedName(type);
+    return "java.lang.String".equals(name) || isBoxed(type) || type.asElement().getKind() == ElementKind.ENUM;
+  }
+
+  private boolean isBoxed(final DeclaredType type) {
+
+    try {
+      processingEnv.getTypeUtils().unboxedType(type);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static boolean isCollection(final String name) {
+
+    return "java.util.List".equals(name) || "java.util.Collection".equals(name) || "java.util.Set".equals(name);
+  }
+
+  private static boolean isMap(final String name) {
+
+    return "java.util.Map".equals(name);
+  }
+
+  private static boolean isPlatformType(final String name) {
+
+    return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("io.vertx.");
+  }
+
+  private static String qualifiedName(final DeclaredType type) {
+
+    return ((TypeElement) type.asElement()).getQualifiedName().toString();
+  }
+
+  private static String decapitalize(final String name) {
+
+    return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private void note(final Element element, final String reason) {
+
+    processingEnv.getMessager()
+                 .printMessage(Diagnostic.Kind.NOTE,
+                               "No codec generated for " + element + " because " + reason
+                                   + ", it is encoded by the runtime codecs",
+                               element);
+  }
+
+  private void error(final Element element, final String message) {
+
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  /**
+   * Writes the statements of the generated methods. Each value is assigned to a local variable with a unique name,
+   * so nested collections can be written by nested loops.
+   */
+  private final class CodeWriter {
+
+    private final StringBuilder code = new StringBuilder();
+    //maps the qualified names of the codecs used for nested beans to the names of their fields
+    private final Map<String, String> codecFields = new LinkedHashMap<>();
+    private int indent = 1;
+    private int vars;
+
+    void line(final String line) {
+
+      if (!line.isEmpty()) {
+        for (int i = 0; i < indent; i++) {
+          code.append("  ");
+        }
+        code.append(line);
+      }
+      code.append('\n');
+    }
+
+    /**
+     * Writes the statements to write a value
+     */
+    void write(final TypeMirror type, final String expression) {
+
+      if (type.getKind().isPrimitive()) {
+        line("out." + PRIMITIVES.get(type.toString())[0] + "(" + expression + ");");
+        return;
+      }
+      final String var = newVar("v");
+      line("final " + type + " " + var + " = " + expression + ";");
+      line("out.writeBoolean(" + var + " != null);");
+      line("if (" + var + " != null) {");
+      indent++;
+      writeNonNull(type, var);
+      indent--;
+      line("}");
+    }
+
+    private void writeNonNull(final TypeMirror type, final String var) {
+
+      if (type.getKind() == TypeKind.ARRAY) {
+        line("out.writeBytes(" + var + ");");
+        return;
+      }
+      final DeclaredType declared = (DeclaredType) type;
+      final String name = qualifiedName(declared);
+      if (isBoxed(declared)) {
+        line("out." + PRIMITIVES.get(processingEnv.getTypeUtils().unboxedType(type).toString())[0] + "(" + var
+                 + ");");
+      } else if ("java.lang.String".equals(name)) {
+        line("out.writeString(" + var + ");");
+      } else if (declared.asElement().getKind() == ElementKind.ENUM) {
+        line("out.writeString(" + var + ".name());");
+      } else if (isCollection(name)) {
+        final TypeMirror element = declared.getTypeArguments().get(0);
+        final String e = newVar("e");
+        line("out.writeUnsignedVarInt(" + var + ".size());");
+        line("for (final " + element + " " + e + " : " + var + ") {");
+        indent++;
+        write(element, e);
+        indent--;
+        line("}");
+      } else if (isMap(name)) {
+        final TypeMirror key = declared.getTypeArguments().get(0);
+        final TypeMirror value = declared.getTypeArguments().get(1);
+        final String e = newVar("e");
+        line("out.writeUnsignedVarInt(" + var + ".size());");
+        line("for (final java.util.Map.Entry<" + key + ", " + value + "> " + e + " : " + var + ".entrySet()) {");
+        indent++;
+        write(key, e + ".getKey()");
+        write(value, e + ".getValue()");
+        indent--;
+        line("}");
+      } else {
+        line(codecField(name) + ".write(out, " + var + ");");
+      }
+    }
+
+    /**
+     * Writes the statements to read a value
+     *
+     * @return the expression of the value read
+     */
+    String read(final TypeMirror type) {
+
+      if (type.getKind().isPrimitive()) {
+        return "in." + PRIMITIVES.get(type.toString())[1] + "()";
+      }
+      final String var = newVar("v");
+      line(type + " " + var + " = null;");
+      line("if (in.readBoolean()) {");
+      indent++;
+      readNonNull(type, var);
+      indent--;
+      line("}");
+      return var;
+    }
+
+    private void readNonNull(final TypeMirror type, final String var) {
+
+      if (type.getKind() == TypeKind.ARRAY) {
+        line(var + " = in.readBytes();");
+        return;
+      }
+      final DeclaredType declared = (DeclaredType) type;
+      final String name = qualifiedName(declared);
+      if (isBoxed(declared)) {
+        line(var + " = in." + PRIMITIVES.get(processingEnv.getTypeUtils().unboxedType(type).toString())[1] + "();");
+      } else if ("java.lang.String".equals(name)) {
+        line(var + " = in.readString();");
+      } else if (declared.asElement().getKind() == ElementKind.ENUM) {
+        line(var + " = " + name + ".valueOf(in.readString());");
+      } else if (isCollection(name) || isMap(name)) {
+        final String size = newVar("n");
+        final String container = newVar("c");
+        final String i = newVar("i");
+        line("final int " + size + " = in.readUnsignedVarInt();");
+        line("final " + containerType(declared) + " " + container + " = new " + containerClass(name) + "<>();");
+        line("for (int " + i + " = 0; " + i + " < " + size + "; " + i + "++) {");
+        indent++;
+        if (isMap(name)) {
+          final String key = read(declared.getTypeArguments().get(0));
+          final String value = read(declared.getTypeArguments().get(1));
+          line(container + ".put(" + key + ", " + value + ");");
+        } else {
+          line(container + ".add(" + read(declared.getTypeArguments().get(0)) + ");");
+        }
+        indent--;
+        line("}");
+        line(var + " = " + container + ";");
+      } else {
+        line(var + " = " + codecField(name) + ".read(in);");
+      }
+    }
+
+    /**
+     * Writes the statements to copy a value
+     *
+     * @return the expression of the copied value
+     */
+    String copy(final TypeMirror type, final String expression) {
+
+      if (type.getKind().isPrimitive() || type.getKind() == TypeKind.DECLARED && isValue((DeclaredType) type)) {
+        return expression;
+      }
+      final String source = newVar("s");
+      final String var = newVar("v");
+      line("final " + type + " " + source + " = " + expression + ";");
+      line(type + " " + var + " = null;");
+      line("if (" + source + " != null) {");
+      indent++;
+      copyNonNull(type, source, var);
+      indent--;
+      line("}");
+      return var;
+    }
+
+    private void copyNonNull(final TypeMirror type, final String source, final String var) {
+
+      if (type.getKind() == TypeKind.ARRAY) {
+        line(var + " = " + source + ".clone();");
+        return;
+      }
+      final DeclaredType declared = (DeclaredType) type;
+      final String name = qualifiedName(declared);
+      if (isCollection(name) || isMap(name)) {
+        final String container = newVar("c");
+        line("final " + containerType(declared) + " " + container + " = new " + containerClass(name) + "<>();");
+        final String e = newVar("e");
+        if (isMap(name)) {
+          final TypeMirror key = declared.getTypeArguments().get(0);
+          final TypeMirror value = declared.getTypeArguments().get(1);
+          line("for (final java.util.Map.Entry<" + key + ", " + value + "> " + e + " : " + source + ".entrySet()) {");
+          indent++;
+          final String keyCopy = copy(key, e + ".getKey()");
+          final String valueCopy = copy(value, e + ".getValue()");
+          line(container + ".put(" + keyCopy + ", " + valueCopy + ");");
+        } else {
+          final TypeMirror element = declared.getTypeArguments().get(0);
+          line("for (final " + element + " " + e + " : " + source + ") {");
+          indent++;
+          line(container + ".add(" + copy(element, e) + ");");
+        }
+        indent--;
+        line("}");
+        line(var + " = " + container + ";");
+      } else {
+        line(var + " = " + codecField(name) + ".copy(" + source + ");");
+      }
+    }
+
+    private String containerType(final DeclaredType type) {
+
+      final List<? extends TypeMirror> arguments = type.getTypeArguments();
+      return isMap(qualifiedName(type))
+             ? "java.util.Map<" + arguments.get(0) + ", " + arguments.get(1) + ">"
+             : qualifiedName(type) + "<" + arguments.get(0) + ">";
+    }
+
+    private String containerClass(final String name) {
+
+      if (isMap(name)) {
+        return "java.util.LinkedHashMap";
+      }
+      return "java.util.Set".equals(name) ? "java.util.LinkedHashSet" : "java.util.ArrayList";
+    }
+
+    private String codecField(final String beanName) {
+
+      final String codec = qualifiedCodecName(processingEnv.getElementUtils().getTypeElement(beanName));
+      return codecFields.computeIfAbsent(codec, c -> "CODEC_" + codecFields.size());
+    }
+
+    private String newVar(final String prefix) {
+
+      return prefix + (vars++);
+    }
+
+    @Override
+    public String toString() {
+
+      return code.toString();
+    }
+  }
+
+  private static final class Bean {
+
+    private final TypeElement element;
+    private final Element origin;
+    private final String name;
+    private final List<Property> properties;
+
+    Bean(final TypeElement element, final Element origin, final List<Property> properties) {
+
+      this.element = element;
+      this.origin = origin;
+      this.name = element.getQualifiedName().toString();
+      this.properties = properties;
+    }
+  }
+
+  private static final class Property {
+
+    private final String name;
+    private final String getter;
+    private final String setter;
+    private final TypeMirror type;
+
+    Property(final String name, final String getter, final String setter, final TypeMirror type) {
+
+      this.name = name;
+      this.getter = getter;
+      this.setter = setter;
+      this.type = type;
+    }
+  }
+}
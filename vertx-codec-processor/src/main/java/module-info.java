@@ -0,0 +1,7 @@
+/**
+ *
+ */
+module io.devcon5.vertx.codec.processor {
+  requires java.compiler;
+  provides javax.annotation.processing.Processor with io.devcon5.vertx.codec.processor.CodecProcessor;
+}
@@ -0,0 +1,387 @@
+package io.devcon5.vertx.codec.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import io.devcon5.vertx.codec.GenericTypeCodec;
+import io.devcon5.vertx.codec.TypeCodec;
+import io.devcon5.vertx.codec.WireFormats;
+import io.vertx.core.buffer.Buffer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class CodecProcessorTest {
+
+  private static final String CONTRACT = "package test;\n"
+      + "@io.devcon5.vertx.codec.GenerateCodecs\n"
+      + "public interface Contract {\n"
+      + "  io.vertx.core.Future<Order> place(Order order, java.util.List<Item> items);\n"
+      + "  void track(Unsupported unsupported);\n"
+      + "  void extend(Base base, Annotated annotated);\n"
+      + "}\n";
+
+  private static final String ORDER = "package test;\n"
+      + "public final class Order {\n"
+      + "  private long id;\n"
+      + "  private String customer;\n"
+      + "  private Status status;\n"
+      + "  private Integer quantity;\n"
+      + "  private byte[] data;\n"
+      + "  private java.util.List<Item> items;\n"
+      + "  private java.util.Map<String, java.util.Set<Status>> history;\n"
+      + "  private Order parent;\n"
+      + "  public long getId() { return id; }\n"
+      + "  public void setId(long id) { this.id = id; }\n"
+      + "  public String getCustomer() { return customer; }\n"
+      + "  public void setCustomer(String customer) { this.customer = customer; }\n"
+      + "  public Status getStatus() { return status; }\n"
+      + "  public void setStatus(Status status) { this.status = status; }\n"
+      + "  public Integer getQuantity() { return quantity; }\n"
+      + "  public void setQuantity(Integer quantity) { this.quantity = quantity; }\n"
+      + "  public byte[] getData() { return data; }\n"
+      + "  public void setData(byte[] data) { this.data = data; }\n"
+      + "  public java.util.List<Item> getItems() { return items; }\n"
+      + "  public void setItems(java.util.List<Item> items) { this.items = items; }\n"
+      + "  public java.util.Map<String, java.util.Set<Status>> getHistory() { return history; }\n"
+      + "  public void setHistory(java.util.Map<String, java.util.Set<Status>> history) { this.history = history; }\n"
+      + "  public Order getParent() { return parent; }\n"
+      + "  public void setParent(Order parent) { this.parent = parent; }\n"
+      + "}\n";
+
+  private static final String ITEM = "package test;\n"
+      + "public final class Item {\n"
+      + "  private String name;\n"
+      + "  private double price;\n"
+      + "  private boolean available;\n"
+      + "  public String getName() { return name; }\n"
+      + "  public void setName(String name) { this.name = name; }\n"
+      + "  public double getPrice() { return price; }\n"
+      + "  public void setPrice(double price) { this.price = price; }\n"
+      + "  public boolean isAvailable() { return available; }\n"
+      + "  public void setAvailable(boolean available) { this.available = available; }\n"
+      + "}\n";
+
+  private static final String STATUS = "package test;\n"
+      + "public enum Status { NEW, DONE }\n";
+
+  private static final String UNSUPPORTED = "package test;\n"
+      + "public class Unsupported {\n"
+      + "  private java.time.Instant when;\n"
+      + "  public java.time.Instant getWhen() { return when; }\n"
+      + "  public void setWhen(java.time.Instant when) { this.when = when; }\n"
+      + "}\n";
+
+  private static final String BASE = "package test;\n"
+      + "public class Base {\n"
+      + "  private String name;\n"
+      + "  public String getName() { return name; }\n"
+      + "  public void setName(String name) { this.name = name; }\n"
+      + "}\n";
+
+  private static final String ANNOTATED = "package test;\n"
+      + "public final class Annotated {\n"
+      + "  private String secret;\n"
+      + "  @com.fasterxml.jackson.annotation.JsonIgnore\n"
+      + "  public String getSecret() { return secret; }\n"
+      + "  public void setSecret(String secret) { this.secret = secret; }\n"
+      + "}\n";
+
+  private static Path output;
+  private static final String OTHER_CONTRACT = "package test;\n"
+      + "@io.devcon5.vertx.codec.GenerateCodecs\n"
+      + "public interface OtherContract {\n"
+      + "  void label(Label label);\n"
+      + "}\n";
+
+  private static final String LABEL = "package test;\n"
+      + "public final class Label {\n"
+      + "  private String text;\n"
+      + "  public String getText() { return text; }\n"
+      + "  public void setText(String text) { this.text = text; }\n"
+      + "}\n";
+
+  private static URLClassLoader loader;
+  private static ClassLoader contextLoader;
+
+  @BeforeClass
+  public static void compileContract() throws Exception {
+
+    output = Files.createTempDirectory("codec-processor");
+    final DiagnosticCollector<JavaFileObject> diagnostics = compile(output,
+                                                                    source("test.Contract", CONTRACT),
+                                                                    source("test.Order", ORDER),
+                                                                    source("test.Item", ITEM),
+                                                                    source("test.Status", STATUS),
+                                                                    source("test.Unsupported", UNSUPPORTED),
+                                                                    source("test.Base", BASE),
+                                                                    source("test.Annotated", ANNOTATED));
+    assertFalse(diagnostics.getDiagnostics().toString(), hasErrors(diagnostics));
+
+    loader = new URLClassLoader(new URL[] { output.toUri().toURL() }, CodecProcessorTest.class.getClassLoader());
+    //the generated codecs are discovered using the service loader of the context class loader
+    contextLoader = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(loader);
+  }
+
+  @AfterClass
+  public static void restoreContextLoader() throws IOException {
+
+    Thread.currentThread().setContextClassLoader(contextLoader);
+    loader.close();
+  }
+
+  @Test
+  public void codecsAreGeneratedForContractTypes() throws Exception {
+
+    assertTrue(TypeCodec.class.isAssignableFrom(loader.loadClass("test.Order_Codec")));
+    assertTrue(TypeCodec.class.isAssignableFrom(loader.loadClass("test.Item_Codec")));
+  }
+
+  @Test(expected = ClassNotFoundException.class)
+  public void noCodecForUnsupportedType() throws Exception {
+
+    loader.loadClass("test.Unsupported_Codec");
+  }
+
+  @Test(expected = ClassNotFoundException.class)
+  public void noCodecForNonFinalType() throws Exception {
+
+    loader.loadClass("test.Base_Codec");
+  }
+
+  @Test(expected = ClassNotFoundException.class)
+  public void noCodecForJacksonAnnotatedType() throws Exception {
+
+    loader.loadClass("test.Annotated_Codec");
+  }
+
+  @Test
+  public void codecsAreRegisteredAsServices() throws Exception {
+
+    final Set<Class<?>> types = new HashSet<>();
+    for (TypeCodec<?> codec : ServiceLoader.load(TypeCodec.class, loader)) {
+      types.add(codec.type());
+    }
+
+    assertEquals(new HashSet<>(Arrays.asList(loader.loadClass("test.Order"), loader.loadClass("test.Item"))), types);
+  }
+
+  @Test
+  public void incrementalBuild_keepsRegisteredCodecs() throws Exception {
+
+    final Path incremental = Files.createTempDirectory("codec-processor");
+    assertFalse(hasErrors(compile(incremental,
+                                  source("test.Contract", CONTRACT),
+                                  source("test.Order", ORDER),
+                                  source("test.Item", ITEM),
+                                  source("test.Status", STATUS),
+                                  source("test.Unsupported", UNSUPPORTED),
+                                  source("test.Base", BASE),
+                                  source("test.Annotated", ANNOTATED))));
+
+    //only the other contract is recompiled, the classes of the first compilation are on the classpath
+    assertFalse(hasErrors(compile(incremental, source("test.OtherContract", OTHER_CONTRACT),
+                                  source("test.Label", LABEL))));
+
+    final List<String> registered = Files.readAllLines(incremental.resolve(CodecProcessor.SERVICE_FILE));
+    assertEquals(new HashSet<>(Arrays.asList("test.Order_Codec", "test.Item_Codec", "test.Label_Codec")),
+                 new HashSet<>(registered));
+  }
+
+  @Test
+  public void generatedCodec_notAnnotatedWithGenerated() throws Exception {
+
+    //consumers do not need to require java.compiler to compile the generated codecs
+    final String source = new String(Files.readAllBytes(output.resolve("test/Order_Codec.java")));
+    assertTrue(source.contains("class Order_Codec"));
+    assertFalse(source.contains("javax.annotation.processing.Generated"));
+  }
+
+  @Test
+  public void encodeAndDecode_usingGeneratedCodec() throws Exception {
+
+    final Class<?> orderType = loader.loadClass("test.Order");
+    final Object order = newOrder();
+    final GenericTypeCodec codec = new GenericTypeCodec(orderType, WireFormats.binary());
+
+    final Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, order);
+    final Object decoded = codec.decodeFromWire(0, buffer);
+
+    assertEquals(orderType, decoded.getClass());
+    assertEquals(42L, get(decoded, "getId"));
+    assertEquals("bob", get(decoded, "getCustomer"));
+    assertEquals("DONE", get(decoded, "getStatus").toString());
+    assertNull(get(decoded, "getQuantity"));
+    assertEquals("[1, 2, 3]", Arrays.toString((byte[]) get(decoded, "getData")));
+    assertEquals("{2019=[NEW, DONE]}", get(decoded, "getHistory").toString());
+    assertEquals(7L, get(get(decoded, "getParent"), "getId"));
+    final List<?> items = (List<?>) get(decoded, "getItems");
+    assertEquals(2, items.size());
+    assertEquals("pen", get(items.get(0), "getName"));
+    assertEquals(1.5, (Double) get(items.get(0), "getPrice"), 0.0);
+    assertEquals(true, get(items.get(0), "isAvailable"));
+    assertNull(items.get(1));
+
+    //the generated codec writes no field names
+    assertFalse(buffer.toString().contains("customer"));
+  }
+
+  @Test
+  public void encodeAndDecode_json_notUsingGeneratedCodec() throws Exception {
+
+    final Class<?> orderType = loader.loadClass("test.Order");
+    final GenericTypeCodec codec = new GenericTypeCodec(orderType, WireFormats.json());
+
+    final Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, newOrder());
+    final Object decoded = codec.decodeFromWire(0, buffer);
+
+    //the Json format is bound by Jackson as without generated codecs
+    assertTrue(buffer.toString().contains("\"customer\":\"bob\""));
+    assertEquals(orderType, decoded.getClass());
+    assertEquals("bob", get(decoded, "getCustomer"));
+    assertEquals(7L, get(get(decoded, "getParent"), "getId"));
+  }
+
+  @Test
+  public void copy_usingGeneratedCodec() throws Exception {
+
+    final TypeCodec<Object> codec = (TypeCodec<Object>) loader.loadClass("test.Order_Codec")
+                                                              .getConstructor()
+                                                              .newInstance();
+    final Object order = newOrder();
+
+    final Object copy = codec.copy(order);
+
+    assertNotSame(order, copy);
+    assertNotSame(get(order, "getItems"), get(copy, "getItems"));
+    assertNotSame(((List<?>) get(order, "getItems")).get(0), ((List<?>) get(copy, "getItems")).get(0));
+    assertNotSame(get(order, "getData"), get(copy, "getData"));
+    assertNotSame(get(order, "getParent"), get(copy, "getParent"));
+    assertEquals("bob", get(copy, "getCustomer"));
+    assertEquals("{2019=[NEW, DONE]}", get(copy, "getHistory").toString());
+  }
+
+  @Test
+  public void annotatedClass_isRejected() throws Exception {
+
+    final DiagnosticCollector<JavaFileObject> diagnostics = compile(Files.createTempDirectory("codec-processor"),
+                                                                    source("test.NoContract",
+                                                                           "package test;\n"
+                                                                               + "@io.devcon5.vertx.codec"
+                                                                               + ".GenerateCodecs\n"
+                                                                               + "public class NoContract {}\n"));
+
+    assertTrue(hasErrors(diagnostics));
+  }
+
+  private static Object newOrder() throws Exception {
+
+    final Class<?> orderType = loader.loadClass("test.Order");
+    final Class<?> itemType = loader.loadClass("test.Item");
+    final Class<?> statusType = loader.loadClass("test.Status");
+
+    final Object item = itemType.getConstructor().newInstance();
+    set(item, "setName", String.class, "pen");
+    set(item, "setPrice", double.class, 1.5);
+    set(item, "setAvailable", boolean.class, true);
+    final List<Object> items = new ArrayList<>();
+    items.add(item);
+    items.add(null);
+
+    final Object parent = orderType.getConstructor().newInstance();
+    set(parent, "setId", long.class, 7L);
+
+    final Map<String, Set<Object>> history = new LinkedHashMap<>();
+    history.put("2019", new java.util.LinkedHashSet<>(Arrays.asList(statusType.getEnumConstants())));
+
+    final Object order = orderType.getConstructor().newInstance();
+    set(order, "setId", long.class, 42L);
+    set(order, "setCustomer", String.class, "bob");
+    set(order, "setStatus", statusType, statusType.getEnumConstants()[1]);
+    set(order, "setData", byte[].class, new byte[] { 1, 2, 3 });
+    set(order, "setItems", List.class, items);
+    set(order, "setHistory", Map.class, history);
+    set(order, "setParent", orderType, parent);
+    return order;
+  }
+
+  private static Object get(Object bean, String getter) throws Exception {
+
+    return bean.getClass().getMethod(getter).invoke(bean);
+  }
+
+  private static void set(Object bean, String setter, Class<?> type, Object value) throws Exception {
+
+    bean.getClass().getMethod(setter, type).invoke(bean, value);
+  }
+
+  private static DiagnosticCollector<JavaFileObject> compile(Path output, JavaFileObject... sources) {
+
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    final JavaCompiler.CompilationTask task = compiler.getTask(null,
+                                                               null,
+                                                               diagnostics,
+                                                               Arrays.asList("-d",
+                                                                             output.toString(),
+                                                                             "-classpath",
+                                                                             System.getProperty("java.class.path")
+                                                                                 + File.pathSeparator
+                                                                                 + output),
+                                                               null,
+                                                               Arrays.asList(sources));
+    task.setProcessors(List.of(new CodecProcessor()));
+    task.call();
+    return diagnostics;
+  }
+
+  private static boolean hasErrors(DiagnosticCollector<JavaFileObject> diagnostics) {
+
+    return diagnostics.getDiagnostics().stream().anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR);
+  }
+
+  private static JavaFileObject source(String className, String code) {
+
+    return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', File.separatorChar) + ".java"),
+                                    JavaFileObject.Kind.SOURCE) {
+
+      @Override
+      public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+
+        return code;
+      }
+    };
+  }
+}
@@ -0,0 +1,474 @@
+package io.devcon5.vertx.codec;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.introspect.AnnotatedConstructor;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The handlers that write and read the values of a particular type in the binary wire format. Handlers are resolved
+ * once per type by the {@link io.devcon5.vertx.codec.BinaryWireFormat} and form a tree that mirrors the structure of
+ * the (generic) type.
+ */
+final class BinaryHandlers {
+
+  private static final Map<Class<?>, Handler> VALUE_TYPES = new HashMap<>();
+
+  static {
+    VALUE_TYPES.put(boolean.class, handler((out, v) -> out.writeBoolean((Boolean) v), BinaryReader::readBoolean));
+    VALUE_TYPES.put(byte.class, handler((out, v) -> out.writeByte((Byte) v), BinaryReader::readByte));
+    VALUE_TYPES.put(short.class, handler((out, v) -> out.writeShort((Short) v), BinaryReader::readShort));
+    VALUE_TYPES.put(char.class, handler((out, v) -> out.writeChar((Character) v), BinaryReader::readChar));
+    VALUE_TYPES.put(int.class, handler((out, v) -> out.writeVarInt((Integer) v), BinaryReader::readVarInt));
+    VALUE_TYPES.put(long.class, handler((out, v) -> out.writeVarLong((Long) v), BinaryReader::readVarLong));
+    VALUE_TYPES.put(float.class, handler((out, v) -> out.writeFloat((Float) v), BinaryReader::readFloat));
+    VALUE_TYPES.put(double.class, handler((out, v) -> out.writeDouble((Double) v), BinaryReader::readDouble));
+    VALUE_TYPES.put(Boolean.class, nullable(VALUE_TYPES.get(boolean.class)));
+    VALUE_TYPES.put(Byte.class, nullable(VALUE_TYPES.get(byte.class)));
+    VALUE_TYPES.put(Short.class, nullable(VALUE_TYPES.get(short.class)));
+    VALUE_TYPES.put(Character.class, nullable(VALUE_TYPES.get(char.class)));
+    VALUE_TYPES.put(Integer.class, nullable(VALUE_TYPES.get(int.class)));
+    VALUE_TYPES.put(Long.class, nullable(VALUE_TYPES.get(long.class)));
+    VALUE_TYPES.put(Float.class, nullable(VALUE_TYPES.get(float.class)));
+    VALUE_TYPES.put(Double.class, nullable(VALUE_TYPES.get(double.class)));
+    VALUE_TYPES.put(String.class, nullable(handler((out, v) -> out.writeString((String) v), BinaryReader::readString)));
+    VALUE_TYPES.put(byte[].class, nullable(handler((out, v) -> out.writeBytes((byte[]) v), BinaryReader::readBytes)));
+    VALUE_TYPES.put(Buffer.class, nullable(handler((out, v) -> out.writeBuffer((Buffer) v), BinaryReader::readBuffer)));
+    VALUE_TYPES.put(JsonObject.class, nullable(handler((out, v) -> out.writeString(((JsonObject) v).encode()),
+                                                       in -> new JsonObject(in.readString()))));
+    VALUE_TYPES.put(JsonArray.class, nullable(handler((out, v) -> out.writeString(((JsonArray) v).encode()),
+                                                      in -> new JsonArray(in.readString()))));
+  }
+
+  private BinaryHandlers() {
+
+  }
+
+  /**
+   * Writes and reads values of a single type.
+   */
+  interface Handler {
+
+    void write(BinaryWriter out, Object value);
+
+    Object read(BinaryReader in);
+  }
+
+  /**
+   * @param type
+   *     the raw type to get a handler for
+   *
+   * @return the handler for a type that has a fixed representation in the binary format, such as primitive types,
+   * Strings, byte arrays, Buffers, Json types, enums, UUIDs or <code>java.time</code> types, or null if the type has
+   * no fixed representation
+   */
+  static Handler valueType(Class<?> type) {
+
+    if (type.isEnum()) {
+      return nullable(new EnumHandler(type));
+    }
+    final Handler handler = VALUE_TYPES.get(type);
+    return handler != null ? handler : ValueTypes.binaryHandler(type);
+  }
+
+  /**
+   * Decorates a handler to support null values by prefixing each value with a presence flag.
+   */
+  static Handler nullable(Handler handler) {
+
+    return new Handler() {
+
+      @Override
+      public void write(final BinaryWriter out, final Object value) {
+
+        if (value == null) {
+          out.writeBoolean(false);
+        } else {
+          out.writeBoolean(true);
+          handler.write(out, value);
+        }
+      }
+
+      @Override
+      public Object read(final BinaryReader in) {
+
+        return in.readBoolean() ? handler.read(in) : null;
+      }
+    };
+  }
+
+  static Handler array(Class<?> componentType, Handler componentHandler) {
+
+    return new Handler() {
+
+      @Override
+      public void write(final BinaryWriter out, final Object value) {
+
+        final int length = Array.getLength(value);
+        out.writeUnsignedVarInt(length);
+        for (int i = 0; i < length; i++) {
+          componentHandler.write(out, Array.get(value, i));
+        }
+      }
+
+      @Override
+      public Object read(final BinaryReader in) {
+
+        final int length = in.readUnsignedVarInt();
+        final Object array = Array.newInstance(componentType, length);
+        for (int i = 0; i < length; i++) {
+          Array.set(array, i, componentHandler.read(in));
+        }
+        return array;
+      }
+    };
+  }
+
+  static Handler collection(Class<?> collectionType, Handler elementHandler) {
+
+    final Supplier<Collection> factory = collectionFactory(collectionType);
+    return new Handler() {
+
+      @Override
+      public void write(final BinaryWriter out, final Object value) {
+
+        final Collection<?> collection = (Collection<?>) value;
+        out.writeUnsignedVarInt(collection.size());
+        for (Object element : collection) {
+          elementHandler.write(out, element);
+        }
+      }
+
+      @Override
+      public Object read(final BinaryReader in) {
+
+        final int size = in.readUnsignedVarInt();
+        final Collection collection = factory.get();
+        for (int i = 0; i < size; i++) {
+          collection.add(elementHandler.read(in));
+        }
+        return collection;
+      }
+    };
+  }
+
+  static Handler map(Class<?> mapType, Handler keyHandler, Handler valueHandler) {
+
+    final Supplier<Map> factory = mapFactory(mapType);
+    return new Handler() {
+
+      @Override
+      public void write(final BinaryWriter out, final Object value) {
+
+        final Map<?, ?> map = (Map<?, ?>) value;
+        out.writeUnsignedVarInt(map.size());
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+          keyHandler.write(out, e.getKey());
+          valueHandler.write(out, e.getValue());
+        }
+      }
+
+      @Override
+      public Object read(final BinaryReader in) {
+
+        final int size = in.readUnsignedVarInt();
+        final Map map = factory.get();
+        for (int i = 0; i < size; i++) {
+          map.put(keyHandler.read(in), valueHandler.read(in));
+        }
+        return map;
+      }
+    };
+  }
+
+  /**
+   * @param type
+   *     the (generic) type of the values
+   *
+   * @return the nullable handler for types that are written in binary form by every wire format, that are types
+   * with a generated {@link io.devcon5.vertx.codec.TypeCodec}, or null if the type has no such handler
+   */
+  static Handler direct(Type type) {
+
+    final TypeCodec<Object> codec = TypeCodecs.forType(type);
+    return codec == null ? null : nullable(generated(codec));
+  }
+
+  /**
+   * Handler for types with a generated codec
+   */
+  static Handler generated(TypeCodec<Object> codec) {
+
+    return handler(codec::write, codec::read);
+  }
+
+  /**
+   * Handler for views on payloads. The viewed payload is written as it is, payloads are read completely as the
+   * binary format has no index of the properties.
+   */
+  static Handler view(Handler handler, Type type) {
+
+    return handler((out, v) -> handler.write(out, v instanceof PayloadView ? ((PayloadView<?>) v).get() : v),
+                   in -> PayloadView.of(handler.read(in), type));
+  }
+
+  /**
+   * Handler for numeric arrays and collections that are written as a single packed block.
+   */
+  static Handler packed(PackedArrays.Packing packing) {
+
+    return handler(packing::write, packing::read);
+  }
+
+  /**
+   * Handler for types that have no binary representation, such as {@link java.lang.Object} or beans without
+   * a default constructor. The values are written as length-prefixed Json text.
+   */
+  static Handler json(JavaType type) {
+
+    final JsonBinding binding = JsonBinding.forType(type);
+    return new Handler() {
+
+      @Override
+      public void write(final BinaryWriter out, final Object value) {
+
+        out.writeBytes(Json.encode(value).getBytes(StandardCharsets.UTF_8));
+      }
+
+      @Override
+      public Object read(final BinaryReader in) {
+
+        return binding.read(in.readString());
+      }
+    };
+  }
+
+  static Handler handler(Writer writer, Reader reader) {
+
+    return new Handler() {
+
+      @Override
+      public void write(final BinaryWriter out, final Object value) {
+
+        writer.write(out, value);
+      }
+
+      @Override
+      public Object read(final BinaryReader in) {
+
+        return reader.read(in);
+      }
+    };
+  }
+
+  private static Supplier<Collection> collectionFactory(Class<?> type) {
+
+    if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+      return instantiator(type);
+    }
+    if (SortedSet.class.isAssignableFrom(type) || NavigableSet.class.isAssignableFrom(type)) {
+      return TreeSet::new;
+    }
+    if (Set.class.isAssignableFrom(type)) {
+      return HashSet::new;
+    }
+    if (Queue.class.isAssignableFrom(type)) {
+      return ArrayDeque::new;
+    }
+    return ArrayList::new;
+  }
+
+  private static Supplier<Map> mapFactory(Class<?> type) {
+
+    if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+      return instantiator(type);
+    }
+    if (SortedMap.class.isAssignableFrom(type) || NavigableMap.class.isAssignableFrom(type)) {
+      return TreeMap::new;
+    }
+    return LinkedHashMap::new;
+  }
+
+  private static <T> Supplier<T> instantiator(Class<?> type) {
+
+    final Constructor<?> constructor;
+    try {
+      constructor = type.getConstructor();
+    } catch (NoSuchMethodException e) {
+      throw new UnsupportedOperationException(type + " has no public default constructor", e);
+    }
+    return () -> {
+      try {
+        return (T) constructor.newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Could not create instance of " + type, e);
+      }
+    };
+  }
+
+  @FunctionalInterface
+  interface Writer {
+
+    void write(BinaryWriter out, Object value);
+  }
+
+  @FunctionalInterface
+  interface Reader {
+
+    Object read(BinaryReader in);
+  }
+
+  /**
+   * Writes enum constants by their name so that the representation does not depend on the declaration order.
+   */
+  static final class EnumHandler implements Handler {
+
+    private final Map<String, Object> constants = new HashMap<>();
+
+    EnumHandler(final Class<?> enumType) {
+
+      for (Object constant : enumType.getEnumConstants()) {
+        constants.put(((Enum) constant).name(), constant);
+      }
+    }
+
+    @Override
+    public void write(final BinaryWriter out, final Object value) {
+
+      out.writeString(((Enum) value).name());
+    }
+
+    @Override
+    public Object read(final BinaryReader in) {
+
+      final String name = in.readString();
+      final Object constant = constants.get(name);
+      if (constant == null) {
+        throw new IllegalStateException("Unknown enum constant " + name);
+      }
+      return constant;
+    }
+  }
+
+  /**
+   * Writes the properties of a bean in a fixed order without their names. The handler is created before its
+   * properties are resolved so that it can be referenced by recursive types.
+   */
+  static final class BeanHandler implements Handler {
+
+    private final AnnotatedConstructor constructor;
+    private Property[] properties;
+
+    BeanHandler(final AnnotatedConstructor constructor) {
+
+      this.constructor = constructor;
+    }
+
+    void setProperties(final Property[] properties) {
+
+      this.properties = properties;
+    }
+
+    @Override
+    public void write(final BinaryWriter out, final Object value) {
+
+      for (Property p : properties) {
+        p.handler.write(out, p.accessor.getValue(value));
+      }
+    }
+
+    @Override
+    public Object read(final BinaryReader in) {
+
+      final Object bean;
+      try {
+        bean = constructor.call();
+      } catch (Exception e) {
+        throw new IllegalStateException("Could not create instance of " + constructor.getDeclaringClass(), e);
+      }
+      for (Property p : properties) {
+        p.mutator.setValue(bean, p.handler.read(in));
+      }
+      return bean;
+    }
+  }
+
+  /**
+   * Writes the components of a record in their declaration order without their names and creates records using
+   * their canonical constructor. The handler is created before its components are resolved so that it can be
+   * referenced by recursive types.
+   */
+  static final class RecordHandler implements Handler {
+
+    private final ValueTypes.RecordType recordType;
+    private Handler[] components;
+
+    RecordHandler(final ValueTypes.RecordType recordType) {
+
+      this.recordType = recordType;
+    }
+
+    void setComponents(final Handler[] components) {
+
+      this.components = components;
+    }
+
+    @Override
+    public void write(final BinaryWriter out, final Object value) {
+
+      final Object[] values = recordType.components(value);
+      for (int i = 0; i < components.length; i++) {
+        components[i].write(out, values[i]);
+      }
+    }
+
+    @Override
+    public Object read(final BinaryReader in) {
+
+      final Object[] values = new Object[components.length];
+      for (int i = 0; i < components.length; i++) {
+        values[i] = components[i].read(in);
+      }
+      return recordType.newInstance(values);
+    }
+  }
+
+  static final class Property {
+
+    final AnnotatedMember accessor;
+    final AnnotatedMember mutator;
+    final Handler handler;
+
+    Property(final AnnotatedMember accessor, final AnnotatedMember mutator, final Handler handler) {
+
+      this.accessor = accessor;
+      this.mutator = mutator;
+      this.handler = handler;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package io.devcon5.vertx.codec;
+
+import java.nio.charset.StandardCharsets;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Reads the primitives of the binary wire format from a region of a buffer. The reader is the counterpart of the
+ * {@link io.devcon5.vertx.codec.BinaryWriter} and keeps track of the current read position.
+ */
+public final class BinaryReader {
+
+  private final Buffer buffer;
+  private final int end;
+  private int pos;
+
+  BinaryReader(final Buffer buffer, final int start, final int end) {
+
+    this.buffer = buffer;
+    this.pos = start;
+    this.end = end;
+  }
+
+  int position() {
+
+    return pos;
+  }
+
+  int remaining() {
+
+    return end - pos;
+  }
+
+  public boolean readBoolean() {
+
+    return readByte() != 0;
+  }
+
+  public byte readByte() {
+
+    require(1);
+    return buffer.getByte(pos++);
+  }
+
+  public short readShort() {
+
+    return (short) readVarInt();
+  }
+
+  public char readChar() {
+
+    return (char) readUnsignedVarInt();
+  }
+
+  public float readFloat() {
+
+    require(4);
+    final float value = buffer.getFloat(pos);
+    pos += 4;
+    return value;
+  }
+
+  public double readDouble() {
+
+    require(8);
+    final double value = buffer.getDouble(pos);
+    pos += 8;
+    return value;
+  }
+
+  public long readLong() {
+
+    require(8);
+    final long value = buffer.getLong(pos);
+    pos += 8;
+    return value;
+  }
+
+  public int readVarInt() {
+
+    final int v = readUnsignedVarInt();
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  public long readVarLong() {
+
+    long v = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final byte b = readByte();
+      v |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return (v >>> 1) ^ -(v & 1);
+      }
+    }
+    throw new IllegalStateException("Malformed variable length long at position " + pos);
+  }
+
+  public int readUnsignedVarInt() {
+
+    int v = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      final byte b = readByte();
+      v |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return v;
+      }
+    }
+    throw new IllegalStateException("Malformed variable length integer at position " + pos);
+  }
+
+  public String readString() {
+
+    final int length = readUnsignedVarInt();
+    require(length);
+    final String value = buffer.getString(pos, pos + length, StandardCharsets.UTF_8.name());
+    pos += length;
+    return value;
+  }
+
+  public byte[] readBytes() {
+
+    final int length = readUnsignedVarInt();
+    require(length);
+    final byte[] value = buffer.getBytes(pos, pos + length);
+    pos += length;
+    return value;
+  }
+
+  public Buffer readBuffer() {
+
+    return Buffer.buffer(readBytes());
+  }
+
+  private void require(int bytes) {
+
+    if (bytes < 0 || pos + bytes > end) {
+      throw new IllegalStateException("Unexpected end of binary payload, required "
+                                          + bytes
+                                          + " bytes at position "
+                                          + pos
+                                          + " but payload ends at "
+                                          + end);
+    }
+  }
+}
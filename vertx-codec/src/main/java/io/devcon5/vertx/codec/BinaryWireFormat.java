@@ -0,0 +1,198 @@
+package io.devcon5.vertx.codec;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.introspect.AnnotatedConstructor;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedParameter;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import io.devcon5.vertx.codec.BinaryHandlers.BeanHandler;
+import io.devcon5.vertx.codec.BinaryHandlers.Handler;
+import io.devcon5.vertx.codec.BinaryHandlers.Property;
+import io.devcon5.vertx.codec.BinaryHandlers.RecordHandler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+
+/**
+ * A compact, type-driven binary wire format. As both sides of the wire know the declared type of a value, no type
+ * information or field names are written. Beans are written as the sequence of their properties, ordered by name,
+ * records as the sequence of their components, collections and variable-length values are prefixed with their length.
+ * Enums are written by their name, UUIDs and <code>java.time</code> values have compact fixed representations.
+ * <br>
+ * The handlers for a type are resolved once from the full generic type, including nested type arguments, and are
+ * cached for the lifetime of the format. Types that have no binary representation, such as {@link java.lang.Object},
+ * interfaces or beans without a default constructor, are embedded as Json text.
+ */
+final class BinaryWireFormat implements WireFormat {
+
+  static final String NAME = "binary";
+
+  private final Map<JavaType, Handler> handlers = new ConcurrentHashMap<>();
+
+  @Override
+  public String name() {
+
+    return NAME;
+  }
+
+  @Override
+  public void encode(final Buffer buffer, final Object value, final Type type) {
+
+    handlerFor(type).write(new BinaryWriter(buffer), value);
+  }
+
+  @Override
+  public Object decode(final Buffer buffer, final int start, final int end, final Type type) {
+
+    return handlerFor(type).read(new BinaryReader(buffer, start, end));
+  }
+
+  @Override
+  public void encodeAll(final Buffer buffer, final Object[] values, final Type[] types) {
+
+    final BinaryWriter out = new BinaryWriter(buffer);
+    for (int i = 0; i < types.length; i++) {
+      handlerFor(types[i]).write(out, values[i]);
+    }
+  }
+
+  @Override
+  public Object[] decodeAll(final Buffer buffer, final int start, final int end, final Type[] types) {
+
+    final BinaryReader in = new BinaryReader(buffer, start, end);
+    final Object[] result = new Object[types.length];
+    for (int i = 0; i < types.length; i++) {
+      result[i] = handlerFor(types[i]).read(in);
+    }
+    return result;
+  }
+
+  Handler handlerFor(Type type) {
+
+    final JavaType javaType = Json.mapper.getTypeFactory().constructType(GenericTypes.unwrapFutureType(type));
+    Handler handler = handlers.get(javaType);
+    if (handler == null && PayloadView.isView(type)) {
+      final Type viewedType = PayloadView.unwrapViewType(type);
+      handler = BinaryHandlers.view(handlerFor(viewedType), viewedType);
+      handlers.put(javaType, handler);
+    } else if (handler == null) {
+      //resolution is done under a lock, so that the handlers of (recursive) types are only published once they are
+      //fully resolved
+      synchronized (handlers) {
+        final Map<JavaType, Handler> resolved = new HashMap<>();
+        handler = resolve(javaType, resolved);
+        handlers.putAll(resolved);
+      }
+    }
+    return handler;
+  }
+
+  private Handler resolve(final JavaType type, final Map<JavaType, Handler> resolving) {
+
+    Handler handler = handlers.get(type);
+    if (handler == null) {
+      handler = resolving.get(type);
+    }
+    if (handler != null) {
+      return handler;
+    }
+
+    final Class<?> rawType = type.getRawClass();
+    final PackedArrays.Packing packing = PackedArrays.forType(type);
+    final TypeCodec<Object> codec = TypeCodecs.forType(rawType);
+    if (packing != null) {
+      handler = BinaryHandlers.nullable(BinaryHandlers.packed(packing));
+    } else if (codec != null) {
+      handler = BinaryHandlers.nullable(BinaryHandlers.generated(codec));
+    } else {
+      handler = BinaryHandlers.valueType(rawType);
+    }
+    if (handler == null) {
+      if (type.isArrayType()) {
+        handler = BinaryHandlers.nullable(BinaryHandlers.array(rawType.getComponentType(),
+                                                               resolve(type.getContentType(), resolving)));
+      } else if (type.isCollectionLikeType() && Collection.class.isAssignableFrom(rawType)) {
+        handler = BinaryHandlers.nullable(BinaryHandlers.collection(rawType,
+                                                                    resolve(type.getContentType(), resolving)));
+      } else if (type.isMapLikeType() && Map.class.isAssignableFrom(rawType)) {
+        handler = BinaryHandlers.nullable(BinaryHandlers.map(rawType,
+                                                             resolve(type.getKeyType(), resolving),
+                                                             resolve(type.getContentType(), resolving)));
+      } else if (ValueTypes.isRecord(rawType)) {
+        return resolveRecord(type, resolving);
+      } else {
+        return resolveBean(type, resolving);
+      }
+    }
+    resolving.put(type, handler);
+    return handler;
+  }
+
+  private Handler resolveRecord(final JavaType type, final Map<JavaType, Handler> resolving) {
+
+    final ValueTypes.RecordType recordType = ValueTypes.recordType(type.getRawClass());
+    final RecordHandler record = new RecordHandler(recordType);
+    final Handler handler = BinaryHandlers.nullable(record);
+    resolving.put(type, handler);
+
+    final Type[] types = recordType.types();
+    final Handler[] components = new Handler[types.length];
+    for (int i = 0; i < types.length; i++) {
+      components[i] = resolve(Json.mapper.getTypeFactory().constructType(types[i], type.getBindings()), resolving);
+    }
+    record.setComponents(components);
+    return handler;
+  }
+
+  private Handler resolveBean(final JavaType type, final Map<JavaType, Handler> resolving) {
+
+    final Class<?> rawType = type.getRawClass();
+    final BeanDescription desc = Json.mapper.getDeserializationConfig().introspect(type);
+    final AnnotatedConstructor constructor = desc.findDefaultConstructor();
+
+    if (type.isJavaLangObject()
+        || rawType.isInterface()
+        || Modifier.isAbstract(rawType.getModifiers())
+        || constructor == null) {
+      final Handler handler = BinaryHandlers.nullable(BinaryHandlers.json(type));
+      resolving.put(type, handler);
+      return handler;
+    }
+
+    final List<BeanPropertyDefinition> definitions = new ArrayList<>();
+    for (BeanPropertyDefinition def : desc.findProperties()) {
+      final AnnotatedMember mutator = def.getMutator();
+      if (def.getAccessor() != null && mutator != null && !(mutator instanceof AnnotatedParameter)) {
+        definitions.add(def);
+      }
+    }
+    //the order of properties reported by reflection is not guaranteed, so we have to order them
+    //to get the same representation on every jvm
+    definitions.sort(Comparator.comparing(BeanPropertyDefinition::getName));
+
+    constructor.fixAccess(true);
+    final BeanHandler bean = new BeanHandler(constructor);
+    final Handler handler = BinaryHandlers.nullable(bean);
+    resolving.put(type, handler);
+
+    final Property[] properties = new Property[definitions.size()];
+    for (int i = 0; i < properties.length; i++) {
+      final BeanPropertyDefinition def = definitions.get(i);
+      def.getAccessor().fixAccess(true);
+      def.getMutator().fixAccess(true);
+      properties[i] = new Property(def.getAccessor(), def.getMutator(), resolve(def.getPrimaryType(), resolving));
+    }
+    bean.setProperties(properties);
+    return handler;
+  }
+}
@@ -0,0 +1,110 @@
+package io.devcon5.vertx.codec;
+
+import java.nio.charset.StandardCharsets;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Appends the primitives of the binary wire format to a buffer. Integral values are written as variable length
+ * integers using zig-zag encoding, so that small (absolute) values take only a single byte.
+ * <br>
+ * The writer is used by the binary wire format and by the generated {@link io.devcon5.vertx.codec.TypeCodec}s.
+ */
+public final class BinaryWriter {
+
+  private final Buffer buffer;
+
+  BinaryWriter(final Buffer buffer) {
+
+    this.buffer = buffer;
+  }
+
+  public void writeBoolean(boolean value) {
+
+    buffer.appendByte(value ? (byte) 1 : (byte) 0);
+  }
+
+  public void writeByte(byte value) {
+
+    buffer.appendByte(value);
+  }
+
+  public void writeShort(short value) {
+
+    writeVarInt(value);
+  }
+
+  public void writeChar(char value) {
+
+    writeUnsignedVarInt(value);
+  }
+
+  public void writeFloat(float value) {
+
+    buffer.appendFloat(value);
+  }
+
+  public void writeDouble(double value) {
+
+    buffer.appendDouble(value);
+  }
+
+  /**
+   * Writes a long with a fixed length of 8 bytes, for values that are usually not small, such as random bits.
+   */
+  public void writeLong(long value) {
+
+    buffer.appendLong(value);
+  }
+
+  /**
+   * Writes a signed integer using zig-zag encoding.
+   */
+  public void writeVarInt(int value) {
+
+    writeUnsignedVarInt((value << 1) ^ (value >> 31));
+  }
+
+  /**
+   * Writes a signed long using zig-zag encoding.
+   */
+  public void writeVarLong(long value) {
+
+    long v = (value << 1) ^ (value >> 63);
+    while ((v & ~0x7FL) != 0) {
+      buffer.appendByte((byte) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    buffer.appendByte((byte) v);
+  }
+
+  /**
+   * Writes a non-negative integer such as a length or size.
+   */
+  public void writeUnsignedVarInt(int value) {
+
+    int v = value;
+    while ((v & ~0x7F) != 0) {
+      buffer.appendByte((byte) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    buffer.appendByte((byte) v);
+  }
+
+  public void writeString(String value) {
+
+    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public void writeBytes(byte[] value) {
+
+    writeUnsignedVarInt(value.length);
+    buffer.appendBytes(value);
+  }
+
+  public void writeBuffer(Buffer value) {
+
+    writeUnsignedVarInt(value.length());
+    buffer.appendBuffer(value);
+  }
+}
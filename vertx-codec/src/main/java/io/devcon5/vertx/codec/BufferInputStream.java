@@ -0,0 +1,60 @@
+package io.devcon5.vertx.codec;
+
+import java.io.InputStream;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Input stream that reads a region of a {@link io.vertx.core.buffer.Buffer} without copying or slicing it upfront.
+ */
+final class BufferInputStream extends InputStream {
+
+  private final Buffer buffer;
+  private final int end;
+  private int pos;
+
+  BufferInputStream(final Buffer buffer, final int start, final int end) {
+
+    this.buffer = buffer;
+    this.pos = start;
+    this.end = end;
+  }
+
+  @Override
+  public int read() {
+
+    if (pos >= end) {
+      return -1;
+    }
+    return buffer.getByte(pos++) & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) {
+
+    if (len == 0) {
+      return 0;
+    }
+    if (pos >= end) {
+      return -1;
+    }
+    final int n = Math.min(len, end - pos);
+    buffer.getBytes(pos, pos + n, b, off);
+    pos += n;
+    return n;
+  }
+
+  @Override
+  public long skip(final long n) {
+
+    final int skipped = (int) Math.max(0, Math.min(n, end - pos));
+    pos += skipped;
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+
+    return end - pos;
+  }
+}
@@ -0,0 +1,30 @@
+package io.devcon5.vertx.codec;
+
+import java.io.OutputStream;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Output stream that appends all written bytes directly to a {@link io.vertx.core.buffer.Buffer}.
+ */
+final class BufferOutputStream extends OutputStream {
+
+  private final Buffer buffer;
+
+  BufferOutputStream(final Buffer buffer) {
+
+    this.buffer = buffer;
+  }
+
+  @Override
+  public void write(final int b) {
+
+    buffer.appendByte((byte) b);
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) {
+
+    buffer.appendBytes(b, off, len);
+  }
+}
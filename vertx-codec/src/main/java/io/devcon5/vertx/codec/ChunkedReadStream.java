@@ -0,0 +1,202 @@
+package io.devcon5.vertx.codec;
+
+import static io.devcon5.vertx.codec.ChunkedStreams.ACTION_CANCEL;
+import static io.devcon5.vertx.codec.ChunkedStreams.ACTION_HEADER;
+import static io.devcon5.vertx.codec.ChunkedStreams.ACTION_PULL;
+
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * Receiver side of a chunked stream. The next chunk is pulled from the publisher once all elements of the previous
+ * chunk have been delivered and the stream has demand for more elements.
+ *
+ * @param <T>
+ *     the type of the elements
+ */
+final class ChunkedReadStream<T> implements ReadStream<T> {
+
+  //the queue does not permit null elements
+  private static final Object NULL = new Object();
+
+  private final Vertx vertx;
+  private final Context context;
+  private final String address;
+  private final Type elementType;
+  private final WireFormat format;
+  private final Deque<Object> elements = new ArrayDeque<>();
+
+  private Handler<T> handler;
+  private Handler<Void> endHandler;
+  private Handler<Throwable> exceptionHandler;
+
+  private long demand = Long.MAX_VALUE;
+  private boolean requested;
+  private boolean last;
+  private boolean ended;
+  private boolean draining;
+
+  ChunkedReadStream(final Vertx vertx, final String address, final Type elementType, final WireFormat format) {
+
+    this.vertx = vertx;
+    this.context = vertx.getOrCreateContext();
+    this.address = address;
+    this.elementType = elementType;
+    this.format = format;
+  }
+
+  @Override
+  public ReadStream<T> exceptionHandler(final Handler<Throwable> handler) {
+
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public ReadStream<T> handler(final Handler<T> handler) {
+
+    this.handler = handler;
+    if (handler == null) {
+      cancel();
+    } else {
+      drain();
+    }
+    return this;
+  }
+
+  @Override
+  public ReadStream<T> pause() {
+
+    demand = 0;
+    return this;
+  }
+
+  @Override
+  public ReadStream<T> resume() {
+
+    return fetch(Long.MAX_VALUE);
+  }
+
+  @Override
+  public ReadStream<T> fetch(final long amount) {
+
+    demand += amount;
+    if (demand < 0) {
+      demand = Long.MAX_VALUE;
+    }
+    drain();
+    return this;
+  }
+
+  @Override
+  public ReadStream<T> endHandler(final Handler<Void> endHandler) {
+
+    this.endHandler = endHandler;
+    return this;
+  }
+
+  private void drain() {
+
+    //the stream may be consumed from a non vert.x thread, but the elements are delivered on the context of the stream
+    //where the chunks are received, so that a chunk can not arrive while the previous one is drained
+    if (Vertx.currentContext() != context) {
+      context.runOnContext(v -> drain());
+      return;
+    }
+    //handlers may pause or resume the stream, which must not deliver elements recursively
+    if (draining) {
+      return;
+    }
+    draining = true;
+    try {
+      while (demand > 0 && handler != null && !elements.isEmpty()) {
+        if (demand != Long.MAX_VALUE) {
+          demand--;
+        }
+        final Object element = elements.poll();
+        handler.handle(element == NULL ? null : (T) element);
+      }
+      if (elements.isEmpty()) {
+        if (last) {
+          end();
+        } else if (demand > 0 && handler != null && !requested) {
+          request();
+        }
+      }
+    } finally {
+      draining = false;
+    }
+  }
+
+  private void request() {
+
+    requested = true;
+    vertx.eventBus().send(address, null, new DeliveryOptions().addHeader(ACTION_HEADER, ACTION_PULL), this::onChunk);
+  }
+
+  private void onChunk(final AsyncResult<Message<Object>> result) {
+
+    requested = false;
+    if (result.failed()) {
+      fail(result.cause());
+      return;
+    }
+    try {
+      final Buffer chunk = (Buffer) result.result().body();
+      final int count = chunk.getInt(1);
+      int pos = 5;
+      for (int i = 0; i < count; i++) {
+        final int length = chunk.getInt(pos);
+        pos += 4;
+        final Object element = format.decode(chunk, pos, pos + length, elementType);
+        elements.add(element == null ? NULL : element);
+        pos += length;
+      }
+      last = chunk.getByte(0) == 1;
+    } catch (RuntimeException e) {
+      cancel();
+      fail(e);
+      return;
+    }
+    drain();
+  }
+
+  private void end() {
+
+    if (!ended) {
+      ended = true;
+      if (endHandler != null) {
+        endHandler.handle(null);
+      }
+    }
+  }
+
+  private void fail(final Throwable cause) {
+
+    last = true;
+    ended = true;
+    elements.clear();
+    if (exceptionHandler != null) {
+      exceptionHandler.handle(cause);
+    }
+  }
+
+  private void cancel() {
+
+    if (!last) {
+      last = true;
+      vertx.eventBus().send(address, null, new DeliveryOptions().addHeader(ACTION_HEADER, ACTION_CANCEL));
+    }
+    elements.clear();
+  }
+}
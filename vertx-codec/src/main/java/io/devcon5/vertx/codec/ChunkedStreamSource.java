@@ -0,0 +1,211 @@
+package io.devcon5.vertx.codec;
+
+import static io.devcon5.vertx.codec.ChunkedStreams.ACTION_CANCEL;
+import static io.devcon5.vertx.codec.ChunkedStreams.ACTION_HEADER;
+import static io.devcon5.vertx.codec.ChunkedStreams.CHUNK_BYTES;
+import static io.devcon5.vertx.codec.ChunkedStreams.CHUNK_SIZE;
+import static io.devcon5.vertx.codec.ChunkedStreams.IDLE_TIMEOUT;
+import static io.devcon5.vertx.codec.ChunkedStreams.appendElement;
+import static io.devcon5.vertx.codec.ChunkedStreams.completeChunk;
+import static io.devcon5.vertx.codec.ChunkedStreams.newChunk;
+import static io.vertx.core.logging.LoggerFactory.getLogger;
+
+import java.lang.reflect.Type;
+import java.util.Iterator;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * Publisher side of a chunked stream. Each pull message of the receiver is replied with the next chunk of elements,
+ * the source is only read while a pull is pending.
+ */
+final class ChunkedStreamSource implements Handler<Message<Object>> {
+
+  private static final Logger LOG = getLogger(ChunkedStreamSource.class);
+
+  private final Vertx vertx;
+  private final String address;
+  private final Type elementType;
+  private final WireFormat format;
+
+  private MessageConsumer<Object> consumer;
+  private long idleTimer = -1;
+  private boolean closed;
+
+  private Iterator<?> iterator;
+
+  private ReadStream<?> stream;
+  private Message<Object> pending;
+  private Buffer chunk;
+  private int count;
+  private boolean ended;
+  private Throwable failure;
+
+  ChunkedStreamSource(final Vertx vertx, final String address, final Type elementType, final WireFormat format) {
+
+    this.vertx = vertx;
+    this.address = address;
+    this.elementType = elementType;
+    this.format = format;
+  }
+
+  Future<String> start(Iterator<?> source) {
+
+    this.iterator = source;
+    return register();
+  }
+
+  Future<String> start(ReadStream<?> source) {
+
+    this.stream = source;
+    this.chunk = newChunk();
+    source.pause();
+    source.handler(this::onElement);
+    source.endHandler(v -> onEnd());
+    source.exceptionHandler(this::onFailure);
+    return register();
+  }
+
+  private Future<String> register() {
+
+    final Future<Void> registration = Future.future();
+    consumer = vertx.eventBus().consumer(address, this);
+    consumer.completionHandler(registration);
+    resetIdleTimer();
+    return registration.map(address);
+  }
+
+  @Override
+  public void handle(final Message<Object> msg) {
+
+    if (closed) {
+      msg.fail(410, "Stream " + address + " is closed");
+      return;
+    }
+    resetIdleTimer();
+    if (ACTION_CANCEL.equals(msg.headers().get(ACTION_HEADER))) {
+      LOG.debug("Stream {} cancelled by receiver", address);
+      close();
+    } else if (iterator != null) {
+      replyFromIterator(msg);
+    } else {
+      pullFromStream(msg);
+    }
+  }
+
+  private void replyFromIterator(final Message<Object> msg) {
+
+    try {
+      final Buffer next = newChunk();
+      int elements = 0;
+      while (elements < CHUNK_SIZE && next.length() < CHUNK_BYTES && iterator.hasNext()) {
+        appendElement(next, iterator.next(), elementType, format);
+        elements++;
+      }
+      final boolean last = !iterator.hasNext();
+      msg.reply(completeChunk(next, elements, last));
+      if (last) {
+        close();
+      }
+    } catch (RuntimeException e) {
+      LOG.debug("Reading stream {} failed", e, address);
+      msg.fail(500, e.getMessage());
+      close();
+    }
+  }
+
+  private void pullFromStream(final Message<Object> msg) {
+
+    if (pending != null) {
+      msg.fail(409, "A chunk of stream " + address + " is already requested");
+      return;
+    }
+    pending = msg;
+    if (failure != null) {
+      onFailure(failure);
+    } else if (ended || count >= CHUNK_SIZE || chunk.length() >= CHUNK_BYTES) {
+      flush(ended);
+    } else {
+      stream.resume();
+    }
+  }
+
+  private void onElement(final Object element) {
+
+    try {
+      appendElement(chunk, element, elementType, format);
+      count++;
+    } catch (RuntimeException e) {
+      onFailure(e);
+      return;
+    }
+    if (count >= CHUNK_SIZE || chunk.length() >= CHUNK_BYTES) {
+      //elements emitted after pausing the source are collected in the chunk for the next pull
+      stream.pause();
+      if (pending != null) {
+        flush(false);
+      }
+    }
+  }
+
+  private void onEnd() {
+
+    ended = true;
+    if (pending != null) {
+      flush(true);
+    }
+  }
+
+  private void onFailure(final Throwable e) {
+
+    failure = e;
+    if (pending != null) {
+      pending.fail(500, e.getMessage());
+      pending = null;
+      close();
+    }
+  }
+
+  private void flush(final boolean last) {
+
+    pending.reply(completeChunk(chunk, count, last));
+    pending = null;
+    chunk = newChunk();
+    count = 0;
+    if (last) {
+      close();
+    }
+  }
+
+  private void resetIdleTimer() {
+
+    if (idleTimer >= 0) {
+      vertx.cancelTimer(idleTimer);
+    }
+    idleTimer = vertx.setTimer(IDLE_TIMEOUT, id -> {
+      LOG.debug("Stream {} was not pulled within {} ms, closing it", address, IDLE_TIMEOUT);
+      close();
+    });
+  }
+
+  private void close() {
+
+    if (closed) {
+      return;
+    }
+    closed = true;
+    vertx.cancelTimer(idleTimer);
+    consumer.unregister();
+    if (stream != null && !ended) {
+      stream.pause();
+      stream.handler(null);
+    }
+  }
+}
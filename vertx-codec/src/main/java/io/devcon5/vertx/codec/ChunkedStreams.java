@@ -0,0 +1,145 @@
+package io.devcon5.vertx.codec;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.UUID;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * Streaming of large collections over the event bus. Instead of encoding all elements into a single message, the
+ * elements are published on a temporary event bus address and transferred in bounded chunks. The receiver pulls
+ * the next chunk only when it has demand for more elements, so neither side has to hold the entire collection in
+ * memory.
+ * <br>
+ * The size of the chunks is bounded by the number of elements, configured using the
+ * <code>codec.streamChunkSize</code> jvm parameter (default 1024), and by the number of bytes, configured using
+ * the <code>codec.streamChunkBytes</code> jvm parameter (default 256k). A published stream that is not pulled for
+ * the time configured in the <code>codec.streamIdleTimeout</code> jvm parameter (in ms, default 30s) is closed.
+ * <br>
+ * The elements are encoded using the default {@link io.devcon5.vertx.codec.WireFormat}.
+ */
+public final class ChunkedStreams {
+
+  /**
+   * Prefix of the temporary addresses the streams are published on
+   */
+  public static final String ADDRESS_PREFIX = "__chunked.";
+
+  static final String ACTION_HEADER = "action";
+  static final String ACTION_PULL = "pull";
+  static final String ACTION_CANCEL = "cancel";
+
+  static final int CHUNK_SIZE = Integer.getInteger("codec.streamChunkSize", 1024);
+  static final int CHUNK_BYTES = Integer.getInteger("codec.streamChunkBytes", 256 * 1024);
+  static final long IDLE_TIMEOUT = Long.getLong("codec.streamIdleTimeout", 30_000L);
+
+  private ChunkedStreams() {
+
+  }
+
+  /**
+   * Publishes the elements of a collection as stream. The elements are read from the iterator of the collection when
+   * the receiver pulls them.
+   *
+   * @param vertx
+   *     the vertx instance to publish the stream with
+   * @param source
+   *     the elements to publish
+   * @param elementType
+   *     the (generic) type of the elements
+   *
+   * @return a future of the address of the stream, that has to be passed to the receiver. The future is completed
+   * once the stream is ready to be pulled.
+   */
+  public static Future<String> publish(Vertx vertx, Iterable<?> source, Type elementType) {
+
+    return new ChunkedStreamSource(vertx, newAddress(), elementType, WireFormats.defaultFormat())
+        .start(source.iterator());
+  }
+
+  /**
+   * Publishes the elements of a read stream. The stream is paused until the receiver pulls the elements.
+   *
+   * @param vertx
+   *     the vertx instance to publish the stream with
+   * @param source
+   *     the elements to publish
+   * @param elementType
+   *     the (generic) type of the elements
+   *
+   * @return a future of the address of the stream, that has to be passed to the receiver. The future is completed
+   * once the stream is ready to be pulled.
+   */
+  public static Future<String> publish(Vertx vertx, ReadStream<?> source, Type elementType) {
+
+    return new ChunkedStreamSource(vertx, newAddress(), elementType, WireFormats.defaultFormat()).start(source);
+  }
+
+  /**
+   * Subscribes to a published stream. The chunks are only pulled from the publisher while the returned stream has
+   * demand. Setting a null handler on the returned stream cancels the subscription.
+   *
+   * @param vertx
+   *     the vertx instance to receive the stream with
+   * @param address
+   *     the address of the stream, as returned by the publish method
+   * @param elementType
+   *     the (generic) type of the elements
+   * @param <T>
+   *     the type of the elements
+   *
+   * @return the stream of elements
+   */
+  public static <T> ReadStream<T> subscribe(Vertx vertx, String address, Type elementType) {
+
+    return new ChunkedReadStream<>(vertx, address, elementType, WireFormats.defaultFormat());
+  }
+
+  /**
+   * Determines the element type of a stream type.
+   *
+   * @param type
+   *     the (generic) type, i.e. the return type of a method. Futures are unwrapped to their value type.
+   *
+   * @return the element type if the type is a {@link io.vertx.core.streams.ReadStream}, otherwise null
+   */
+  public static Type elementTypeOf(Type type) {
+
+    final Type effectiveType = GenericTypes.unwrapFutureType(type);
+    if (effectiveType instanceof ParameterizedType
+        && ((ParameterizedType) effectiveType).getRawType() == ReadStream.class) {
+      return ((ParameterizedType) effectiveType).getActualTypeArguments()[0];
+    }
+    return effectiveType == ReadStream.class ? Object.class : null;
+  }
+
+  private static String newAddress() {
+
+    return ADDRESS_PREFIX + UUID.randomUUID();
+  }
+
+  /**
+   * Chunks consist of a flag indicating the last chunk, the number of elements and the length-prefixed elements.
+   */
+  static Buffer newChunk() {
+
+    return Buffer.buffer(1024).appendByte((byte) 0).appendInt(0);
+  }
+
+  static void appendElement(Buffer chunk, Object element, Type elementType, WireFormat format) {
+
+    final int lengthPos = chunk.length();
+    chunk.appendInt(0);
+    format.encode(chunk, element, elementType);
+    chunk.setInt(lengthPos, chunk.length() - lengthPos - 4);
+  }
+
+  static Buffer completeChunk(Buffer chunk, int count, boolean last) {
+
+    return chunk.setByte(0, last ? (byte) 1 : (byte) 0).setInt(1, count);
+  }
+}
@@ -0,0 +1,196 @@
+package io.devcon5.vertx.codec;
+
+import static io.vertx.core.logging.LoggerFactory.getLogger;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.shareddata.AsyncMap;
+import io.vertx.core.shareddata.Counter;
+import io.vertx.core.shareddata.LocalMap;
+
+/**
+ * Cluster-wide registry of compact ids for codec names. The names of the generic codecs are the full names of their
+ * generic types, such as <code>[java.util.List&lt;com.acme.Order&gt;, java.lang.String]</code>, and are sent with
+ * every clustered message, which often exceeds the size of small payloads.
+ * <br>
+ * The id of a codec name is assigned once for the whole cluster using a counter and an async map of the shared data.
+ * Once the id is known to a node, the codec is registered a second time under its id, i.e. <code>#1a</code>, so that
+ * messages can be sent using the id. Until the id is known, the full name is used. As the codec remains registered
+ * under its full name, messages sent by nodes that do not know the id yet are still understood.
+ * <br>
+ * A receiver has to know the id before a message using the id arrives. Therefore receivers have to
+ * {@link #register(io.vertx.core.Vertx, io.vertx.core.eventbus.MessageCodec)} their codecs before consuming messages,
+ * while senders may use {@link #nameFor(io.vertx.core.Vertx, io.vertx.core.eventbus.MessageCodec)}, which falls back
+ * to the full name. Ids are only used on clustered event buses, as local messages are never encoded.
+ */
+public final class CodecIds {
+
+  private static final Logger LOG = getLogger(CodecIds.class);
+
+  /**
+   * Name of the async map, counter and local map holding the ids
+   */
+  static final String IDS = "io.devcon5.vertx.codec.ids";
+
+  /**
+   * Prefix of ids to distinguish them from codec names
+   */
+  static final String ID_PREFIX = "#";
+
+  private CodecIds() {
+
+  }
+
+  /**
+   * Assigns an id to the codec, or resolves the id already assigned within the cluster, and registers the codec under
+   * its id.
+   *
+   * @param vertx
+   *     the vertx instance whose event bus the codec is registered on
+   * @param codec
+   *     the codec to register
+   *
+   * @return a future of the name to send messages with, which is the full name of the codec if the event bus is not
+   * clustered
+   */
+  public static Future<String> register(Vertx vertx, MessageCodec<?, ?> codec) {
+
+    if (!vertx.isClustered() || codec.name() == null) {
+      return Future.succeededFuture(codec.name());
+    }
+    final LocalMap<String, String> ids = vertx.sharedData().getLocalMap(IDS);
+    final String known = ids.get(codec.name());
+    if (known != null && known.startsWith(ID_PREFIX)) {
+      return Future.succeededFuture(known);
+    }
+    return negotiate(vertx, codec).map(id -> {
+      ids.put(codec.name(), id);
+      return id;
+    });
+  }
+
+  /**
+   * Provides the name to send messages with. If the id of the codec is not known yet, its assignment is started in
+   * the background and the full name is used in the meantime.
+   *
+   * @param vertx
+   *     the vertx instance to send messages with
+   * @param codec
+   *     the codec to send messages with
+   *
+   * @return the id of the codec if it is known, otherwise the full name of the codec
+   */
+  public static String nameFor(Vertx vertx, MessageCodec<?, ?> codec) {
+
+    if (!vertx.isClustered() || codec.name() == null) {
+      return codec.name();
+    }
+    final LocalMap<String, String> ids = vertx.sharedData().getLocalMap(IDS);
+    //the map is only written on the first send of the codec, once the id or the placeholder is known it is only read
+    final String cached = ids.get(codec.name());
+    if (cached != null) {
+      return cached;
+    }
+    //the full name is put as placeholder, so the id is only negotiated once
+    final String known = ids.putIfAbsent(codec.name(), codec.name());
+    if (known == null) {
+      negotiate(vertx, codec).setHandler(id -> {
+        if (id.succeeded()) {
+          ids.put(codec.name(), id.result());
+        } else {
+          LOG.debug("Could not assign id to codec " + codec.name(), id.cause());
+          ids.remove(codec.name());
+        }
+      });
+      return codec.name();
+    }
+    return known;
+  }
+
+  /**
+   * Resolves the id of the codec from the async map of the shared data, or assigns a new one, and registers the codec
+   * under its id on the event bus.
+   */
+  static Future<String> negotiate(Vertx vertx, MessageCodec<?, ?> codec) {
+
+    final Future<AsyncMap<String, String>> map = Future.future();
+    vertx.sharedData().getAsyncMap(IDS, map);
+    return map.compose(ids -> {
+      final Future<String> assigned = Future.future();
+      ids.get(codec.name(), assigned);
+      return assigned.compose(id -> id != null ? Future.succeededFuture(id) : assignId(vertx, ids, codec.name()));
+    }).map(id -> {
+      try {
+        vertx.eventBus().registerCodec(new AliasCodec<>(id, codec));
+      } catch (IllegalStateException e) {
+        LOG.debug("Skipped registering codec: {}", e.getMessage());
+      }
+      return id;
+    });
+  }
+
+  private static Future<String> assignId(Vertx vertx, AsyncMap<String, String> ids, String name) {
+
+    final Future<Counter> counter = Future.future();
+    vertx.sharedData().getCounter(IDS, counter);
+    return counter.compose(c -> {
+      final Future<Long> next = Future.future();
+      c.incrementAndGet(next);
+      return next;
+    }).compose(next -> {
+      final Future<String> previous = Future.future();
+      final String id = ID_PREFIX + Long.toString(next, Character.MAX_RADIX);
+      //another node may have assigned an id concurrently, the first assignment wins
+      ids.putIfAbsent(name, id, previous);
+      return previous.map(p -> p != null ? p : id);
+    });
+  }
+
+  /**
+   * Codec that is registered under the id of another codec and delegates to it
+   */
+  static final class AliasCodec<S, R> implements MessageCodec<S, R> {
+
+    private final String name;
+    private final MessageCodec<S, R> codec;
+
+    AliasCodec(final String name, final MessageCodec<S, R> codec) {
+
+      this.name = name;
+      this.codec = codec;
+    }
+
+    @Override
+    public void encodeToWire(final Buffer buffer, final S s) {
+
+      codec.encodeToWire(buffer, s);
+    }
+
+    @Override
+    public R decodeFromWire(final int pos, final Buffer buffer) {
+
+      return codec.decodeFromWire(pos, buffer);
+    }
+
+    @Override
+    public R transform(final S s) {
+
+      return codec.transform(s);
+    }
+
+    @Override
+    public String name() {
+
+      return name;
+    }
+
+    @Override
+    public byte systemCodecID() {
+
+      return -1;
+    }
+  }
+}
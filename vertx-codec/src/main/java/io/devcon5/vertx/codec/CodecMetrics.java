@@ -0,0 +1,310 @@
+package io.devcon5.vertx.codec;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Counters and latency histograms of the generic codecs per codec name. For every codec, the encoding, decoding and
+ * local transformation of messages is timed and the number of bytes written and read is counted. For transformations,
+ * the {@link io.devcon5.vertx.codec.GenericTypeTransformation.Strategy} used for each copy is counted.
+ * <br>
+ * The metrics are disabled unless the <code>codec.metrics</code> jvm parameter is set to <code>true</code> or they are
+ * enabled using {@link #setEnabled(boolean)}. The metrics of all codecs are provided by {@link #getMetrics()} or can be
+ * published periodically on the event bus using {@link #publish(io.vertx.core.Vertx, String, long)}.
+ * <br>
+ * Latencies are recorded into histograms with power-of-two buckets, so percentiles are estimated by the upper bound of
+ * their bucket, which is at most twice the actual latency.
+ */
+public final class CodecMetrics {
+
+  /**
+   * The default address the metrics are published to
+   */
+  public static final String ADDRESS = "io.devcon5.vertx.codec.metrics";
+
+  private static final Map<String, CodecMetrics> METRICS = new ConcurrentHashMap<>();
+
+  private static volatile boolean enabled = Boolean.getBoolean("codec.metrics");
+
+  private final String name;
+  private final Timer encode = new Timer();
+  private final Timer decode = new Timer();
+  private final Timer transform = new Timer();
+  private final LongAdder bytesOut = new LongAdder();
+  private final LongAdder bytesIn = new LongAdder();
+  private final Map<GenericTypeTransformation.Strategy, LongAdder> strategies;
+
+  private CodecMetrics(final String name) {
+
+    this.name = name;
+    this.strategies = new EnumMap<>(GenericTypeTransformation.Strategy.class);
+    for (GenericTypeTransformation.Strategy strategy : GenericTypeTransformation.Strategy.values()) {
+      this.strategies.put(strategy, new LongAdder());
+    }
+  }
+
+  /**
+   * @return true if the codecs record their metrics
+   */
+  public static boolean isEnabled() {
+
+    return enabled;
+  }
+
+  /**
+   * Enables or disables the recording of metrics for all codecs. The metrics recorded so far are kept.
+   *
+   * @param enabled
+   *     true to record the metrics
+   */
+  public static void setEnabled(boolean enabled) {
+
+    CodecMetrics.enabled = enabled;
+  }
+
+  /**
+   * @return the metrics of all codecs by their codec name
+   */
+  public static Map<String, CodecMetrics> getMetrics() {
+
+    return Collections.unmodifiableMap(METRICS);
+  }
+
+  /**
+   * @param name
+   *     the name of the codec
+   *
+   * @return the metrics of the codec with the specified name, which are shared by all codecs of that name
+   */
+  static CodecMetrics forCodec(String name) {
+
+    return METRICS.computeIfAbsent(name, CodecMetrics::new);
+  }
+
+  /**
+   * Publishes the metrics of all codecs periodically to the specified address. The metrics are published as a {@link
+   * io.vertx.core.json.JsonObject} containing the metrics of each codec by its name.
+   *
+   * @param vertx
+   *     the vertx instance to publish the metrics with
+   * @param address
+   *     the address to publish the metrics to
+   * @param interval
+   *     the interval in milliseconds
+   *
+   * @return the id of the periodic timer, to cancel the publication
+   */
+  public static long publish(Vertx vertx, String address, long interval) {
+
+    return vertx.setPeriodic(interval, id -> vertx.eventBus().publish(address, toJson()));
+  }
+
+  /**
+   * @return the metrics of all codecs by their codec name
+   */
+  public static JsonObject toJson() {
+
+    final JsonObject json = new JsonObject();
+    METRICS.forEach((name, metrics) -> json.put(name, metrics.toJsonObject()));
+    return json;
+  }
+
+  void recordEncode(long nanos, int bytes) {
+
+    encode.record(nanos);
+    bytesOut.add(bytes);
+  }
+
+  void recordDecode(long nanos, int bytes) {
+
+    decode.record(nanos);
+    bytesIn.add(bytes);
+  }
+
+  void recordTransform(long nanos) {
+
+    transform.record(nanos);
+  }
+
+  void recordStrategy(GenericTypeTransformation.Strategy strategy) {
+
+    strategies.get(strategy).increment();
+  }
+
+  /**
+   * @return the name of the codec
+   */
+  public String getName() {
+
+    return name;
+  }
+
+  /**
+   * @return the latencies of encoding messages
+   */
+  public Timer getEncode() {
+
+    return encode;
+  }
+
+  /**
+   * @return the latencies of decoding messages. Payloads that are decoded lazily are only timed until the lazy payload
+   * is created.
+   */
+  public Timer getDecode() {
+
+    return decode;
+  }
+
+  /**
+   * @return the latencies of copying messages for local delivery
+   */
+  public Timer getTransform() {
+
+    return transform;
+  }
+
+  /**
+   * @return the number of bytes written by encoding messages, including the length prefix
+   */
+  public long getBytesOut() {
+
+    return bytesOut.sum();
+  }
+
+  /**
+   * @return the number of bytes read by decoding messages, including the length prefix
+   */
+  public long getBytesIn() {
+
+    return bytesIn.sum();
+  }
+
+  /**
+   * @return the number of values copied by each strategy. Elements of copied arrays are counted individually.
+   */
+  public Map<GenericTypeTransformation.Strategy, Long> getStrategies() {
+
+    final Map<GenericTypeTransformation.Strategy, Long> counts;
+    counts = new EnumMap<>(GenericTypeTransformation.Strategy.class);
+    strategies.forEach((strategy, count) -> counts.put(strategy, count.sum()));
+    return counts;
+  }
+
+  /**
+   * @return the metrics of the codec as json
+   */
+  public JsonObject toJsonObject() {
+
+    final JsonObject copies = new JsonObject();
+    strategies.forEach((strategy, count) -> copies.put(strategy.name(), count.sum()));
+    return new JsonObject().put("encode", encode.toJsonObject())
+                           .put("decode", decode.toJsonObject())
+                           .put("transform", transform.toJsonObject())
+                           .put("bytesOut", getBytesOut())
+                           .put("bytesIn", getBytesIn())
+                           .put("strategies", copies);
+  }
+
+  @Override
+  public String toString() {
+
+    return name + " " + toJsonObject().encode();
+  }
+
+  /**
+   * Counter and histogram of the latencies of an operation
+   */
+  public static final class Timer {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    Timer() {
+
+      for (int i = 0; i < BUCKETS; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    void record(long nanos) {
+
+      final long value = Math.max(nanos, 0);
+      count.increment();
+      totalNanos.add(value);
+      maxNanos.accumulate(value);
+      //bucket i holds the latencies below 2^i nanoseconds
+      buckets[Math.min(BUCKETS - Long.numberOfLeadingZeros(value), BUCKETS - 1)].increment();
+    }
+
+    /**
+     * @return the number of recorded operations
+     */
+    public long getCount() {
+
+      return count.sum();
+    }
+
+    /**
+     * @return the total time of all recorded operations in nanoseconds
+     */
+    public long getTotalNanos() {
+
+      return totalNanos.sum();
+    }
+
+    /**
+     * @return the longest recorded operation in nanoseconds
+     */
+    public long getMaxNanos() {
+
+      return maxNanos.get();
+    }
+
+    /**
+     * @param percentile
+     *     the percentile, between 0 and 1
+     *
+     * @return the estimated latency in nanoseconds, that the specified percentile of the operations did not exceed
+     */
+    public long getPercentileNanos(double percentile) {
+
+      final long total = getCount();
+      if (total == 0) {
+        return 0;
+      }
+      final long rank = (long) Math.ceil(total * Math.min(Math.max(percentile, 0.0), 1.0));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += buckets[i].sum();
+        if (seen >= rank && seen > 0) {
+          return Math.min(i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1, getMaxNanos());
+        }
+      }
+      return getMaxNanos();
+    }
+
+    /**
+     * @return the count, total time and percentiles of the operations as json
+     */
+    public JsonObject toJsonObject() {
+
+      return new JsonObject().put("count", getCount())
+                             .put("totalNanos", getTotalNanos())
+                             .put("p50Nanos", getPercentileNanos(0.5))
+                             .put("p99Nanos", getPercentileNanos(0.99))
+                             .put("maxNanos", getMaxNanos());
+    }
+  }
+}
@@ -0,0 +1,221 @@
+package io.devcon5.vertx.codec;
+
+import static io.devcon5.vertx.codec.GenericTypes.unwrapFutureType;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * Process-wide registry of the generic codecs. As the codecs are stateless, a single instance per type or signature is
+ * shared by all threads, including event loop and worker threads.
+ * <br>
+ * The codecs are keyed by the canonical form of their type, so that different but equal {@link
+ * java.lang.reflect.Type} instances, i.e. read from different methods with the same signature, resolve to the same
+ * codec. The number of codecs kept is bounded by the <code>codec.instanceCacheSize</code> jvm parameter that defaults
+ * to 1024. When the bound is exceeded, arbitrary entries are evicted.
+ */
+public final class CodecRegistry {
+
+  private static final CodecRegistry INSTANCE = new CodecRegistry(Integer.getInteger("codec.instanceCacheSize", 1024));
+
+  private final Map<Key, MessageCodec<?, ?>> codecs = new ConcurrentHashMap<>();
+  private final int maxSize;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  CodecRegistry(final int maxSize) {
+
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * @return the process-wide registry
+   */
+  public static CodecRegistry getInstance() {
+
+    return INSTANCE;
+  }
+
+  /**
+   * Provides the codec for a single generic type.
+   *
+   * @param type
+   *     the type to get the codec for
+   *
+   * @return the shared codec for the type
+   */
+  public GenericTypeCodec codecFor(Type type) {
+
+    final Type effectiveType = unwrapFutureType(type);
+    final Key key = new Key(canonicalize(effectiveType), effectiveType.getTypeName());
+    return (GenericTypeCodec) lookup(key, k -> new GenericTypeCodec(type));
+  }
+
+  /**
+   * Provides the offloading codec for a single generic type, see {@link io.devcon5.vertx.codec.LazyPayload}.
+   *
+   * @param type
+   *     the type to get the codec for
+   *
+   * @return the shared offloading codec for the type
+   */
+  public GenericTypeCodec offloadingCodecFor(Type type) {
+
+    final Type effectiveType = unwrapFutureType(type);
+    final Key key = new Key(canonicalize(effectiveType), LazyPayload.codecNameFor(effectiveType.getTypeName()));
+    return (GenericTypeCodec) lookup(key, k -> new GenericTypeCodec(type,
+                                                                     WireFormats.defaultFormat(),
+                                                                     LazyPayload.OFFLOAD_THRESHOLD));
+  }
+
+  /**
+   * Provides the codec for an array of generic types, such as the parameters of a method.
+   *
+   * @param types
+   *     the types to get the codec for
+   *
+   * @return the shared codec for the types
+   */
+  public GenericTypeArrayCodec codecFor(Type[] types) {
+
+    final Key key = new Key(canonicalize(types), GenericTypeArrayCodec.codecNameFor(types));
+    return (GenericTypeArrayCodec) lookup(key, k -> new GenericTypeArrayCodec(types.clone()));
+  }
+
+  /**
+   * Provides the offloading codec for an array of generic types, see {@link io.devcon5.vertx.codec.LazyPayload}.
+   *
+   * @param types
+   *     the types to get the codec for
+   *
+   * @return the shared offloading codec for the types
+   */
+  public GenericTypeArrayCodec offloadingCodecFor(Type[] types) {
+
+    final Key key = new Key(canonicalize(types), LazyPayload.codecNameFor(GenericTypeArrayCodec.codecNameFor(types)));
+    return (GenericTypeArrayCodec) lookup(key, k -> new GenericTypeArrayCodec(types.clone(),
+                                                                              WireFormats.defaultFormat(),
+                                                                              LazyPayload.OFFLOAD_THRESHOLD));
+  }
+
+  /**
+   * @return the number of lookups that returned an existing codec
+   */
+  public long getHits() {
+
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of lookups that created a new codec
+   */
+  public long getMisses() {
+
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of codecs removed because the registry exceeded its maximum size
+   */
+  public long getEvictions() {
+
+    return evictions.sum();
+  }
+
+  /**
+   * @return the number of codecs currently kept in the registry
+   */
+  public int size() {
+
+    return codecs.size();
+  }
+
+  private MessageCodec<?, ?> lookup(final Key key, Function<Key, MessageCodec<?, ?>> factory) {
+
+    MessageCodec<?, ?> codec = codecs.get(key);
+    if (codec != null) {
+      hits.increment();
+      return codec;
+    }
+    codec = codecs.computeIfAbsent(key, k -> {
+      misses.increment();
+      return factory.apply(k);
+    });
+    evictExcessEntries(key);
+    return codec;
+  }
+
+  private void evictExcessEntries(final Key retained) {
+
+    final Iterator<Key> it = codecs.keySet().iterator();
+    while (codecs.size() > maxSize && it.hasNext()) {
+      final Key key = it.next();
+      if (!key.equals(retained)) {
+        it.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  private static Object canonicalize(final Type type) {
+
+    return TypeFactory.defaultInstance().constructType(type);
+  }
+
+  private static Object canonicalize(final Type[] types) {
+
+    final List<Object> canonicalTypes = new ArrayList<>(types.length);
+    for (Type type : types) {
+      canonicalTypes.add(canonicalize(unwrapFutureType(type)));
+    }
+    return canonicalTypes;
+  }
+
+  /**
+   * The canonical type is structurally comparable, but resolves type variables to their bounds, so the name of the
+   * codec is part of the key, too.
+   */
+  private static final class Key {
+
+    private final Object type;
+    private final String name;
+    private final int hash;
+
+    Key(final Object type, final String name) {
+
+      this.type = type;
+      this.name = name;
+      this.hash = Objects.hash(type, name);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return hash == key.hash && type.equals(key.type) && Objects.equals(name, key.name);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,266 @@
+package io.devcon5.vertx.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+
+/**
+ * The compression of the payloads written by a codec. Payloads that are at least as large as the threshold are
+ * compressed, smaller payloads and payloads that do not get smaller are written uncompressed.
+ * <br>
+ * Compressed payloads are flagged by a negative length prefix, followed by the id of the {@link
+ * io.devcon5.vertx.codec.Compressor}. Uncompressed payloads are written exactly as without compression, so every codec
+ * decodes compressed and uncompressed payloads, regardless of its own compression, and the compression only has to be
+ * configured on the sending side.
+ * <br>
+ * The compression of codecs that are created without an explicit compression is configured using the
+ * <code>codec.compressionThreshold</code> jvm parameter (in bytes, disabled by default) and the
+ * <code>codec.compressor</code> jvm parameter (<code>deflate</code> by default).
+ */
+public final class Compression {
+
+  private static final Compressor DEFLATE = new DeflateCompressor();
+  private static final Map<Byte, Compressor> COMPRESSORS = loadCompressors();
+  private static final Compression NONE = new Compression(null, Integer.MAX_VALUE);
+  private static final Compression DEFAULT = Integer.getInteger("codec.compressionThreshold", 0) > 0
+                                             ? new Compression(forName(System.getProperty("codec.compressor",
+                                                                                          DEFLATE.name())),
+                                                               Integer.getInteger("codec.compressionThreshold"))
+                                             : NONE;
+
+  private final Compressor compressor;
+  private final int threshold;
+
+  private Compression(final Compressor compressor, final int threshold) {
+
+    this.compressor = compressor;
+    this.threshold = threshold;
+  }
+
+  private static Map<Byte, Compressor> loadCompressors() {
+
+    final Map<Byte, Compressor> compressors = new HashMap<>();
+    for (Compressor compressor : ServiceLoader.load(Compressor.class)) {
+      compressors.put(compressor.id(), compressor);
+    }
+    //the built-in compressors may not be replaced
+    compressors.put(DEFLATE.id(), DEFLATE);
+    return compressors;
+  }
+
+  /**
+   * @return no compression
+   */
+  public static Compression none() {
+
+    return NONE;
+  }
+
+  /**
+   * @return the compression configured using the <code>codec.compressionThreshold</code> and
+   * <code>codec.compressor</code> jvm parameters, no compression if none is configured
+   */
+  public static Compression defaultCompression() {
+
+    return DEFAULT;
+  }
+
+  /**
+   * @param threshold
+   *     the minimum size of a payload in bytes to compress it
+   *
+   * @return a compression using the built-in deflate compressor
+   */
+  public static Compression deflate(int threshold) {
+
+    return of(DEFLATE, threshold);
+  }
+
+  /**
+   * @param compressor
+   *     the compressor to compress payloads with
+   * @param threshold
+   *     the minimum size of a payload in bytes to compress it
+   *
+   * @return a compression using the specified compressor
+   */
+  public static Compression of(Compressor compressor, int threshold) {
+
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Threshold must not be negative");
+    }
+    return new Compression(compressor, threshold);
+  }
+
+  /**
+   * Resolves a compressor by its name.
+   *
+   * @param name
+   *     the name of the compressor
+   *
+   * @return the compressor with the specified name
+   *
+   * @throws java.lang.IllegalArgumentException
+   *     if no compressor of that name is known
+   */
+  public static Compressor forName(String name) {
+
+    return COMPRESSORS.values()
+                      .stream()
+                      .filter(c -> c.name().equals(name))
+                      .findFirst()
+                      .orElseThrow(() -> new IllegalArgumentException("Unknown compressor " + name));
+  }
+
+  /**
+   * @return true if payloads are compressed at all
+   */
+  boolean isEnabled() {
+
+    return compressor != null;
+  }
+
+  /**
+   * Appends the length-prefixed payload to the buffer, compressed if the payload exceeds the threshold.
+   *
+   * @param buffer
+   *     the buffer to write to
+   * @param payload
+   *     the uncompressed payload
+   */
+  void write(Buffer buffer, Buffer payload) {
+
+    if (compressor != null && payload.length() >= threshold) {
+      final Buffer compressed = compressor.compress(payload, 0, payload.length());
+      if (compressed.length() + 1 < payload.length()) {
+        buffer.appendInt(-(compressed.length() + 1)).appendByte(compressor.id()).appendBuffer(compressed);
+        return;
+      }
+    }
+    buffer.appendInt(payload.length()).appendBuffer(payload);
+  }
+
+  /**
+   * @param lengthPrefix
+   *     the length prefix of a payload
+   *
+   * @return true if the payload is compressed
+   */
+  static boolean isCompressed(int lengthPrefix) {
+
+    return lengthPrefix < 0;
+  }
+
+  /**
+   * @param lengthPrefix
+   *     the length prefix of a payload
+   *
+   * @return the number of bytes of the payload on the wire
+   */
+  static int lengthOf(int lengthPrefix) {
+
+    return lengthPrefix < 0 ? -lengthPrefix : lengthPrefix;
+  }
+
+  /**
+   * Decompresses a compressed payload.
+   *
+   * @param buffer
+   *     the buffer to read from
+   * @param start
+   *     the position of the compressed payload, after the length prefix (inclusive)
+   * @param end
+   *     the position after the last byte of the compressed payload (exclusive)
+   *
+   * @return the decompressed payload
+   */
+  static Buffer decompress(Buffer buffer, int start, int end) {
+
+    final Compressor compressor = COMPRESSORS.get(buffer.getByte(start));
+    if (compressor == null) {
+      throw new DecodeException("Failed to decode: unknown compressor " + buffer.getByte(start));
+    }
+    return compressor.decompress(buffer, start + 1, end);
+  }
+
+  /**
+   * Compressor using the {@link java.util.zip.Deflater} of the JDK. As the payloads are compressed on the event loop,
+   * the fastest compression level is used. The compressed bytes are prefixed with the uncompressed length, which may
+   * not exceed the <code>codec.maxDecompressedSize</code> jvm parameter (64 MiB by default).
+   */
+  static final class DeflateCompressor implements Compressor {
+
+    static final int MAX_DECOMPRESSED_SIZE = Integer.getInteger("codec.maxDecompressedSize", 64 * 1024 * 1024);
+
+    @Override
+    public String name() {
+
+      return "deflate";
+    }
+
+    @Override
+    public byte id() {
+
+      return 0;
+    }
+
+    @Override
+    public Buffer compress(final Buffer buffer, final int start, final int end) {
+
+      final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+        deflater.setInput(buffer.getBytes(start, end));
+        deflater.finish();
+        final Buffer compressed = Buffer.buffer((end - start) / 4 + 16).appendInt(end - start);
+        final byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+          compressed.appendBytes(chunk, 0, deflater.deflate(chunk));
+        }
+        return compressed;
+      } finally {
+        deflater.end();
+      }
+    }
+
+    @Override
+    public Buffer decompress(final Buffer buffer, final int start, final int end) {
+
+      final int declared = buffer.getInt(start);
+      if (declared < 0 || declared > MAX_DECOMPRESSED_SIZE) {
+        throw new DecodeException("Failed to decode: invalid decompressed length " + declared);
+      }
+      final Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(buffer.getBytes(start + 4, end));
+        final byte[] decompressed = new byte[declared];
+        final byte[] excess = new byte[1];
+        int length = 0;
+        while (!inflater.finished()) {
+          final int inflated = length < declared ? inflater.inflate(decompressed, length, declared - length)
+                                                 : inflater.inflate(excess);
+          if (length == declared && inflated > 0) {
+            throw new DecodeException("Failed to decode: payload exceeds its declared length " + declared);
+          }
+          if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            throw new DecodeException("Failed to decode: truncated compressed payload");
+          }
+          length += inflated;
+        }
+        if (length != declared) {
+          throw new DecodeException("Failed to decode: decompressed " + length + " of " + declared + " bytes");
+        }
+        return Buffer.buffer(decompressed);
+      } catch (DataFormatException e) {
+        throw new DecodeException("Failed to decode: " + e.getMessage());
+      } finally {
+        inflater.end();
+      }
+    }
+  }
+}
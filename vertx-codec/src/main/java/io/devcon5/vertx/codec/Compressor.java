@@ -0,0 +1,53 @@
+package io.devcon5.vertx.codec;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Service provider interface for the algorithms that compress large payloads. The built-in compressor is
+ * <code>deflate</code>, additional compressors can be provided via the {@link java.util.ServiceLoader} mechanism by
+ * registering an implementation in META-INF/services/io.devcon5.vertx.codec.Compressor.
+ * <br>
+ * Compressed payloads are marked with the {@link #id()} of their compressor, so all nodes of a cluster have to provide
+ * the compressors that are used by any of the nodes.
+ */
+public interface Compressor {
+
+  /**
+   * @return the unique name of this compressor, i.e. <code>deflate</code>
+   */
+  String name();
+
+  /**
+   * @return the unique id of this compressor that is written on the wire. The ids 0 to 15 are reserved for built-in
+   * compressors.
+   */
+  byte id();
+
+  /**
+   * Compresses the specified region of the buffer.
+   *
+   * @param buffer
+   *     the buffer to read from
+   * @param start
+   *     the position of the first byte (inclusive)
+   * @param end
+   *     the position after the last byte (exclusive)
+   *
+   * @return the compressed bytes
+   */
+  Buffer compress(Buffer buffer, int start, int end);
+
+  /**
+   * Decompresses the specified region of the buffer.
+   *
+   * @param buffer
+   *     the buffer to read from
+   * @param start
+   *     the position of the first compressed byte (inclusive)
+   * @param end
+   *     the position after the last compressed byte (exclusive)
+   *
+   * @return the decompressed bytes
+   */
+  Buffer decompress(Buffer buffer, int start, int end);
+}
@@ -0,0 +1,434 @@
+package io.devcon5.vertx.codec;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * Deep-copy functions for passing values between verticles inside the same JVM. A specialized copy function is built
+ * once per class and cached for the lifetime of the class:
+ * <ul>
+ * <li>primitives, Strings, enums and other immutable value types are shared without copying</li>
+ * <li>types with a generated {@link io.devcon5.vertx.codec.TypeCodec} are copied by the generated codec</li>
+ * <li>{@link io.vertx.core.shareddata.Shareable}s are copied using their own copy method</li>
+ * <li>arrays, {@link java.util.Collection}s and {@link java.util.Map}s are copied structurally, preserving sorting
+ * and immutability</li>
+ * <li>beans with a default constructor are copied field by field using method handles</li>
+ * </ul>
+ * Values that can not be copied this way, such as JDK-internal types or object graphs that are too deep or contain
+ * cycles, are rejected with a {@link NotCopyableException} so the caller can fall back to another strategy.
+ */
+final class Copiers {
+
+  /**
+   * Maximum nesting depth of a copied object graph. Deeper graphs, including cyclic graphs, are not copied.
+   */
+  static final int MAX_DEPTH = 64;
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final Copier IDENTITY = (value, depth) -> value;
+
+  private static final ClassValue<Copier> COPIERS = new ClassValue<Copier>() {
+
+    @Override
+    protected Copier computeValue(final Class<?> type) {
+
+      return createCopier(type);
+    }
+  };
+
+  private Copiers() {
+
+  }
+
+  /**
+   * Creates a deep copy of the specified value.
+   *
+   * @param value
+   *     the value to copy, may be null
+   *
+   * @return the copy of the value. Immutable values are returned as they are.
+   *
+   * @throws NotCopyableException
+   *     if the value, or any value referenced by it, can not be copied
+   */
+  static Object copy(Object value) {
+
+    return copy(value, 0);
+  }
+
+  static Object copy(Object value, int depth) {
+
+    if (value == null) {
+      return null;
+    }
+    if (depth > MAX_DEPTH) {
+      throw new NotCopyableException("Object graph exceeds the maximum depth of " + MAX_DEPTH);
+    }
+    return COPIERS.get(value.getClass()).copy(value, depth);
+  }
+
+  /**
+   * Checks if values of the specified class are immutable and therefore can be shared without copying.
+   */
+  static boolean isImmutableValue(Class<?> type) {
+
+    return GenericTypes.isPrimitive(type)
+        || type == Character.class
+        || type.isEnum()
+        || (type.getSuperclass() != null && type.getSuperclass().isEnum())
+        || type == BigDecimal.class
+        || type == BigInteger.class
+        || type == UUID.class
+        || type == Locale.class
+        || type == Currency.class
+        || type == Class.class
+        || ("java.time".equals(type.getPackageName()) && Modifier.isFinal(type.getModifiers()));
+  }
+
+  private static Copier createCopier(final Class<?> type) {
+
+    if (isImmutableValue(type) || Immutables.isImmutableType(type)) {
+      return IDENTITY;
+    }
+    final TypeCodec<Object> codec = TypeCodecs.forType(type);
+    if (codec != null) {
+      return (value, depth) -> codec.copy(value);
+    }
+    if (Shareable.class.isAssignableFrom(type)) {
+      return (value, depth) -> ((Shareable) value).copy();
+    }
+    if (type.isArray()) {
+      return arrayCopier(type);
+    }
+    if (isJdkType(type) && Map.class.isAssignableFrom(type)) {
+      return mapCopier(type);
+    }
+    if (isJdkType(type) && Collection.class.isAssignableFrom(type)) {
+      return collectionCopier(type);
+    }
+    if (isJdkType(type)) {
+      return unsupported(type);
+    }
+    return beanCopier(type);
+  }
+
+  private static Copier arrayCopier(final Class<?> type) {
+
+    if (type == byte[].class) {
+      return (value, depth) -> ((byte[]) value).clone();
+    } else if (type == short[].class) {
+      return (value, depth) -> ((short[]) value).clone();
+    } else if (type == int[].class) {
+      return (value, depth) -> ((int[]) value).clone();
+    } else if (type == long[].class) {
+      return (value, depth) -> ((long[]) value).clone();
+    } else if (type == float[].class) {
+      return (value, depth) -> ((float[]) value).clone();
+    } else if (type == double[].class) {
+      return (value, depth) -> ((double[]) value).clone();
+    } else if (type == char[].class) {
+      return (value, depth) -> ((char[]) value).clone();
+    } else if (type == boolean[].class) {
+      return (value, depth) -> ((boolean[]) value).clone();
+    }
+
+    final Class<?> componentType = type.getComponentType();
+    if (Modifier.isFinal(componentType.getModifiers()) && isImmutableValue(componentType)) {
+      return (value, depth) -> ((Object[]) value).clone();
+    }
+    return (value, depth) -> {
+      final Object[] copy = ((Object[]) value).clone();
+      for (int i = 0; i < copy.length; i++) {
+        copy[i] = copy(copy[i], depth + 1);
+      }
+      return copy;
+    };
+  }
+
+  private static Copier collectionCopier(final Class<?> type) {
+
+    if (EnumSet.class.isAssignableFrom(type)) {
+      return (value, depth) -> ((EnumSet) value).clone();
+    }
+
+    final Function<Collection, Collection> factory;
+    final Function<Collection, Collection> finisher;
+    final MethodHandle constructor = findDefaultConstructor(type);
+    final MethodHandle comparatorConstructor = findComparatorConstructor(type);
+
+    if (SortedSet.class.isAssignableFrom(type)) {
+      //the sort order has to be preserved
+      factory = comparatorConstructor != null
+                ? source -> (Collection) newInstance(comparatorConstructor, ((SortedSet) source).comparator())
+                : source -> new TreeSet(((SortedSet) source).comparator());
+    } else if (type == PriorityQueue.class) {
+      factory = source -> new PriorityQueue(((PriorityQueue) source).comparator());
+    } else if (constructor != null) {
+      factory = source -> (Collection) newInstance(constructor);
+    } else if (List.class.isAssignableFrom(type)) {
+      factory = source -> new ArrayList(source.size());
+    } else if (Set.class.isAssignableFrom(type)) {
+      factory = source -> new LinkedHashSet(source.size() * 2);
+    } else if (Queue.class.isAssignableFrom(type)) {
+      factory = source -> new ArrayDeque(source.size());
+    } else {
+      factory = source -> new ArrayList(source.size());
+    }
+
+    //collections that can not be instantiated directly keep their immutability. The copies are wrapped instead of
+    //using List.copyOf and the like, as singletons and unmodifiable views may contain null elements
+    if (isImmutableCollection(type) || isUnmodifiableView(type)) {
+      if (SortedSet.class.isAssignableFrom(type)) {
+        finisher = c -> Collections.unmodifiableSortedSet((SortedSet) c);
+      } else if (List.class.isAssignableFrom(type)) {
+        finisher = c -> Collections.unmodifiableList((List) c);
+      } else if (Set.class.isAssignableFrom(type)) {
+        finisher = c -> Collections.unmodifiableSet((Set) c);
+      } else {
+        finisher = Collections::unmodifiableCollection;
+      }
+    } else {
+      finisher = Function.identity();
+    }
+
+    return (value, depth) -> {
+      final Collection source = (Collection) value;
+      final Collection copy = factory.apply(source);
+      for (Object item : source) {
+        copy.add(copy(item, depth + 1));
+      }
+      return finisher.apply(copy);
+    };
+  }
+
+  private static Copier mapCopier(final Class<?> type) {
+
+    final Function<Map, Map> factory;
+    final Function<Map, Map> finisher;
+    final MethodHandle constructor = findDefaultConstructor(type);
+    final MethodHandle comparatorConstructor = findComparatorConstructor(type);
+
+    if (SortedMap.class.isAssignableFrom(type)) {
+      factory = comparatorConstructor != null
+                ? source -> (Map) newInstance(comparatorConstructor, ((SortedMap) source).comparator())
+                : source -> new TreeMap(((SortedMap) source).comparator());
+    } else if (type == EnumMap.class) {
+      factory = source -> new EnumMap((EnumMap) source);
+    } else if (constructor != null) {
+      factory = source -> (Map) newInstance(constructor);
+    } else {
+      factory = source -> new LinkedHashMap(source.size() * 2);
+    }
+
+    if (isImmutableCollection(type) || isUnmodifiableView(type)) {
+      if (SortedMap.class.isAssignableFrom(type)) {
+        finisher = m -> Collections.unmodifiableSortedMap((SortedMap) m);
+      } else {
+        finisher = Collections::unmodifiableMap;
+      }
+    } else {
+      finisher = Function.identity();
+    }
+
+    return (value, depth) -> {
+      final Map<?, ?> source = (Map) value;
+      final Map copy = factory.apply(source);
+      for (Map.Entry<?, ?> entry : source.entrySet()) {
+        copy.put(copy(entry.getKey(), depth + 1), copy(entry.getValue(), depth + 1));
+      }
+      return finisher.apply(copy);
+    };
+  }
+
+  private static Copier beanCopier(final Class<?> type) {
+
+    if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+      return unsupported(type);
+    }
+    final MethodHandle constructor = findDefaultConstructor(type);
+    if (constructor == null) {
+      return unsupported(type);
+    }
+
+    final List<MethodHandle> primitiveFields = new ArrayList<>();
+    final List<MethodHandle> getters = new ArrayList<>();
+    final List<MethodHandle> setters = new ArrayList<>();
+    try {
+      for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+        if (isJdkType(c)) {
+          return unsupported(type);
+        }
+        for (Field field : c.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          field.setAccessible(true);
+          final MethodHandle getter = LOOKUP.unreflectGetter(field);
+          final MethodHandle setter = LOOKUP.unreflectSetter(field);
+          final Class<?> fieldType = field.getType();
+          if (fieldType.isPrimitive() || GenericTypes.isPrimitive(fieldType) || fieldType.isEnum()) {
+            //values that can be shared are transferred directly from field to field without boxing
+            primitiveFields.add(MethodHandles.filterArguments(setter, 1, getter)
+                                             .asType(methodType(void.class, Object.class, Object.class)));
+          } else {
+            getters.add(getter.asType(methodType(Object.class, Object.class)));
+            setters.add(setter.asType(methodType(void.class, Object.class, Object.class)));
+          }
+        }
+      }
+    } catch (IllegalAccessException | RuntimeException e) {
+      //i.e. inaccessible modules or final fields that can not be written
+      return unsupported(type);
+    }
+
+    final MethodHandle[] transfers = primitiveFields.toArray(new MethodHandle[0]);
+    final MethodHandle[] getterArray = getters.toArray(new MethodHandle[0]);
+    final MethodHandle[] setterArray = setters.toArray(new MethodHandle[0]);
+
+    return (value, depth) -> {
+      final Object copy = newInstance(constructor);
+      try {
+        for (MethodHandle transfer : transfers) {
+          transfer.invokeExact(copy, value);
+        }
+        for (int i = 0; i < getterArray.length; i++) {
+          final Object fieldValue = (Object) getterArray[i].invokeExact(value);
+          setterArray[i].invokeExact(copy, copy(fieldValue, depth + 1));
+        }
+      } catch (NotCopyableException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        //i.e. a copied collection that is not assignable to the declared type of the field
+        throw new NotCopyableException("Could not copy " + type.getName() + ": " + e);
+      }
+      return copy;
+    };
+  }
+
+  private static MethodHandle findDefaultConstructor(final Class<?> type) {
+
+    try {
+      final Constructor<?> constructor = type.getDeclaredConstructor();
+      if (isJdkType(type) && !Modifier.isPublic(constructor.getModifiers())) {
+        return null;
+      }
+      if (!isJdkType(type)) {
+        constructor.setAccessible(true);
+      }
+      return LOOKUP.unreflectConstructor(constructor).asType(methodType(Object.class));
+    } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static MethodHandle findComparatorConstructor(final Class<?> type) {
+
+    try {
+      return MethodHandles.publicLookup()
+                          .findConstructor(type, methodType(void.class, Comparator.class))
+                          .asType(methodType(Object.class, Comparator.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static Object newInstance(final MethodHandle constructor) {
+
+    try {
+      return (Object) constructor.invokeExact();
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new NotCopyableException("Could not create instance: " + e);
+    }
+  }
+
+  private static Object newInstance(final MethodHandle constructor, final Comparator comparator) {
+
+    try {
+      return (Object) constructor.invokeExact(comparator);
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new NotCopyableException("Could not create instance: " + e);
+    }
+  }
+
+  static boolean isJdkType(final Class<?> type) {
+
+    final String name = type.getName();
+    return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.");
+  }
+
+  static boolean isImmutableCollection(final Class<?> type) {
+
+    final String name = type.getName();
+    return name.startsWith("java.util.ImmutableCollections$")
+        || name.startsWith("java.util.Collections$Empty")
+        || name.startsWith("java.util.Collections$Singleton");
+  }
+
+  private static boolean isUnmodifiableView(final Class<?> type) {
+
+    return type.getName().startsWith("java.util.Collections$Unmodifiable");
+  }
+
+  private static Copier unsupported(final Class<?> type) {
+
+    return (value, depth) -> {
+      throw new NotCopyableException("Copying values of " + type.getName() + " is not supported");
+    };
+  }
+
+  /**
+   * Function creating a copy of a value of a specific class
+   */
+  @FunctionalInterface
+  interface Copier {
+
+    Object copy(Object value, int depth);
+  }
+
+  /**
+   * Thrown when a value can not be copied by a copier. As this is used for selecting a fallback, it has no stacktrace.
+   */
+  static final class NotCopyableException extends RuntimeException {
+
+    NotCopyableException(final String message) {
+
+      super(message, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,281 @@
+package io.devcon5.vertx.codec;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Opt-in cache of encoded payloads, so that a payload published to many consumers or sent repeatedly is only encoded
+ * once. Only payloads that can not change between two messages are cached:
+ * <ul>
+ * <li>{@link io.devcon5.vertx.codec.Versioned} payloads, by their class and version</li>
+ * <li>payloads of immutable types, such as types annotated with {@link io.devcon5.vertx.codec.Immutable}, by their
+ * identity</li>
+ * </ul>
+ * Immutability is checked once per class, the object graph of a payload is never walked on encoding, so payloads
+ * that are only immutable by their content, such as unmodifiable collections, are not cached.
+ * <br>
+ * The arguments encoded by the {@link io.devcon5.vertx.codec.GenericTypeArrayCodec} are cached if every argument can
+ * be cached or is a value without identity, such as a string or a number, which is compared by its value. So the
+ * arguments of a call sent to many actors are encoded only once, even though every call passes a new array.
+ * The cache is disabled unless the number of payloads kept is configured using the
+ * <code>codec.encodingCacheSize</code> jvm parameter. Payloads whose encoding is smaller than the
+ * <code>codec.encodingCacheMinBytes</code> jvm parameter (default 4096) are cheap to encode and are not cached. When
+ * the cache is full, arbitrary entries are evicted.
+ */
+final class EncodingCache {
+
+  private static final EncodingCache INSTANCE = new EncodingCache(Integer.getInteger("codec.encodingCacheSize", 0),
+                                                                  Integer.getInteger("codec.encodingCacheMinBytes",
+                                                                                     4096));
+
+  private final Map<Object, Buffer> entries = new ConcurrentHashMap<>();
+  private final int maxSize;
+  private final int minBytes;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  EncodingCache(final int maxSize, final int minBytes) {
+
+    this.maxSize = maxSize;
+    this.minBytes = minBytes;
+  }
+
+  static EncodingCache getInstance() {
+
+    return INSTANCE;
+  }
+
+  /**
+   * @param type
+   *     the type the value is encoded as
+   * @param format
+   *     the format the value is encoded in
+   * @param value
+   *     the value to encode
+   *
+   * @return the key of the encoded value or null, if the value can not be cached
+   */
+  Object keyFor(Type type, WireFormat format, Object value) {
+
+    if (maxSize <= 0 || value == null) {
+      return null;
+    }
+    if (value instanceof Versioned) {
+      return new VersionKey(type, format, value.getClass(), ((Versioned) value).version());
+    }
+    return Immutables.isImmutableType(value.getClass()) ? new IdentityKey(type, format, value) : null;
+  }
+
+  /**
+   * @param types
+   *     the types the values are encoded as
+   * @param format
+   *     the format the values are encoded in
+   * @param values
+   *     the values that are encoded together, such as the arguments of a method
+   *
+   * @return the key of the encoded values or null, if any of the values can not be cached
+   */
+  Object keyFor(Type[] types, WireFormat format, Object[] values) {
+
+    if (maxSize <= 0 || values.length == 0) {
+      return null;
+    }
+    final Object[] elements = new Object[values.length];
+    for (int i = 0; i < values.length; i++) {
+      final Object value = values[i];
+      if (value == null || Copiers.isImmutableValue(value.getClass())) {
+        //values without identity are compared by their value
+        elements[i] = value;
+      } else if ((elements[i] = keyFor(types[i], format, value)) == null) {
+        return null;
+      }
+    }
+    return new ArgumentsKey(types, format, elements);
+  }
+
+  /**
+   * @return the encoded value or null, if the value is not cached
+   */
+  Buffer get(Object key) {
+
+    final Buffer encoded = entries.get(key);
+    if (encoded == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return encoded;
+  }
+
+  /**
+   * Caches an encoded value.
+   *
+   * @param key
+   *     the key of the value
+   * @param buffer
+   *     the buffer the value was encoded to
+   * @param start
+   *     the start of the encoded value in the buffer, the value ends at the end of the buffer
+   */
+  void put(Object key, Buffer buffer, int start) {
+
+    if (buffer.length() - start < minBytes) {
+      return;
+    }
+    entries.put(key, buffer.getBuffer(start, buffer.length()));
+    final Iterator<Object> it = entries.keySet().iterator();
+    while (entries.size() > maxSize && it.hasNext()) {
+      if (!key.equals(it.next())) {
+        it.remove();
+      }
+    }
+  }
+
+  long getHits() {
+
+    return hits.sum();
+  }
+
+  long getMisses() {
+
+    return misses.sum();
+  }
+
+  int size() {
+
+    return entries.size();
+  }
+
+  private static final class VersionKey {
+
+    private final Type type;
+    private final WireFormat format;
+    private final Class<?> payloadType;
+    private final long version;
+
+    VersionKey(final Type type, final WireFormat format, final Class<?> payloadType, final long version) {
+
+      this.type = type;
+      this.format = format;
+      this.payloadType = payloadType;
+      this.version = version;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof VersionKey)) {
+        return false;
+      }
+      final VersionKey that = (VersionKey) o;
+      return version == that.version
+          && payloadType == that.payloadType
+          && format == that.format
+          && type.equals(that.type);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return Objects.hash(type, format, payloadType, version);
+    }
+  }
+
+  /**
+   * Key of values encoded together, made of the keys of the values that have an identity or a version and the values
+   * itself otherwise
+   */
+  private static final class ArgumentsKey {
+
+    private final Type[] types;
+    private final WireFormat format;
+    private final Object[] elements;
+    private final int hash;
+
+    ArgumentsKey(final Type[] types, final WireFormat format, final Object[] elements) {
+
+      this.types = types;
+      this.format = format;
+      this.elements = elements;
+      this.hash = Objects.hash(Arrays.hashCode(types), format, Arrays.hashCode(elements));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ArgumentsKey)) {
+        return false;
+      }
+      final ArgumentsKey that = (ArgumentsKey) o;
+      return hash == that.hash
+          && format == that.format
+          && Arrays.equals(types, that.types)
+          && Arrays.equals(elements, that.elements);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return hash;
+    }
+  }
+
+  /**
+   * Refers to the payload weakly, so that the cache does not keep payloads alive that are no longer used by the
+   * application. Entries of collected payloads are never hit again and are eventually evicted.
+   */
+  private static final class IdentityKey {
+
+    private final Type type;
+    private final WireFormat format;
+    private final WeakReference<Object> payload;
+    private final int hash;
+
+    IdentityKey(final Type type, final WireFormat format, final Object payload) {
+
+      this.type = type;
+      this.format = format;
+      this.payload = new WeakReference<>(payload);
+      this.hash = Objects.hash(type, format, System.identityHashCode(payload));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof IdentityKey)) {
+        return false;
+      }
+      final IdentityKey that = (IdentityKey) o;
+      final Object referent = payload.get();
+      return hash == that.hash
+          && referent != null
+          && referent == that.payload.get()
+          && format == that.format
+          && type.equals(that.type);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package io.devcon5.vertx.codec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a contract interface for compile-time codec generation. When the <code>vertx-codec-processor</code> is on
+ * the annotation processor path, a {@link io.devcon5.vertx.codec.TypeCodec} is generated for every bean type used as
+ * argument or return type of the methods of the interface, including bean types nested in collections, maps or
+ * other beans.
+ * <br>
+ * Codecs are generated for public, final, non-generic classes without Jackson annotations that have a public default
+ * constructor and whose properties - pairs of public getters and setters - are of primitive or boxed types, Strings,
+ * enums, byte arrays, other beans or {@link java.util.List}, {@link java.util.Set}, {@link java.util.Collection} or
+ * {@link java.util.Map} thereof. Types that do not meet these requirements are reported by the processor and are
+ * encoded at runtime as before. Subclasses of a bean would lose their own properties and Jackson annotations would
+ * not be honoured by the generated code.
+ * <br>
+ * The generated codecs are registered in <code>META-INF/services</code>. When running on the module path, they have
+ * to be declared as <code>provides io.devcon5.vertx.codec.TypeCodec with ...</code> in the module descriptor.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface GenerateCodecs {
+
+}
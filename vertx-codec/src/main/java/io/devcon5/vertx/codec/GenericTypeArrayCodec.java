@@ -1,17 +1,11 @@
 package io.devcon5.vertx.codec;
 
-import static io.devcon5.vertx.codec.GenericTypes.decode;
 import static io.devcon5.vertx.codec.GenericTypes.unwrapFutureType;
 
 import java.lang.reflect.Type;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Objects;
 
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.MessageCodec;
-import io.vertx.core.json.Json;
-import io.vertx.core.json.JsonArray;
 
 /**
  * A codec for arrays of generic types. This includes raw types (such as .class) and generic types (i.e. List&lt;
@@ -19,37 +13,109 @@ import io.vertx.core.json.JsonArray;
  * arrays of a single type (i.e. Pojo[]), use the {@link io.devcon5.vertx.codec.GenericTypeCodec}.
  * <br>
  * The codec implements the flyweight pattern if instantiated using the {@link #forType(java.lang.reflect.Type[])}
- * method with an instance cache size that can be configured using the <code>codec.instanceCacheSize</code>
- * jvm parameter that defaults to 1024.
+ * method, which shares the instances process-wide using the {@link io.devcon5.vertx.codec.CodecRegistry}.
+ * <br>
+ * The representation of the payload is defined by a {@link io.devcon5.vertx.codec.WireFormat}, which is Json unless
+ * another format is specified or configured using the <code>codec.wireFormat</code> jvm parameter.
+ * <br>
+ * Codecs created using {@link #offloadingForType(java.lang.reflect.Type[])} decode payloads larger than the
+ * <code>codec.offloadThreshold</code> jvm parameter into an array with a single
+ * {@link io.devcon5.vertx.codec.LazyPayload}, that has to be decoded by the receiver. Other codecs always decode the
+ * payload.
+ * <br>
+ * Large payloads are compressed if a {@link io.devcon5.vertx.codec.Compression} is specified or configured using the
+ * <code>codec.compressionThreshold</code> jvm parameter. Compressed payloads are decoded by every codec.
+ * <br>
+ * Arguments that are all immutable, {@link io.devcon5.vertx.codec.Versioned} or values such as strings and numbers are
+ * encoded only once, if the encoding cache is enabled using the <code>codec.encodingCacheSize</code> jvm parameter.
+ * This avoids encoding the same arguments for every destination of a call.
  */
 public class GenericTypeArrayCodec implements MessageCodec<Object[], Object[]> {
 
-  //we can't use the type array as a key as it may be a different instance each time the signature
-  //of a method is read so we use a hash of the types instead. This implies, we cannot use a weak hashmap
-  //as the references to the type-array / the hash value maybe freed too eagerly making the cache ineffective.
-  //so we use a linkedHashMap instead as an LRU cache with 1024 entries (=instances).
-  private static final ThreadLocal<Map<Integer, GenericTypeArrayCodec>> INSTANCE_CACHE = ThreadLocal.withInitial(() -> new LinkedHashMap<>(
-      Integer.getInteger("codec.instanceCacheSize", 1024),
-      0.75f,
-      true));
   private final String name;
   private final Type[] types;
+  private final WireFormat format;
+  private final Compression compression;
+  private final EncodingCache cache;
+  private final CodecMetrics metrics;
+  private final int offloadThreshold;
 
   public GenericTypeArrayCodec(Type[] types) {
 
+    this(types, WireFormats.defaultFormat());
+  }
+
+  public GenericTypeArrayCodec(Type[] types, WireFormat format) {
+
+    this(types, format, Compression.defaultCompression());
+  }
+
+  public GenericTypeArrayCodec(Type[] types, WireFormat format, Compression compression) {
+
+    this(types, format, compression, EncodingCache.getInstance(), codecNameFor(types), 0);
+  }
+
+  GenericTypeArrayCodec(Type[] types, WireFormat format, EncodingCache cache) {
+
+    this(types, format, Compression.defaultCompression(), cache, codecNameFor(types), 0);
+  }
+
+  /**
+   * Creates an offloading codec, that is registered under its own name
+   *
+   * @param offloadThreshold
+   *     the size in bytes from which payloads are decoded into a {@link io.devcon5.vertx.codec.LazyPayload}
+   */
+  public GenericTypeArrayCodec(Type[] types, WireFormat format, int offloadThreshold) {
+
+    this(types,
+         format,
+         Compression.defaultCompression(),
+         EncodingCache.getInstance(),
+         LazyPayload.codecNameFor(codecNameFor(types)),
+         offloadThreshold);
+  }
+
+  private GenericTypeArrayCodec(Type[] types,
+                                WireFormat format,
+                                Compression compression,
+                                EncodingCache cache,
+                                String name,
+                                int offloadThreshold) {
+
     this.types = types;
-    this.name = codecNameFor(types);
+    this.name = name;
+    this.format = format;
+    this.compression = compression;
+    this.cache = cache;
+    this.metrics = CodecMetrics.forCodec(name);
+    this.offloadThreshold = offloadThreshold;
   }
 
   public static GenericTypeArrayCodec forType(Type[] type) {
 
-    return INSTANCE_CACHE.get().computeIfAbsent(Objects.hash((Object[])type), hash -> new GenericTypeArrayCodec(type));
+    return CodecRegistry.getInstance().codecFor(type);
+  }
+
+  /**
+   * Provides the shared offloading codec for the types, that decodes large payloads into an array with a single
+   * {@link io.devcon5.vertx.codec.LazyPayload}. Only receivers that resolve lazy payloads, such as actors, may use
+   * an offloading codec.
+   *
+   * @param types
+   *     the types to create a codec for
+   *
+   * @return an offloading codec for the specified types
+   */
+  public static GenericTypeArrayCodec offloadingForType(Type[] types) {
+
+    return CodecRegistry.getInstance().offloadingCodecFor(types);
   }
 
   /**
    * Generates a codec name for the signature of the method. The codec name consists
    * of the declaring class, the method name and the argument types. No return type or
-   * visibility modifier is used
+   * visibility modifier is used. Views on payloads are named by the type of the payload.
    *
    * @param types
    *     the array of types to generate a codec name for
@@ -63,7 +129,7 @@ public class GenericTypeArrayCodec implements MessageCodec<Object[], Object[]> {
     buf.append('[');
     for (int i = 0, len = types.length; i < len; i++) {
       final Type t = types[i];
-      buf.append(unwrapFutureType(t).getTypeName());
+      buf.append(PayloadView.unwrapViewType(unwrapFutureType(t)).getTypeName());
 
       if (i < len - 1) {
         buf.append(", ");
@@ -76,27 +142,82 @@ public class GenericTypeArrayCodec implements MessageCodec<Object[], Object[]> {
   @Override
   public void encodeToWire(final Buffer buffer, final Object[] objects) {
 
-    final JsonArray arr = new JsonArray();
-    for (Object o : objects) {
-      arr.add(Json.encode(o));
+    if (!CodecMetrics.isEnabled()) {
+      encode(buffer, objects);
+      return;
+    }
+    final long start = System.nanoTime();
+    final int pos = buffer.length();
+    encode(buffer, objects);
+    metrics.recordEncode(System.nanoTime() - start, buffer.length() - pos);
+  }
+
+  private void encode(final Buffer buffer, final Object[] objects) {
+
+    final Object[] values = objects == null ? new Object[0] : objects;
+    final Object key = cache.keyFor(types, format, values);
+    if (key != null) {
+      final Buffer encoded = cache.get(key);
+      if (encoded != null) {
+        buffer.appendBuffer(encoded);
+        return;
+      }
+    }
+    final int lengthPos = buffer.length();
+    if (compression.isEnabled()) {
+      //the payload has to be complete to decide whether it is compressed
+      final Buffer payload = Buffer.buffer();
+      format.encodeAll(payload, values, types);
+      compression.write(buffer, payload);
+    } else {
+      //reserve the length prefix and write the arguments directly into the target buffer
+      buffer.appendInt(0);
+      format.encodeAll(buffer, values, types);
+      buffer.setInt(lengthPos, buffer.length() - lengthPos - 4);
+    }
+    if (key != null) {
+      cache.put(key, buffer, lengthPos);
     }
-    Buffer encoded = arr.toBuffer();
-    buffer.appendInt(encoded.length());
-    buffer.appendBuffer(encoded);
   }
 
   @Override
-  public Object[] decodeFromWire(int pos, final Buffer buffer) {
+  public Object[] decodeFromWire(final int pos, final Buffer buffer) {
 
-    int length = buffer.getInt(pos);
-    pos += 4;
-    final JsonArray arr = new JsonArray(buffer.slice(pos, pos + length));
+    if (!CodecMetrics.isEnabled()) {
+      return decode(pos, buffer);
+    }
+    final long start = System.nanoTime();
+    final Object[] values = decode(pos, buffer);
+    metrics.recordDecode(System.nanoTime() - start, 4 + Compression.lengthOf(buffer.getInt(pos)));
+    return values;
+  }
+
+  private Object[] decode(int pos, final Buffer buffer) {
 
-    final Object[] result = new Object[arr.size()];
-    for (int i = 0, len = arr.size(); i < len; i++) {
-      result[i] = decode(arr.getValue(i), this.types[i]);
+    final int length = buffer.getInt(pos);
+    pos += 4;
+    if (Compression.isCompressed(length)) {
+      final int end = pos + Compression.lengthOf(length);
+      if (LazyPayload.isOffloaded(end - pos, offloadThreshold)) {
+        return new LazyPayload[] { new LazyPayload(buffer, pos, end, this::decompressPayload) };
+      }
+      return decompressPayload(buffer, pos, end);
+    }
+    if (LazyPayload.isOffloaded(length, offloadThreshold)) {
+      return new LazyPayload[] { new LazyPayload(buffer, pos, pos + length, this::decodePayload) };
     }
-    return result;
+    return decodePayload(buffer, pos, pos + length);
+  }
+
+  private Object[] decompressPayload(final Buffer buffer, final int start, final int end) {
+
+    final Buffer payload = Compression.decompress(buffer, start, end);
+    return decodePayload(payload, 0, payload.length());
+  }
+
+  private Object[] decodePayload(final Buffer buffer, final int start, final int end) {
+
+    return format.decodeAll(buffer, start, end, types);
   }
 
   @Override
@@ -105,7 +226,13 @@ public class GenericTypeArrayCodec implements MessageCodec<Object[], Object[]> {
     //while the receiver is reading it and as both could happen in different threads, this would not be threadsafe and
     //prone to side effects
 
-    return GenericTypeTransformation.copy(objects, this);
+    if (!CodecMetrics.isEnabled()) {
+      return GenericTypeTransformation.copy(objects, this);
+    }
+    final long start = System.nanoTime();
+    final Object[] copy = GenericTypeTransformation.copy(objects, this, metrics);
+    metrics.recordTransform(System.nanoTime() - start);
+    return copy;
   }
 
   @Override
@@ -1,41 +1,108 @@
 package io.devcon5.vertx.codec;
 
-import static io.devcon5.vertx.codec.GenericTypes.decode;
 import static io.devcon5.vertx.codec.GenericTypes.unwrapFutureType;
 
 import java.lang.reflect.Type;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.MessageCodec;
-import io.vertx.core.json.Json;
 
 /**
  * A codec for generic types. This includes raw types (such as .class) and generic types (i.e. List&lt;
  * * Pojo&gt;). This can be used to encode/decode single types such as in return types of a method or single fields.
  * <br>
  * The codec implements the flyweight pattern if instantiated using the {@link #forType(java.lang.reflect.Type)}
- * method with an instance cache size that can be configured using the <code>codec.instanceCacheSize</code>
- * jvm parameter that defaults to 1024.
+ * method, which shares the instances process-wide using the {@link io.devcon5.vertx.codec.CodecRegistry}.
+ * <br>
+ * The representation of the payload is defined by a {@link io.devcon5.vertx.codec.WireFormat}, which is Json unless
+ * another format is specified or configured using the <code>codec.wireFormat</code> jvm parameter. In the binary
+ * format, types with a generated {@link io.devcon5.vertx.codec.TypeCodec} are written by the generated codec.
+ * Other formats ignore generated codecs, so enabling the annotation processor does not change their representation.
+ * <br>
+ * Immutable and {@link io.devcon5.vertx.codec.Versioned} payloads are encoded only once, if the encoding cache is
+ * enabled using the <code>codec.encodingCacheSize</code> jvm parameter. This avoids encoding the same payload for
+ * every consumer it is published to.
+ * <br>
+ * Codecs created using {@link #offloadingForType(java.lang.reflect.Type)} decode payloads larger than the
+ * <code>codec.offloadThreshold</code> jvm parameter into a {@link io.devcon5.vertx.codec.LazyPayload}, that has to be
+ * decoded by the receiver. Other codecs always decode the payload.
+ * <br>
+ * A codec for a {@link io.devcon5.vertx.codec.PayloadView} has the same name as the codec for the viewed type, but
+ * decodes payloads into a view whose properties are decoded on first access.
+ * <br>
+ * Large payloads are compressed if a {@link io.devcon5.vertx.codec.Compression} is specified or configured using the
+ * <code>codec.compressionThreshold</code> jvm parameter. Compressed payloads are decoded by every codec.
  */
 public class GenericTypeCodec implements MessageCodec<Object, Object> {
 
-  //we use a linkedHashMap as LRU cache instead of a weak hashmap to have better control over instance creation
-  //and number of instances kept in cache. The cache is thread local so that each thread (i.e. eventloop threads)
-  //have their own cache. That way we don't have to synchronize the cache itself, making it a potential bottleneck
-  //with the tradeoff that we have to create more instances of the (rather small) codec per jvm
-  private static final ThreadLocal<Map<Type, GenericTypeCodec>> INSTANCE_CACHE = ThreadLocal.withInitial(() -> new LinkedHashMap<>(
-      Integer.getInteger("codec.instanceCacheSize", 1024),
-      0.75f,
-      true));
   private final Type type;
   private final String name;
+  private final WireFormat format;
+  private final BinaryHandlers.Handler binary;
+  private final EncodingCache cache;
+  private final boolean view;
+  private final Compression compression;
+  private final CodecMetrics metrics;
+  private final int offloadThreshold;
 
   public GenericTypeCodec(final Type type) {
 
-    this.type = type;
-    this.name = codecNameFor(type);
+    this(type, WireFormats.defaultFormat());
+  }
+
+  public GenericTypeCodec(final Type type, final WireFormat format) {
+
+    this(type, format, Compression.defaultCompression());
+  }
+
+  public GenericTypeCodec(final Type type, final WireFormat format, final Compression compression) {
+
+    this(type, format, compression, EncodingCache.getInstance());
+  }
+
+  GenericTypeCodec(final Type type, final WireFormat format, final EncodingCache cache) {
+
+    this(type, format, Compression.defaultCompression(), cache);
+  }
+
+  GenericTypeCodec(final Type type, final WireFormat format, final Compression compression, final EncodingCache cache) {
+
+    this(type, format, compression, cache, codecNameFor(type), 0);
+  }
+
+  /**
+   * Creates an offloading codec, that is registered under its own name
+   *
+   * @param offloadThreshold
+   *     the size in bytes from which payloads are decoded into a {@link io.devcon5.vertx.codec.LazyPayload}
+   */
+  public GenericTypeCodec(final Type type, final WireFormat format, final int offloadThreshold) {
+
+    this(type,
+         format,
+         Compression.defaultCompression(),
+         EncodingCache.getInstance(),
+         LazyPayload.codecNameFor(codecNameFor(type)),
+         offloadThreshold);
+  }
+
+  private GenericTypeCodec(final Type type,
+                           final WireFormat format,
+                           final Compression compression,
+                           final EncodingCache cache,
+                           final String name,
+                           final int offloadThreshold) {
+
+    this.view = PayloadView.isView(unwrapFutureType(type));
+    this.type = PayloadView.unwrapViewType(unwrapFutureType(type));
+    this.name = name;
+    this.format = format;
+    //generated codecs write the binary format only, other formats are left unchanged
+    this.binary = format == WireFormats.binary() ? BinaryHandlers.direct(this.type) : null;
+    this.cache = cache;
+    this.compression = compression;
+    this.metrics = CodecMetrics.forCodec(name != null ? name : this.type.getTypeName());
+    this.offloadThreshold = offloadThreshold;
   }
 
   /**
@@ -49,11 +116,26 @@ public class GenericTypeCodec implements MessageCodec<Object, Object> {
    */
   public static GenericTypeCodec forType(Type type) {
 
-    return INSTANCE_CACHE.get().computeIfAbsent(type, GenericTypeCodec::new);
+    return CodecRegistry.getInstance().codecFor(type);
+  }
+
+  /**
+   * Provides the shared offloading codec for the type, that decodes large payloads into a
+   * {@link io.devcon5.vertx.codec.LazyPayload}. Only receivers that resolve lazy payloads, such as actors, may use
+   * an offloading codec.
+   *
+   * @param type
+   *     the type to create a codec for
+   *
+   * @return an offloading codec for the specified type
+   */
+  public static GenericTypeCodec offloadingForType(Type type) {
+
+    return CodecRegistry.getInstance().offloadingCodecFor(type);
   }
 
   public static String codecNameFor(final Type type) {
-    final Type effectiveType = unwrapFutureType(type);
+    final Type effectiveType = PayloadView.unwrapViewType(unwrapFutureType(type));
 
     if (GenericTypes.isSimpleType(effectiveType)) {
       return null;
@@ -63,19 +145,117 @@ public class GenericTypeCodec implements MessageCodec<Object, Object> {
 
 
   @Override
-  public void encodeToWire(final Buffer buffer, final Object o) {
+  public void encodeToWire(final Buffer buffer, final Object value) {
+
+    if (!CodecMetrics.isEnabled()) {
+      encode(buffer, value);
+      return;
+    }
+    final long start = System.nanoTime();
+    final int pos = buffer.length();
+    encode(buffer, value);
+    metrics.recordEncode(System.nanoTime() - start, buffer.length() - pos);
+  }
 
-    Buffer objBuffer = Json.encodeToBuffer(o);
-    buffer.appendInt(objBuffer.length());
-    buffer.appendBuffer(objBuffer);
+  private void encode(final Buffer buffer, final Object value) {
+
+    final Object key = cache.keyFor(type, format, value);
+    if (key != null) {
+      final Buffer encoded = cache.get(key);
+      if (encoded != null) {
+        buffer.appendBuffer(encoded);
+        return;
+      }
+    }
+    final int lengthPos = buffer.length();
+    if (compression.isEnabled()) {
+      //the payload has to be complete to decide whether it is compressed
+      final Buffer payload = Buffer.buffer();
+      writePayload(payload, value);
+      compression.write(buffer, payload);
+    } else {
+      //reserve the length prefix and write the payload directly into the target buffer
+      buffer.appendInt(0);
+      writePayload(buffer, value);
+      buffer.setInt(lengthPos, buffer.length() - lengthPos - 4);
+    }
+    if (key != null) {
+      cache.put(key, buffer, lengthPos);
+    }
+  }
+
+  private void writePayload(final Buffer buffer, final Object value) {
+
+    Object o = value;
+    if (value instanceof PayloadView) {
+      final Buffer encoded = binary == null ? ((PayloadView<?>) value).encoded(format) : null;
+      if (encoded != null) {
+        //forwarded payloads are written as they were received
+        buffer.appendBuffer(encoded);
+        return;
+      }
+      o = ((PayloadView<?>) value).get();
+    }
+    if (binary != null) {
+      binary.write(new BinaryWriter(buffer), o);
+    } else {
+      format.encode(buffer, o, type);
+    }
   }
 
   @Override
-  public Object decodeFromWire(int pos, final Buffer buffer) {
+  public Object decodeFromWire(final int pos, final Buffer buffer) {
+
+    if (!CodecMetrics.isEnabled()) {
+      return decode(pos, buffer);
+    }
+    final long start = System.nanoTime();
+    final Object value = decode(pos, buffer);
+    metrics.recordDecode(System.nanoTime() - start, 4 + Compression.lengthOf(buffer.getInt(pos)));
+    return value;
+  }
 
-    int length = buffer.getInt(pos);
+  private Object decode(int pos, final Buffer buffer) {
+
+    final int length = buffer.getInt(pos);
     pos += 4;
-    return decode(buffer.slice(pos, pos + length), unwrapFutureType(type));
+    if (Compression.isCompressed(length)) {
+      final int end = pos + Compression.lengthOf(length);
+      if (!view && LazyPayload.isOffloaded(end - pos, offloadThreshold)) {
+        return new LazyPayload(buffer, pos, end, this::decompressPayload);
+      }
+      return decompressPayload(buffer, pos, end);
+    }
+    if (view) {
+      return viewOf(buffer, pos, pos + length);
+    }
+    if (LazyPayload.isOffloaded(length, offloadThreshold)) {
+      return new LazyPayload(buffer, pos, pos + length, this::decodePayload);
+    }
+    return decodePayload(buffer, pos, pos + length);
+  }
+
+  private Object decompressPayload(final Buffer buffer, final int start, final int end) {
+
+    final Buffer payload = Compression.decompress(buffer, start, end);
+    if (view) {
+      return viewOf(payload, 0, payload.length());
+    }
+    return decodePayload(payload, 0, payload.length());
+  }
+
+  private PayloadView<?> viewOf(final Buffer buffer, final int start, final int end) {
+
+    //payloads written by a direct handler can not be indexed or forwarded in another format
+    return new PayloadView<>(buffer, start, end, type, binary == null ? format : null, this::decodePayload);
+  }
+
+  private Object decodePayload(final Buffer buffer, final int start, final int end) {
+
+    if (binary != null) {
+      return binary.read(new BinaryReader(buffer, start, end));
+    }
+    return format.decode(buffer, start, end, type);
   }
 
   @Override
@@ -84,7 +264,13 @@ public class GenericTypeCodec implements MessageCodec<Object, Object> {
     //we can not pass the object here directly as this would allow to modify the object on the caller side
     //while the receiver is reading it and as both could happen in different threads, this would not be threadsafe and
     //prone to side effects
-    return GenericTypeTransformation.copy(o, this);
+    if (!CodecMetrics.isEnabled()) {
+      return GenericTypeTransformation.copy(o, this);
+    }
+    final long start = System.nanoTime();
+    final Object copy = GenericTypeTransformation.copy(o, this, metrics);
+    metrics.recordTransform(System.nanoTime() - start);
+    return copy;
   }
 
   @Override
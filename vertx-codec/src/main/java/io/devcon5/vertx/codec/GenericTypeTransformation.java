@@ -8,34 +8,185 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.MessageCodec;
 import io.vertx.core.logging.Logger;
-import io.vertx.core.shareddata.Shareable;
 
 /**
  * Helper class to define an efficient way for creating copies of objects when being passed between actors inside the
  * same JVM.
+ * <br>
+ * The strategies to copy a value are tried in the order of their declaration in {@link Strategy}. The first strategy
+ * that succeeds for a class is recorded and tried first for all further values of that class, so the strategies that
+ * failed before, i.e. raising exceptions, are not tried again. If the recorded strategy fails for a value, the other
+ * strategies are tried and the one succeeding is recorded instead. The recorded strategies and the number of copies
+ * are provided by {@link #getCopyStats()}, the strategies used per codec by the {@link
+ * io.devcon5.vertx.codec.CodecMetrics}.
+ * <br>
+ * The strategies are kept per class in a {@link java.lang.ClassValue} and the statistics are registered by weak keys,
+ * so that recording them does not prevent classes and their class loaders from being unloaded.
  */
 public final class GenericTypeTransformation {
 
   private static final Logger LOG = getLogger(GenericTypeTransformation.class);
 
+  private static final Strategy[] STRATEGIES = Strategy.values();
+  private static final ClassValue<CopyStats> STATS = new ClassValue<CopyStats>() {
+
+    @Override
+    protected CopyStats computeValue(final Class<?> type) {
+
+      return new CopyStats();
+    }
+  };
+  //the classes with a recorded strategy, for reporting only
+  private static final Map<Class<?>, CopyStats> RECORDED = Collections.synchronizedMap(new WeakHashMap<>());
+
   private GenericTypeTransformation() {
 
   }
 
+  /**
+   * The strategies to create a copy of a value.
+   */
+  public enum Strategy {
+    /**
+     * Immutable values are passed as they are
+     */
+    IMMUTABLE {
+      @Override
+      Object copy(final Object object, final MessageCodec<Object, Object> codec) {
+
+        //immutable values can not be modified by either side, so there is no need to copy them
+        return Immutables.isImmutable(object) ? object : null;
+      }
+    },
+    /**
+     * Values are copied by a specialized copy function of their class
+     */
+    DEEP_COPY {
+      @Override
+      Object copy(final Object object, final MessageCodec<Object, Object> codec) {
+
+        try {
+          return Copiers.copy(object);
+        } catch (Copiers.NotCopyableException e) {
+          LOG.trace("Creating a deep copy failed: " + e.getMessage());
+          return null;
+        }
+      }
+    },
+    /**
+     * {@link java.io.Serializable} values are copied by serializing and deserializing them
+     */
+    SERIALIZATION {
+      @Override
+      Object copy(final Object object, final MessageCodec<Object, Object> codec) {
+
+        return trySerializationCopy(object);
+      }
+    },
+    /**
+     * Values are encoded and decoded by the codec of the message
+     */
+    CODEC {
+      @Override
+      Object copy(final Object object, final MessageCodec<Object, Object> codec) {
+
+        return codec == null ? null : tryCodecCopy(object, codec);
+      }
+    };
+
+    /**
+     * @return the copy of the object or null, if the strategy does not support the object
+     */
+    abstract Object copy(Object object, MessageCodec<Object, Object> codec);
+  }
+
+  /**
+   * Statistics of the copies of a single class
+   */
+  public static final class CopyStats {
+
+    private volatile Strategy strategy;
+    private final LongAdder copies = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    private CopyStats() {
+
+    }
+
+    /**
+     * @return the strategy recorded for the class
+     */
+    public Strategy getStrategy() {
+
+      return strategy;
+    }
+
+    /**
+     * @return the number of values copied
+     */
+    public long getCopies() {
+
+      return copies.sum();
+    }
+
+    /**
+     * @return the number of times the recorded strategy failed for a value and the other strategies had to be tried
+     */
+    public long getFallbacks() {
+
+      return fallbacks.sum();
+    }
+
+    @Override
+    public String toString() {
+
+      return strategy + " (copies=" + getCopies() + ", fallbacks=" + getFallbacks() + ")";
+    }
+  }
+
+  /**
+   * @return a snapshot of the statistics of the copies per class of the copied values. Elements of copied arrays are
+   * recorded by their own class.
+   */
+  public static Map<Class<?>, CopyStats> getCopyStats() {
+
+    synchronized (RECORDED) {
+      return Collections.unmodifiableMap(new HashMap<>(RECORDED));
+    }
+  }
+
   public static Object[] copy(Object[] object, MessageCodec<Object[], Object[]> codec) {
 
+    return copy(object, codec, null);
+  }
+
+  /**
+   * Creates a copy of the array, counting the strategies used in the metrics, if specified
+   */
+  static Object[] copy(Object[] object, MessageCodec<Object[], Object[]> codec, CodecMetrics metrics) {
+
     //we can not pass the object here directly as this would allow to modify the object on the caller side
     //while the receiver is reading it and as both could happen in different threads, this would not be threadsafe and
     //prone to side effects
     Object[] copy;
 
     //TODO check if it's faster to immediately use codec copy
-    if ((copy = tryArrayCopy(object))!= null ||
-        (copy = tryCodecCopy(object, codec)) != null) {
+    if ((copy = tryArrayCopy(object, metrics)) != null) {
+      return copy;
+    }
+    if ((copy = tryCodecCopy(object, codec)) != null) {
+      if (metrics != null) {
+        metrics.recordStrategy(Strategy.CODEC);
+      }
       return copy;
     }
 
@@ -44,15 +195,18 @@ public final class GenericTypeTransformation {
                                                 + " not supported");
   }
 
-  private static Object[] tryArrayCopy(final Object[] object) {
+  private static Object[] tryArrayCopy(final Object[] object, final CodecMetrics metrics) {
 
     final Object[] result = new Object[object.length];
     Object copy;
 
     for(int i = 0, len = object.length; i < len; i++){
 
-      if ((copy = tryPrimitiveOrShareable(object[i])) != null ||
-          (copy = trySerializationCopy(object[i])) != null) {
+      if (object[i] == null) {
+        continue;
+      }
+      //the elements have no codec of their own, the entire array is copied by the codec instead
+      if ((copy = copyWithStrategy(object[i], null, metrics)) != null) {
         result[i] = copy;
       } else {
         return null;
@@ -63,14 +217,23 @@ public final class GenericTypeTransformation {
 
   public static Object copy(Object object, MessageCodec<Object, Object> codec) {
 
+    return copy(object, codec, null);
+  }
+
+  /**
+   * Creates a copy of the object, counting the strategy used in the metrics, if specified
+   */
+  static Object copy(Object object, MessageCodec<Object, Object> codec, CodecMetrics metrics) {
+
     //we can not pass the object here directly as this would allow to modify the object on the caller side
     //while the receiver is reading it and as both could happen in different threads, this would not be threadsafe and
     //prone to side effects
     Object copy;
 
-    if ((copy = tryPrimitiveOrShareable(object)) != null ||
-        (copy = trySerializationCopy(object)) != null ||
-        (copy = tryCodecCopy(object, codec)) != null) {
+    if (object == null) {
+      return null;
+    }
+    if ((copy = copyWithStrategy(object, codec, metrics)) != null) {
       return copy;
     }
 
@@ -79,27 +242,56 @@ public final class GenericTypeTransformation {
                                                 + " not supported");
   }
 
-  private static <T> T tryCodecCopy(final T object, final MessageCodec<T, T> codec) {
+  private static Object copyWithStrategy(final Object object,
+                                         final MessageCodec<Object, Object> codec,
+                                         final CodecMetrics metrics) {
 
-    final Buffer buf = Buffer.buffer();
-    codec.encodeToWire(buf, object);
-    return codec.decodeFromWire(0, buf);
+    final Class<?> type = object.getClass();
+    final CopyStats stats = STATS.get(type);
+    final Strategy recorded = stats.strategy;
+    Object copy;
+    if (recorded != null) {
+      if ((copy = recorded.copy(object, codec)) != null) {
+        stats.copies.increment();
+        record(metrics, recorded);
+        return copy;
+      }
+      stats.fallbacks.increment();
+    }
+    for (Strategy strategy : STRATEGIES) {
+      if (strategy != recorded && (copy = strategy.copy(object, codec)) != null) {
+        record(type, stats, strategy);
+        record(metrics, strategy);
+        return copy;
+      }
+    }
+    return null;
   }
 
-  private static <T> T tryPrimitiveOrShareable(final T object) {
+  private static void record(final CodecMetrics metrics, final Strategy strategy) {
 
-    Class type = object.getClass();
-    if(GenericTypes.isPrimitive(type)) {
-      return object;
+    if (metrics != null) {
+      metrics.recordStrategy(strategy);
     }
-    if (Shareable.class.isAssignableFrom(type)) {
-      return (T) ((Shareable) object).copy();
+  }
+
+  private static void record(final Class<?> type, final CopyStats stats, final Strategy strategy) {
+
+    if (stats.strategy == null) {
+      RECORDED.put(type, stats);
     }
-    return null;
+    stats.strategy = strategy;
+    stats.copies.increment();
   }
 
-  private static <T> T trySerializationCopy(final T object) {
+  private static <T> T tryCodecCopy(final T object, final MessageCodec<T, T> codec) {
+
+    final Buffer buf = Buffer.buffer();
+    codec.encodeToWire(buf, object);
+    return codec.decodeFromWire(0, buf);
+  }
 
+  private static <T> T trySerializationCopy(final T object) {
     if (object instanceof Serializable) {
       try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
            ObjectOutputStream dos = new ObjectOutputStream(baos)) {
@@ -3,9 +3,8 @@ package io.devcon5.vertx.codec;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -14,12 +13,12 @@ import java.util.Set;
 
 import io.vertx.core.Future;
 import io.vertx.core.buffer.Buffer;
-import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 /**
- *
+ * Helper methods for (generic) types. Large Json arrays and objects are decoded in parallel outside the event loop,
+ * if enabled using the <code>codec.parallelDecodeThreshold</code> jvm parameter.
  */
 public final class GenericTypes {
 
@@ -38,39 +37,16 @@ public final class GenericTypes {
 
   private static Object decodeComplexType(final Object value, Type type) {
 
-    final Class rawType = getRawType(type);
-
-    final String valueAsString;
+    final JsonBinding binding = JsonBinding.forType(type);
     if (value instanceof Buffer) {
-      valueAsString = ((Buffer) value).toString(Charset.forName("UTF-8"));
+      final Buffer buffer = (Buffer) value;
+      return binding.read(buffer, 0, buffer.length());
     } else if (value instanceof String) {
-      valueAsString = (String) value;
-    } else {
-      throw new UnsupportedOperationException("Cannot decode from "
-                                                  + value.getClass()
-                                                  + ", only Buffer and String are supported");
-    }
-    if (!Collection.class.isAssignableFrom(rawType) && !Map.class.isAssignableFrom(rawType)) {
-      return Json.decodeValue(valueAsString, rawType);
-    }
-
-    if (type instanceof ParameterizedType) {
-      final Type[] itemTypes = ((ParameterizedType) type).getActualTypeArguments();
-
-      if (Map.class.isAssignableFrom(rawType)) {
-        final JsonObject rawMap = new JsonObject(valueAsString);
-        return decodeMap(rawMap, (Class) itemTypes[0], (Class) itemTypes[1]);
-      }
-
-      final JsonArray arr = new JsonArray(valueAsString);
-      if (List.class.isAssignableFrom(rawType)) {
-        return decodeList(arr, (Class) itemTypes[0]);
-      }
-      if (Set.class.isAssignableFrom(rawType)) {
-        return decodeSet(arr, (Class) itemTypes[0]);
-      }
+      return binding.read((String) value);
     }
-    return null;
+    throw new UnsupportedOperationException("Cannot decode from "
+                                                + value.getClass()
+                                                + ", only Buffer and String are supported");
   }
 
   public static Object decodeValue(final Object o, final Type itemType) {
@@ -78,14 +54,20 @@ public final class GenericTypes {
     Object decodedValue;
     if (isSimpleType(itemType)) {
       decodedValue = o;
+    } else if (o instanceof String && itemType instanceof Class && ValueTypes.isTextValueType((Class) itemType)) {
+      //UUIDs and java.time values are parsed directly from their text
+      decodedValue = ValueTypes.parse((Class) itemType, (String) o);
     } else {
-      decodedValue = Json.mapper.convertValue(o, (Class)getRawType(itemType));
+      decodedValue = JsonBinding.forType(itemType).convert(o);
     }
     return decodedValue;
   }
 
   public static List decodeList(final JsonArray arr, final Class itemType) {
 
+    if (ParallelDecoding.isParallel(arr.size())) {
+      return new ArrayList(Arrays.asList(decodeParallel(arr, itemType)));
+    }
     final List list = new ArrayList();
     for (Object o : arr) {
       list.add(decodeValue(o, itemType));
@@ -95,6 +77,9 @@ public final class GenericTypes {
 
   public static Set decodeSet(final JsonArray arr, final Class itemType) {
 
+    if (ParallelDecoding.isParallel(arr.size())) {
+      return new HashSet(Arrays.asList(decodeParallel(arr, itemType)));
+    }
     final Set set = new HashSet();
     for (Object o : arr) {
       set.add(decodeValue(o, itemType));
@@ -104,6 +89,16 @@ public final class GenericTypes {
 
   public static Map decodeMap(final JsonObject obj, final Class keyType, Class valueType) {
 
+    if (ParallelDecoding.isParallel(obj.size())) {
+      final List<String> keys = new ArrayList<>(obj.fieldNames());
+      final Object[] values = ParallelDecoding.decode(keys.size(),
+                                                      i -> decodeValue(obj.getValue(keys.get(i)), valueType));
+      final Map map = new HashMap();
+      for (int i = 0; i < values.length; i++) {
+        map.put(decodeValue(keys.get(i), keyType), values[i]);
+      }
+      return map;
+    }
     final Map map = new HashMap();
     for (Map.Entry e : obj) {
       map.put(decodeValue(e.getKey(), keyType), decodeValue(e.getValue(), valueType));
@@ -111,6 +106,11 @@ public final class GenericTypes {
     return map;
   }
 
+  private static Object[] decodeParallel(final JsonArray arr, final Class itemType) {
+
+    return ParallelDecoding.decode(arr.size(), i -> decodeValue(arr.getValue(i), itemType));
+  }
+
   public static Class getRawType(final Type type) {
 
     Class rawType;
@@ -178,6 +178,27 @@ public final class GenericTypes {
         || type == JsonArray.class);
   }
 
+  /**
+   * Checks if the specified type is a value type with a dedicated encoding. Value types are:
+   * <ul>
+   * <li>enums</li>
+   * <li>{@link java.util.UUID}</li>
+   * <li>{@link java.time.Instant}, {@link java.time.Duration}, {@link java.time.LocalDate}, {@link
+   * java.time.LocalTime}, {@link java.time.LocalDateTime}, {@link java.time.OffsetDateTime} and {@link
+   * java.time.ZonedDateTime}</li>
+   * <li>records, if supported by the runtime</li>
+   * </ul>
+   *
+   * @param type
+   *     the type to check
+   *
+   * @return true if values of the type are encoded without the general purpose bean binding
+   */
+  public static boolean isValueType(final Type type) {
+
+    return ValueTypes.isValueType(type);
+  }
+
   public static boolean isPrimitive(final Type type) {
 
     return type instanceof Class && (
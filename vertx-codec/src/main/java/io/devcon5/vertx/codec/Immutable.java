@@ -0,0 +1,22 @@
+package io.devcon5.vertx.codec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a type as deeply immutable. Values of such a type are passed by reference between verticles inside the same
+ * JVM instead of being copied. The annotation is not verified, so it must only be used for types whose state - and the
+ * state of all values referenced by it - can not be modified after construction.
+ * <br>
+ * Records and classes with only final fields of immutable values are detected automatically and don't have to be
+ * annotated.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Immutable {
+
+}
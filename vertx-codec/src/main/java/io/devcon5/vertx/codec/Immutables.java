@@ -0,0 +1,185 @@
+package io.devcon5.vertx.codec;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detection of deeply immutable values that can be passed by reference between verticles inside the same JVM. The
+ * analysis is done once per class and cached for the lifetime of the class. A value is immutable if it is
+ * <ul>
+ * <li>a primitive, a String, an enum or another immutable value type of the JDK</li>
+ * <li>of a type annotated with {@link io.devcon5.vertx.codec.Immutable}</li>
+ * <li>a record or an instance of a class with only final fields, where all field values are immutable</li>
+ * <li>an immutable collection, such as created by {@link java.util.List#of()}, containing only immutable values</li>
+ * </ul>
+ * Unmodifiable views of collections are not immutable, as the underlying collection may still be modified.
+ */
+final class Immutables {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final Check ALWAYS = (value, depth) -> true;
+  private static final Check NEVER = (value, depth) -> false;
+
+  private static final ClassValue<Check> CHECKS = new ClassValue<Check>() {
+
+    @Override
+    protected Check computeValue(final Class<?> type) {
+
+      return createCheck(type);
+    }
+  };
+
+  private Immutables() {
+
+  }
+
+  /**
+   * Checks if the value is deeply immutable.
+   *
+   * @param value
+   *     the value to check, may be null
+   *
+   * @return true if neither the value, nor any value referenced by it, can be modified
+   */
+  static boolean isImmutable(Object value) {
+
+    return isImmutable(value, 0);
+  }
+
+  static boolean isImmutable(Object value, int depth) {
+
+    if (value == null) {
+      return true;
+    }
+    if (depth > Copiers.MAX_DEPTH) {
+      return false;
+    }
+    return CHECKS.get(value.getClass()).test(value, depth);
+  }
+
+  /**
+   * Checks if all values of the specified type are immutable, regardless of their content.
+   *
+   * @param type
+   *     the runtime type of the values
+   *
+   * @return true if all values are immutable, false if they are not or if it depends on the values they reference
+   */
+  static boolean isImmutableType(Class<?> type) {
+
+    return CHECKS.get(type) == ALWAYS;
+  }
+
+  private static Check createCheck(final Class<?> type) {
+
+    if (Copiers.isImmutableValue(type) || type.isAnnotationPresent(Immutable.class)) {
+      return ALWAYS;
+    }
+    if (type.isArray() || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+      return NEVER;
+    }
+    if (Copiers.isImmutableCollection(type)) {
+      if (Map.class.isAssignableFrom(type)) {
+        return (value, depth) -> {
+          for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            if (!isImmutable(entry.getKey(), depth + 1) || !isImmutable(entry.getValue(), depth + 1)) {
+              return false;
+            }
+          }
+          return true;
+        };
+      }
+      return (value, depth) -> {
+        for (Object item : (Collection<?>) value) {
+          if (!isImmutable(item, depth + 1)) {
+            return false;
+          }
+        }
+        return true;
+      };
+    }
+    if (Copiers.isJdkType(type)) {
+      return NEVER;
+    }
+    return fieldsCheck(type);
+  }
+
+  private static Check fieldsCheck(final Class<?> type) {
+
+    //records have only final fields, so they are covered by the same analysis as other all-final classes
+    final List<MethodHandle> getters = new ArrayList<>();
+    try {
+      for (Class<?> c = type; c != Object.class && !isRecordClass(c); c = c.getSuperclass()) {
+        if (Copiers.isJdkType(c)) {
+          return NEVER;
+        }
+        for (Field field : c.getDeclaredFields()) {
+          final int modifiers = field.getModifiers();
+          if (Modifier.isStatic(modifiers)) {
+            continue;
+          }
+          if (!Modifier.isFinal(modifiers)) {
+            return NEVER;
+          }
+          final Class<?> fieldType = field.getType();
+          if (fieldType.isPrimitive()
+              || (Modifier.isFinal(fieldType.getModifiers()) && Copiers.isImmutableValue(fieldType))) {
+            continue;
+          }
+          if (fieldType.isArray()) {
+            return NEVER;
+          }
+          //the declared type of the field may be an interface or non-final so the actual value has to be checked
+          field.setAccessible(true);
+          getters.add(LOOKUP.unreflectGetter(field).asType(methodType(Object.class, Object.class)));
+        }
+      }
+    } catch (IllegalAccessException | RuntimeException e) {
+      //i.e. inaccessible modules
+      return NEVER;
+    }
+    if (getters.isEmpty()) {
+      return ALWAYS;
+    }
+
+    final MethodHandle[] getterArray = getters.toArray(new MethodHandle[0]);
+    return (value, depth) -> {
+      try {
+        for (MethodHandle getter : getterArray) {
+          if (!isImmutable((Object) getter.invokeExact(value), depth + 1)) {
+            return false;
+          }
+        }
+        return true;
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable e) {
+        return false;
+      }
+    };
+  }
+
+  private static boolean isRecordClass(final Class<?> type) {
+
+    //java.lang.Record itself has no state
+    return "java.lang.Record".equals(type.getName());
+  }
+
+  /**
+   * Check whether a value of a specific class is immutable
+   */
+  @FunctionalInterface
+  interface Check {
+
+    boolean test(Object value, int depth);
+  }
+}
@@ -0,0 +1,184 @@
+package io.devcon5.vertx.codec;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Prebuilt Json reader and writer for a single (generic) type. The bindings are resolved once per type from the full
+ * generic type, including nested type arguments such as <code>List&lt;Map&lt;String, Pojo&gt;&gt;</code>, and bind
+ * values directly from and to raw bytes in a single pass without an intermediate tree of {@link
+ * io.vertx.core.json.JsonObject}s or {@link io.vertx.core.json.JsonArray}s.
+ * <br>
+ * The bindings are created using the {@link io.vertx.core.json.Json#mapper}. If the mapper is replaced, the bindings
+ * are rebuilt on their next use.
+ */
+final class JsonBinding {
+
+  private static final Map<Type, JsonBinding> BINDINGS = new ConcurrentHashMap<>();
+
+  private final ObjectMapper mapper;
+  private final JavaType type;
+  private final ObjectReader reader;
+  private final ObjectWriter writer;
+  private final Function<Object, Object> fromJsonValue;
+  private final Function<Object, Object> toJsonValue;
+
+  private JsonBinding(final ObjectMapper mapper, final Type type) {
+
+    this.mapper = mapper;
+    this.type = mapper.getTypeFactory().constructType(type);
+
+    final Class<?> rawType = this.type.getRawClass();
+    final JavaType jsonType;
+    //the vert.x types can not be bound by jackson itself so we bind their underlying structure instead
+    if (rawType == JsonObject.class) {
+      jsonType = mapper.getTypeFactory().constructType(Map.class);
+      fromJsonValue = map -> new JsonObject((Map<String, Object>) map);
+      toJsonValue = json -> ((JsonObject) json).getMap();
+    } else if (rawType == JsonArray.class) {
+      jsonType = mapper.getTypeFactory().constructType(List.class);
+      fromJsonValue = list -> new JsonArray((List) list);
+      toJsonValue = json -> ((JsonArray) json).getList();
+    } else if (rawType == Buffer.class) {
+      jsonType = mapper.getTypeFactory().constructType(byte[].class);
+      fromJsonValue = bytes -> Buffer.buffer((byte[]) bytes);
+      toJsonValue = buffer -> ((Buffer) buffer).getBytes();
+    } else if (ValueTypes.isTextValueType(rawType)) {
+      //value types are bound by their text representation instead of their bean structure
+      jsonType = mapper.getTypeFactory().constructType(String.class);
+      fromJsonValue = text -> ValueTypes.parse(rawType, (String) text);
+      toJsonValue = Object::toString;
+    } else if (ValueTypes.isRecord(rawType)) {
+      final ValueTypes.RecordType recordType = ValueTypes.recordType(rawType);
+      jsonType = mapper.getTypeFactory().constructType(Map.class);
+      //the components are bound individually, as they may be value types or records themselves
+      fromJsonValue = map -> recordType.fromMap((Map<?, ?>) map, JsonBinding::convert);
+      toJsonValue = record -> recordType.toMap(record, JsonBinding::toJsonValue);
+    } else {
+      jsonType = this.type;
+      fromJsonValue = Function.identity();
+      toJsonValue = Function.identity();
+    }
+    this.reader = mapper.readerFor(jsonType);
+    //for non-final types the runtime type of the value has to be used, otherwise properties of subtypes would be lost
+    this.writer = jsonType.isFinal() || jsonType.isContainerType() ? mapper.writerFor(jsonType) : mapper.writer();
+  }
+
+  /**
+   * Provides the binding for the specified type
+   *
+   * @param type
+   *     the type to get the binding for. Futures are unwrapped to their value type.
+   *
+   * @return the (cached) binding for the type
+   */
+  static JsonBinding forType(Type type) {
+
+    JsonBinding binding = BINDINGS.get(type);
+    if (binding == null || binding.mapper != Json.mapper) {
+      binding = new JsonBinding(Json.mapper, GenericTypes.unwrapFutureType(type));
+      BINDINGS.put(type, binding);
+    }
+    return binding;
+  }
+
+  JavaType type() {
+
+    return type;
+  }
+
+  Object read(Buffer buffer, int start, int end) {
+
+    try {
+      return fromJsonValue(reader.readValue(new BufferInputStream(buffer, start, end)));
+    } catch (IOException e) {
+      throw new DecodeException("Failed to decode: " + e.getMessage());
+    }
+  }
+
+  Object read(String json) {
+
+    try {
+      return fromJsonValue(reader.readValue(json));
+    } catch (IOException e) {
+      throw new DecodeException("Failed to decode: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads the value starting at the current token of the parser.
+   */
+  Object read(JsonParser parser) throws IOException {
+
+    return fromJsonValue(reader.readValue(parser));
+  }
+
+  /**
+   * Converts an already parsed value, such as a {@link io.vertx.core.json.JsonObject}, to the bound type.
+   */
+  Object convert(Object value) {
+
+    final Class<?> rawType = type.getRawClass();
+    if (value instanceof String && ValueTypes.isTextValueType(rawType)) {
+      return ValueTypes.parse(rawType, (String) value);
+    }
+    if (value instanceof JsonObject && ValueTypes.isRecord(rawType)) {
+      return fromJsonValue(((JsonObject) value).getMap());
+    }
+    if (value instanceof Map && ValueTypes.isRecord(rawType)) {
+      return fromJsonValue(value);
+    }
+    return mapper.convertValue(value, type);
+  }
+
+  private static Object convert(Object value, Type type) {
+
+    return value == null ? null : forType(type).convert(value);
+  }
+
+  private static Object toJsonValue(Object value, Type type) {
+
+    return forType(type).toJsonValue(value);
+  }
+
+  void write(Buffer buffer, Object value) {
+
+    try {
+      writer.writeValue(new BufferOutputStream(buffer), toJsonValue(value));
+    } catch (IOException e) {
+      throw new EncodeException("Failed to encode as JSON: " + e.getMessage());
+    }
+  }
+
+  void write(JsonGenerator generator, Object value) throws IOException {
+
+    writer.writeValue(generator, toJsonValue(value));
+  }
+
+  private Object fromJsonValue(Object value) {
+
+    return value == null ? null : fromJsonValue.apply(value);
+  }
+
+  private Object toJsonValue(Object value) {
+
+    return value == null ? null : toJsonValue.apply(value);
+  }
+}
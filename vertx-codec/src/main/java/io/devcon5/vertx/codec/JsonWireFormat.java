@@ -0,0 +1,253 @@
+package io.devcon5.vertx.codec;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.Json;
+
+/**
+ * The default wire format that writes values as Json text. Multiple values are written as a single Json array
+ * that is generated and parsed as a stream of tokens, each element being bound to its declared type.
+ * <br>
+ * Large lists and sets are decoded in parallel outside the event loop, if enabled using the
+ * <code>codec.parallelDecodeThreshold</code> jvm parameter.
+ */
+final class JsonWireFormat implements WireFormat {
+
+  static final String NAME = "json";
+
+  private static final int SCAN_CHUNK_SIZE = 8192;
+
+  @Override
+  public String name() {
+
+    return NAME;
+  }
+
+  @Override
+  public void encode(final Buffer buffer, final Object value, final Type type) {
+
+    JsonBinding.forType(type).write(buffer, value);
+  }
+
+  @Override
+  public Object decode(final Buffer buffer, final int start, final int end, final Type type) {
+
+    final JsonBinding binding = JsonBinding.forType(type);
+    //every element takes at least two bytes, including its separator
+    if (ParallelDecoding.isParallel((end - start) / 2) && isListOrSet(binding.type())) {
+      final Object collection = readParallel(buffer, start, end, binding.type());
+      if (collection != null) {
+        return collection;
+      }
+    }
+    return binding.read(buffer, start, end);
+  }
+
+  private static boolean isListOrSet(final JavaType type) {
+
+    final Class<?> rawType = type.getRawClass();
+    return type.isCollectionLikeType()
+        && (rawType.isAssignableFrom(ArrayList.class) || rawType.isAssignableFrom(HashSet.class));
+  }
+
+  /**
+   * Determines the regions of the elements of a Json array and decodes the elements in parallel.
+   *
+   * @return the decoded collection or null, if the collection is too small to be decoded in parallel
+   */
+  private static Object readParallel(final Buffer buffer, final int start, final int end, final JavaType type) {
+
+    final int[] offsets = elementOffsets(buffer, start, end);
+    if (offsets == null || !ParallelDecoding.isParallel(offsets.length - 1)) {
+      return null;
+    }
+    final JsonBinding binding = JsonBinding.forType(type.getContentType());
+    //the region of an element includes its separator, which is ignored when reading the element
+    final IntFunction<Object> element = i -> binding.read(buffer, start + offsets[i], start + offsets[i + 1]);
+    final List<Object> elements = Arrays.asList(ParallelDecoding.decode(offsets.length - 1, element));
+    return type.getRawClass().isAssignableFrom(ArrayList.class) ? new ArrayList<>(elements) : new HashSet<>(elements);
+  }
+
+  /**
+   * Determines the regions of the elements of a Json array with a structural scan of the bytes. Only nesting, strings
+   * and escapes are tracked to find the commas of the top level, so the elements are parsed just once, when they are
+   * decoded in parallel.
+   *
+   * @return the offsets of the elements of the Json array relative to the start, followed by the offset of the end of
+   * the array, or null if the value is not an array or malformed, so it is decoded (and any error reported) serially
+   */
+  private static int[] elementOffsets(final Buffer buffer, final int start, final int end) {
+
+    final byte[] chunk = new byte[SCAN_CHUNK_SIZE];
+    int[] offsets = new int[1024];
+    int count = 0;
+    int depth = 0;
+    boolean inString = false;
+    boolean escaped = false;
+    boolean closed = false;
+    boolean empty = true;
+    for (int pos = start; pos < end; pos += chunk.length) {
+      final int length = Math.min(chunk.length, end - pos);
+      buffer.getBytes(pos, pos + length, chunk, 0);
+      for (int i = 0; i < length; i++) {
+        if (inString) {
+          //the contents of strings are skipped in a tight loop, as they make up most of the bytes
+          if (escaped) {
+            escaped = false;
+            i++;
+          }
+          while (i < length && chunk[i] != '"') {
+            if (chunk[i++] == '\\') {
+              i++;
+            }
+          }
+          if (i >= length) {
+            //the escaped character is the first one of the next chunk
+            escaped = i > length;
+            break;
+          }
+          inString = false;
+          continue;
+        }
+        final byte b = chunk[i];
+        if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+          continue;
+        }
+        if (closed || depth == 0 && b != '[') {
+          return null;
+        }
+        if (depth > 0 && b != ']') {
+          empty = false;
+        }
+        switch (b) {
+          case '"':
+            inString = true;
+            break;
+          case '[':
+          case '{':
+            if (depth++ == 0) {
+              offsets[count++] = pos + i + 1 - start;
+            }
+            break;
+          case ']':
+          case '}':
+            if (--depth == 0) {
+              //the region of the last element ends at the closing bracket of the array
+              closed = b == ']';
+              if (!closed) {
+                return null;
+              }
+              offsets[count] = pos + i - start;
+            }
+            break;
+          case ',':
+            //the region of an element includes its separator, the region of the next one starts after it
+            if (depth == 1) {
+              if (count + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+              }
+              offsets[count++] = pos + i + 1 - start;
+            }
+            break;
+          default:
+        }
+      }
+    }
+    return closed && !empty ? Arrays.copyOf(offsets, count + 1) : null;
+  }
+
+  @Override
+  public void encodeAll(final Buffer buffer, final Object[] values, final Type[] types) {
+
+    //the arguments are written in a single pass directly into the target buffer
+    try (JsonGenerator generator = Json.mapper.getFactory().createGenerator(new BufferOutputStream(buffer))) {
+      generator.writeStartArray();
+      for (int i = 0; i < values.length; i++) {
+        writeValue(generator, values[i], types[i], this);
+      }
+      generator.writeEndArray();
+    } catch (IOException e) {
+      throw new EncodeException("Failed to encode as JSON: " + e.getMessage());
+    }
+  }
+
+  @Override
+  public Object[] decodeAll(final Buffer buffer, final int start, final int end, final Type[] types) {
+
+    try (JsonParser parser = Json.mapper.getFactory().createParser(new BufferInputStream(buffer, start, end))) {
+      expect(parser.nextToken(), JsonToken.START_ARRAY);
+      final Object[] result = new Object[types.length];
+      for (int i = 0; i < types.length; i++) {
+        parser.nextToken();
+        result[i] = PayloadView.isView(types[i])
+                    ? readView(parser, buffer, start, PayloadView.unwrapViewType(types[i]))
+                    : readValue(parser, types[i]);
+      }
+      expect(parser.nextToken(), JsonToken.END_ARRAY);
+      return result;
+    } catch (IOException e) {
+      throw new DecodeException("Failed to decode: " + e.getMessage());
+    }
+  }
+
+  private static void writeValue(final JsonGenerator generator,
+                                 final Object value,
+                                 final Type declaredType,
+                                 final WireFormat format) throws IOException {
+
+    final Type type = PayloadView.unwrapViewType(declaredType);
+    if (value instanceof PayloadView) {
+      final Buffer encoded = ((PayloadView<?>) value).encoded(format);
+      if (encoded != null) {
+        //forwarded payloads are written as they were received
+        generator.writeRawValue(encoded.toString());
+      } else {
+        writeValue(generator, ((PayloadView<?>) value).get(), type, format);
+      }
+      return;
+    }
+    JsonBinding.forType(type).write(generator, value);
+  }
+
+  private static Object readValue(final JsonParser parser, final Type type) throws IOException {
+
+    return JsonBinding.forType(type).read(parser);
+  }
+
+  /**
+   * Reads a view on the value at the current token of the parser. Only the region of a Json object is determined,
+   * other values are decoded immediately.
+   */
+  private PayloadView<?> readView(final JsonParser parser, final Buffer buffer, final int start, final Type type)
+      throws IOException {
+
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      return PayloadView.of(readValue(parser, type), type);
+    }
+    final int valueStart = start + (int) parser.getTokenLocation().getByteOffset();
+    parser.skipChildren();
+    final int valueEnd = start + (int) parser.getTokenLocation().getByteOffset() + 1;
+    final JsonBinding binding = JsonBinding.forType(type);
+    return new PayloadView<>(buffer, valueStart, valueEnd, type, this, binding::read);
+  }
+
+  private static void expect(final JsonToken actual, final JsonToken expected) {
+
+    if (actual != expected) {
+      throw new DecodeException("Failed to decode: expected " + expected + " but was " + actual);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package io.devcon5.vertx.codec;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A received payload that has not been decoded yet. Decoding large payloads on the event loop blocks all other
+ * handlers of that event loop, so offloading codecs decode payloads that are larger than the
+ * <code>codec.offloadThreshold</code> jvm parameter (in bytes, disabled by default) into a lazy payload instead. The
+ * receiver decodes the payload using {@link #decode(io.vertx.core.Vertx)}, which runs the decoding on a worker thread
+ * and completes on the context of the receiver.
+ * <br>
+ * Offloading is opt-in per codec, as receivers have to expect lazy payloads. Offloading codecs are created using
+ * {@link io.devcon5.vertx.codec.GenericTypeCodec#offloadingForType(java.lang.reflect.Type)} and
+ * {@link io.devcon5.vertx.codec.GenericTypeArrayCodec#offloadingForType(java.lang.reflect.Type[])} and are registered
+ * under names prefixed with <code>lazy:</code>, so they are never used to decode messages for other consumers.
+ * <br>
+ * The {@link io.devcon5.vertx.codec.GenericTypeCodec} decodes large values into a lazy payload. As the
+ * {@link io.devcon5.vertx.codec.GenericTypeArrayCodec} has to decode into an array, it decodes large arrays into a
+ * single-element array of lazy payloads instead, which is detected by {@link #of(Object[])}. The lazy payload refers
+ * to the region of the received buffer, the buffer is not copied.
+ */
+public final class LazyPayload {
+
+  static final int OFFLOAD_THRESHOLD = Integer.getInteger("codec.offloadThreshold", 0);
+
+  /**
+   * Prefix of the names of offloading codecs
+   */
+  static final String CODEC_NAME_PREFIX = "lazy:";
+
+  private final Buffer buffer;
+  private final int start;
+  private final int end;
+  private final Decoder decoder;
+
+  private boolean decoded;
+  private Object value;
+
+  LazyPayload(final Buffer buffer, final int start, final int end, final Decoder decoder) {
+
+    this.buffer = buffer;
+    this.start = start;
+    this.end = end;
+    this.decoder = decoder;
+  }
+
+  /**
+   * @param length
+   *     the length of the encoded payload
+   * @param threshold
+   *     the offload threshold of the codec, offloading is disabled if the threshold is not positive
+   *
+   * @return true if a payload of the length should be decoded outside the event loop
+   */
+  static boolean isOffloaded(int length, int threshold) {
+
+    return threshold > 0 && length >= threshold;
+  }
+
+  /**
+   * @return the name of the offloading codec for a codec name, or null if the codec has no name
+   */
+  static String codecNameFor(String name) {
+
+    return name == null ? null : CODEC_NAME_PREFIX + name;
+  }
+
+  /**
+   * @return the size of the encoded payload in bytes
+   */
+  public int size() {
+
+    return end - start;
+  }
+
+  /**
+   * Decodes the payload on the current thread. The payload is only decoded once, further invocations return the same
+   * value.
+   *
+   * @return the decoded value
+   */
+  public synchronized Object get() {
+
+    if (!decoded) {
+      value = decoder.decode(buffer, start, end);
+      decoded = true;
+    }
+    return value;
+  }
+
+  /**
+   * Decodes the payload on a worker thread.
+   *
+   * @param vertx
+   *     the vertx instance to decode the payload with
+   * @param <T>
+   *     the type of the decoded value
+   *
+   * @return a future of the decoded value, that is completed on the context of the caller
+   */
+  public <T> Future<T> decode(Vertx vertx) {
+
+    final Future<T> result = Future.future();
+    vertx.<T>executeBlocking(decoding -> decoding.complete((T) get()), false, result);
+    return result;
+  }
+
+  /**
+   * Resolves a value that may be a lazy payload.
+   *
+   * @param vertx
+   *     the vertx instance to decode a lazy payload with
+   * @param value
+   *     the received value
+   * @param <T>
+   *     the type of the value
+   *
+   * @return a future of the decoded value if the value is a lazy payload, otherwise a completed future of the value
+   */
+  public static <T> Future<T> resolve(Vertx vertx, Object value) {
+
+    if (value instanceof LazyPayload) {
+      return ((LazyPayload) value).decode(vertx);
+    }
+    if (value instanceof Object[] && of((Object[]) value) != null) {
+      return of((Object[]) value).decode(vertx);
+    }
+    return Future.succeededFuture((T) value);
+  }
+
+  /**
+   * Resolves a value that may be a lazy payload on the current thread.
+   *
+   * @param value
+   *     the received value
+   *
+   * @return the decoded value if the value is a lazy payload, otherwise the value itself
+   */
+  public static Object unwrap(Object value) {
+
+    if (value instanceof LazyPayload) {
+      return ((LazyPayload) value).get();
+    }
+    if (value instanceof Object[] && of((Object[]) value) != null) {
+      return of((Object[]) value).get();
+    }
+    return value;
+  }
+
+  /**
+   * @param values
+   *     the array decoded by the {@link io.devcon5.vertx.codec.GenericTypeArrayCodec}
+   *
+   * @return the lazy payload of the array or null, if the array has been decoded already
+   */
+  public static LazyPayload of(Object[] values) {
+
+    return values instanceof LazyPayload[] ? ((LazyPayload[]) values)[0] : null;
+  }
+
+  /**
+   * Decodes a region of a buffer
+   */
+  @FunctionalInterface
+  interface Decoder {
+
+    Object decode(Buffer buffer, int start, int end);
+  }
+}
@@ -0,0 +1,636 @@
+package io.devcon5.vertx.codec;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * Packed representation of numeric arrays and collections, such as <code>int[]</code>, <code>List&lt;Long&gt;</code>
+ * or <code>Set&lt;Double&gt;</code>. The values are written as a single block, integral values as zig-zag encoded
+ * variable length integers, floating point values with a fixed width.
+ * <br>
+ * Arrays are decoded into primitive arrays and lists into growable lists backed by a primitive array, so no boxed
+ * value is created while decoding. The elements of such a list are boxed when they are read. Collections that contain
+ * null values are written element by element instead.
+ */
+final class PackedArrays {
+
+  private static final byte PACKED = 1;
+  private static final byte BOXED = 2;
+
+  private static final Packing NONE = new Packing(null, null);
+  private static final Map<Type, Packing> PACKINGS = new ConcurrentHashMap<>();
+
+  private PackedArrays() {
+
+  }
+
+  /**
+   * Provides the packing for the specified type.
+   *
+   * @param type
+   *     the (generic) type of the values
+   *
+   * @return the packing for the type or null, if values of the type can not be packed
+   */
+  static Packing forType(Type type) {
+
+    Packing packing = PACKINGS.get(type);
+    if (packing == null) {
+      packing = resolve(TypeFactory.defaultInstance().constructType(GenericTypes.unwrapFutureType(type)));
+      PACKINGS.put(type, packing);
+    }
+    return packing == NONE ? null : packing;
+  }
+
+  static Packing forType(JavaType type) {
+
+    final Packing packing = resolve(type);
+    return packing == NONE ? null : packing;
+  }
+
+  private static Packing resolve(final JavaType type) {
+
+    final Class<?> rawType = type.getRawClass();
+    if (type.isArrayType()) {
+      final ElementType elementType = ElementType.ofPrimitive(rawType.getComponentType());
+      return elementType == null ? NONE : new Packing(elementType, Container.ARRAY);
+    }
+    //only the interface types can be packed, as a concrete type, such as ArrayList, could not be decoded without boxing
+    if (type.isCollectionLikeType() && (rawType == List.class || rawType == Collection.class || rawType == Set.class)) {
+      final ElementType elementType = ElementType.ofBoxed(type.getContentType().getRawClass());
+      if (elementType != null) {
+        return new Packing(elementType, rawType == Set.class ? Container.SET : Container.LIST);
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * The numeric types that can be packed
+   */
+  enum ElementType {
+    INT(int.class, Integer.class),
+    LONG(long.class, Long.class),
+    FLOAT(float.class, Float.class),
+    DOUBLE(double.class, Double.class);
+
+    private final Class<?> primitiveType;
+    private final Class<?> boxedType;
+
+    ElementType(final Class<?> primitiveType, final Class<?> boxedType) {
+
+      this.primitiveType = primitiveType;
+      this.boxedType = boxedType;
+    }
+
+    static ElementType ofPrimitive(Class<?> type) {
+
+      for (ElementType elementType : values()) {
+        if (elementType.primitiveType == type) {
+          return elementType;
+        }
+      }
+      return null;
+    }
+
+    static ElementType ofBoxed(Class<?> type) {
+
+      for (ElementType elementType : values()) {
+        if (elementType.boxedType == type) {
+          return elementType;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * The kind of container the values are decoded into
+   */
+  enum Container {
+    ARRAY,
+    LIST,
+    SET
+  }
+
+  /**
+   * Writes and reads the packed representation of the values of a single type. The values itself must not be null.
+   */
+  static final class Packing {
+
+    private final ElementType elementType;
+    private final Container container;
+
+    private Packing(final ElementType elementType, final Container container) {
+
+      this.elementType = elementType;
+      this.container = container;
+    }
+
+    void write(BinaryWriter out, Object value) {
+
+      final Object array;
+      final int length;
+      if (container == Container.ARRAY) {
+        array = value;
+        length = Array.getLength(array);
+      } else if (value instanceof PackedList && ((PackedList) value).elementType() == elementType) {
+        //the backing array may be longer than the list
+        array = ((PackedList) value).array();
+        length = ((PackedList) value).size();
+      } else {
+        array = toPrimitiveArray((Collection<?>) value);
+        if (array == null) {
+          writeBoxed(out, (Collection<?>) value);
+          return;
+        }
+        length = Array.getLength(array);
+      }
+      out.writeByte(PACKED);
+      out.writeUnsignedVarInt(length);
+      switch (elementType) {
+        case INT:
+          final int[] ints = (int[]) array;
+          for (int i = 0; i < length; i++) {
+            out.writeVarInt(ints[i]);
+          }
+          break;
+        case LONG:
+          final long[] longs = (long[]) array;
+          for (int i = 0; i < length; i++) {
+            out.writeVarLong(longs[i]);
+          }
+          break;
+        case FLOAT:
+          final float[] floats = (float[]) array;
+          for (int i = 0; i < length; i++) {
+            out.writeFloat(floats[i]);
+          }
+          break;
+        default:
+          final double[] doubles = (double[]) array;
+          for (int i = 0; i < length; i++) {
+            out.writeDouble(doubles[i]);
+          }
+      }
+    }
+
+    Object read(BinaryReader in) {
+
+      final byte mode = in.readByte();
+      final int size = in.readUnsignedVarInt();
+      if (size > in.remaining()) {
+        throw new IllegalStateException("Unexpected end of binary payload, required at least "
+                                            + size
+                                            + " bytes at position "
+                                            + in.position());
+      }
+      if (mode == BOXED) {
+        return readBoxed(in, size);
+      }
+      if (mode != PACKED) {
+        throw new IllegalStateException("Unknown packing " + mode + " at position " + in.position());
+      }
+
+      final Object array;
+      switch (elementType) {
+        case INT:
+          final int[] ints = new int[size];
+          for (int i = 0; i < size; i++) {
+            ints[i] = in.readVarInt();
+          }
+          array = ints;
+          break;
+        case LONG:
+          final long[] longs = new long[size];
+          for (int i = 0; i < size; i++) {
+            longs[i] = in.readVarLong();
+          }
+          array = longs;
+          break;
+        case FLOAT:
+          final float[] floats = new float[size];
+          for (int i = 0; i < size; i++) {
+            floats[i] = in.readFloat();
+          }
+          array = floats;
+          break;
+        default:
+          final double[] doubles = new double[size];
+          for (int i = 0; i < size; i++) {
+            doubles[i] = in.readDouble();
+          }
+          array = doubles;
+      }
+      switch (container) {
+        case ARRAY:
+          return array;
+        case SET:
+          return new LinkedHashSet<>(listOf(array));
+        default:
+          return listOf(array);
+      }
+    }
+
+    private PackedList listOf(final Object array) {
+
+      switch (elementType) {
+        case INT:
+          return new IntList((int[]) array);
+        case LONG:
+          return new LongList((long[]) array);
+        case FLOAT:
+          return new FloatList((float[]) array);
+        default:
+          return new DoubleList((double[]) array);
+      }
+    }
+
+    /**
+     * @return the values as primitive array or null, if the collection contains null values
+     */
+    private Object toPrimitiveArray(final Collection<?> values) {
+
+      final int size = values.size();
+      int i = 0;
+      switch (elementType) {
+        case INT:
+          final int[] ints = new int[size];
+          for (Object v : values) {
+            if (v == null) {
+              return null;
+            }
+            ints[i++] = (Integer) v;
+          }
+          return ints;
+        case LONG:
+          final long[] longs = new long[size];
+          for (Object v : values) {
+            if (v == null) {
+              return null;
+            }
+            longs[i++] = (Long) v;
+          }
+          return longs;
+        case FLOAT:
+          final float[] floats = new float[size];
+          for (Object v : values) {
+            if (v == null) {
+              return null;
+            }
+            floats[i++] = (Float) v;
+          }
+          return floats;
+        default:
+          final double[] doubles = new double[size];
+          for (Object v : values) {
+            if (v == null) {
+              return null;
+            }
+            doubles[i++] = (Double) v;
+          }
+          return doubles;
+      }
+    }
+
+    private void writeBoxed(final BinaryWriter out, final Collection<?> values) {
+
+      out.writeByte(BOXED);
+      out.writeUnsignedVarInt(values.size());
+      for (Object v : values) {
+        if (v == null) {
+          out.writeBoolean(false);
+          continue;
+        }
+        out.writeBoolean(true);
+        switch (elementType) {
+          case INT:
+            out.writeVarInt((Integer) v);
+            break;
+          case LONG:
+            out.writeVarLong((Long) v);
+            break;
+          case FLOAT:
+            out.writeFloat((Float) v);
+            break;
+          default:
+            out.writeDouble((Double) v);
+        }
+      }
+    }
+
+    private Collection<Object> readBoxed(final BinaryReader in, final int size) {
+
+      final Collection<Object> values = container == Container.SET ? new LinkedHashSet<>() : new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        if (!in.readBoolean()) {
+          values.add(null);
+          continue;
+        }
+        switch (elementType) {
+          case INT:
+            values.add(in.readVarInt());
+            break;
+          case LONG:
+            values.add(in.readVarLong());
+            break;
+          case FLOAT:
+            values.add(in.readFloat());
+            break;
+          default:
+            values.add(in.readDouble());
+        }
+      }
+      return values;
+    }
+  }
+
+  /**
+   * Growable list backed by a primitive array, like an {@link java.util.ArrayList} of the boxed values. Null elements
+   * are not permitted. The list is only accessed through the {@link List} interface, so elements are boxed on read.
+   */
+  abstract static class PackedList<T> extends AbstractList<T> implements RandomAccess, Shareable {
+
+    private static final int MIN_CAPACITY = 8;
+
+    int size;
+
+    PackedList(final int size) {
+
+      this.size = size;
+    }
+
+    abstract ElementType elementType();
+
+    /**
+     * @return the backing array, which may be longer than the list
+     */
+    abstract Object array();
+
+    abstract void setArray(Object array);
+
+    /**
+     * Stores the element at the index, which must be within the capacity of the backing array
+     */
+    abstract void store(int index, T element);
+
+    @Override
+    public int size() {
+
+      return size;
+    }
+
+    @Override
+    public void add(final int index, final T element) {
+
+      if (index < 0 || index > size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      Objects.requireNonNull(element);
+      Object array = array();
+      final int capacity = Array.getLength(array);
+      if (size == capacity) {
+        final Object grown = Array.newInstance(array.getClass().getComponentType(),
+                                               Math.max(capacity + (capacity >> 1), MIN_CAPACITY));
+        System.arraycopy(array, 0, grown, 0, size);
+        setArray(grown);
+        array = grown;
+      }
+      System.arraycopy(array, index, array, index + 1, size - index);
+      store(index, element);
+      size++;
+      modCount++;
+    }
+
+    @Override
+    public T remove(final int index) {
+
+      final T previous = get(index);
+      final Object array = array();
+      System.arraycopy(array, index + 1, array, index, size - index - 1);
+      size--;
+      modCount++;
+      return previous;
+    }
+
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+
+      final Object array = array();
+      System.arraycopy(array, toIndex, array, fromIndex, size - toIndex);
+      size -= toIndex - fromIndex;
+      modCount++;
+    }
+
+    @Override
+    public T set(final int index, final T element) {
+
+      final T previous = get(index);
+      store(index, Objects.requireNonNull(element));
+      return previous;
+    }
+  }
+
+  static final class IntList extends PackedList<Integer> {
+
+    private int[] values;
+
+    IntList(final int[] values) {
+
+      super(values.length);
+      this.values = values;
+    }
+
+    @Override
+    public Integer get(final int index) {
+
+      return values[Objects.checkIndex(index, size)];
+    }
+
+    @Override
+    void store(final int index, final Integer element) {
+
+      values[index] = element;
+    }
+
+    @Override
+    public Shareable copy() {
+
+      return new IntList(Arrays.copyOf(values, size));
+    }
+
+    @Override
+    ElementType elementType() {
+
+      return ElementType.INT;
+    }
+
+    @Override
+    Object array() {
+
+      return values;
+    }
+
+    @Override
+    void setArray(final Object array) {
+
+      this.values = (int[]) array;
+    }
+  }
+
+  static final class LongList extends PackedList<Long> {
+
+    private long[] values;
+
+    LongList(final long[] values) {
+
+      super(values.length);
+      this.values = values;
+    }
+
+    @Override
+    public Long get(final int index) {
+
+      return values[Objects.checkIndex(index, size)];
+    }
+
+    @Override
+    void store(final int index, final Long element) {
+
+      values[index] = element;
+    }
+
+    @Override
+    public Shareable copy() {
+
+      return new LongList(Arrays.copyOf(values, size));
+    }
+
+    @Override
+    ElementType elementType() {
+
+      return ElementType.LONG;
+    }
+
+    @Override
+    Object array() {
+
+      return values;
+    }
+
+    @Override
+    void setArray(final Object array) {
+
+      this.values = (long[]) array;
+    }
+  }
+
+  static final class FloatList extends PackedList<Float> {
+
+    private float[] values;
+
+    FloatList(final float[] values) {
+
+      super(values.length);
+      this.values = values;
+    }
+
+    @Override
+    public Float get(final int index) {
+
+      return values[Objects.checkIndex(index, size)];
+    }
+
+    @Override
+    void store(final int index, final Float element) {
+
+      values[index] = element;
+    }
+
+    @Override
+    public Shareable copy() {
+
+      return new FloatList(Arrays.copyOf(values, size));
+    }
+
+    @Override
+    ElementType elementType() {
+
+      return ElementType.FLOAT;
+    }
+
+    @Override
+    Object array() {
+
+      return values;
+    }
+
+    @Override
+    void setArray(final Object array) {
+
+      this.values = (float[]) array;
+    }
+  }
+
+  static final class DoubleList extends PackedList<Double> {
+
+    private double[] values;
+
+    DoubleList(final double[] values) {
+
+      super(values.length);
+      this.values = values;
+    }
+
+    @Override
+    public Double get(final int index) {
+
+      return values[Objects.checkIndex(index, size)];
+    }
+
+    @Override
+    void store(final int index, final Double element) {
+
+      values[index] = element;
+    }
+
+    @Override
+    public Shareable copy() {
+
+      return new DoubleList(Arrays.copyOf(values, size));
+    }
+
+    @Override
+    ElementType elementType() {
+
+      return ElementType.DOUBLE;
+    }
+
+    @Override
+    Object array() {
+
+      return values;
+    }
+
+    @Override
+    void setArray(final Object array) {
+
+      this.values = (double[]) array;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package io.devcon5.vertx.codec;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+import io.vertx.core.Context;
+
+/**
+ * Parallel decoding of the elements of large collections. Collections with at least as many elements as the
+ * <code>codec.parallelDecodeThreshold</code> jvm parameter (disabled by default) are split into ranges of elements,
+ * which are decoded on the common {@link java.util.concurrent.ForkJoinPool} and assembled in their original order.
+ * <br>
+ * Collections are only decoded in parallel outside the event loop, i.e. on worker verticles or when decoding a {@link
+ * io.devcon5.vertx.codec.LazyPayload}, as the event loop has to wait for the decoding to complete, which would block it
+ * for even longer when the pool is busy.
+ */
+final class ParallelDecoding {
+
+  private static final int MIN_RANGE = 256;
+
+  private static volatile int threshold = Integer.getInteger("codec.parallelDecodeThreshold", 0);
+
+  private ParallelDecoding() {
+
+  }
+
+  /**
+   * @param size
+   *     the number of elements of a collection
+   *
+   * @return true if the elements of a collection of the size should be decoded in parallel on the current thread
+   */
+  static boolean isParallel(int size) {
+
+    final int min = threshold;
+    return min > 0 && size >= min && !Context.isOnEventLoopThread();
+  }
+
+  /**
+   * Overrides the threshold configured using the <code>codec.parallelDecodeThreshold</code> jvm parameter.
+   *
+   * @param threshold
+   *     the minimum number of elements to decode in parallel, 0 to disable parallel decoding
+   */
+  static void setThreshold(int threshold) {
+
+    ParallelDecoding.threshold = threshold;
+  }
+
+  /**
+   * Decodes the elements of a collection in parallel.
+   *
+   * @param size
+   *     the number of elements
+   * @param decoder
+   *     the function decoding the element at an index. It is invoked concurrently for different indices.
+   *
+   * @return the decoded elements in their original order
+   */
+  static Object[] decode(int size, IntFunction<Object> decoder) {
+
+    final ForkJoinPool pool = ForkJoinPool.commonPool();
+    final Object[] elements = new Object[size];
+    //a few ranges per thread balance the load if some elements take longer to decode
+    final int range = Math.max(size / (pool.getParallelism() * 4), MIN_RANGE);
+    pool.invoke(new DecodeRange(elements, 0, size, range, decoder));
+    return elements;
+  }
+
+  private static final class DecodeRange extends RecursiveAction {
+
+    private final Object[] elements;
+    private final int from;
+    private final int to;
+    private final int range;
+    private final IntFunction<Object> decoder;
+
+    DecodeRange(final Object[] elements,
+                final int from,
+                final int to,
+                final int range,
+                final IntFunction<Object> decoder) {
+
+      this.elements = elements;
+      this.from = from;
+      this.to = to;
+      this.range = range;
+      this.decoder = decoder;
+    }
+
+    @Override
+    protected void compute() {
+
+      if (to - from <= range) {
+        for (int i = from; i < to; i++) {
+          elements[i] = decoder.apply(i);
+        }
+      } else {
+        final int middle = (from + to) >>> 1;
+        invokeAll(new DecodeRange(elements, from, middle, range, decoder),
+                  new DecodeRange(elements, middle, to, range, decoder));
+      }
+    }
+  }
+}
@@ -0,0 +1,267 @@
+package io.devcon5.vertx.codec;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * A view on a received payload whose properties are decoded individually on first access, instead of decoding the
+ * whole object graph upfront. Handlers that only read a few properties of a large payload, such as routing actors,
+ * declare their parameter as <code>PayloadView&lt;Pojo&gt;</code> instead of <code>Pojo</code>. The codec name, and
+ * therefore the address of an actor, is the same for both declarations, so senders and receivers can choose
+ * independently.
+ * <br>
+ * For Json payloads the offsets of the top-level fields are indexed on the first access of a property, and only the
+ * region of the accessed property is decoded. Payloads in other formats are decoded completely on first access. A
+ * view that is sent again is written as the bytes it was received as, if the format of the sending codec is the
+ * same, so forwarded payloads are not re-encoded either.
+ *
+ * @param <T>
+ *     the type of the payload
+ */
+public final class PayloadView<T> implements Shareable {
+
+  private static final Map<JavaType, Map<String, BeanPropertyDefinition>> PROPERTIES = new ConcurrentHashMap<>();
+
+  private final Buffer buffer;
+  private final int start;
+  private final int end;
+  private final JavaType type;
+  private final WireFormat format;
+  private final LazyPayload.Decoder decoder;
+
+  private boolean decoded;
+  private T value;
+  private Map<String, int[]> index;
+  private Map<String, Object> properties;
+
+  PayloadView(final Buffer buffer,
+              final int start,
+              final int end,
+              final Type type,
+              final WireFormat format,
+              final LazyPayload.Decoder decoder) {
+
+    this.buffer = buffer;
+    this.start = start;
+    this.end = end;
+    this.type = Json.mapper.getTypeFactory().constructType(type);
+    this.format = format;
+    this.decoder = decoder;
+  }
+
+  private PayloadView(final T value, final Type type) {
+
+    this(null, 0, 0, type, null, null);
+    this.value = value;
+    this.decoded = true;
+  }
+
+  /**
+   * Creates a view on an already decoded value, i.e. to send a value to a receiver that expects a view.
+   *
+   * @param value
+   *     the value to view
+   * @param <T>
+   *     the type of the value
+   *
+   * @return a view on the value
+   */
+  public static <T> PayloadView<T> of(T value) {
+
+    return new PayloadView<>(value, value == null ? Object.class : value.getClass());
+  }
+
+  /**
+   * Creates a view on a decoded value of the declared type, which may be null.
+   */
+  static <T> PayloadView<T> of(T value, Type type) {
+
+    return new PayloadView<>(value, type);
+  }
+
+  /**
+   * Decodes the whole payload. The payload is only decoded once, further invocations return the same value.
+   *
+   * @return the decoded payload
+   */
+  public synchronized T get() {
+
+    if (!decoded) {
+      value = (T) decoder.decode(buffer, start, end);
+      decoded = true;
+    }
+    return value;
+  }
+
+  /**
+   * Decodes a single top-level property of the payload. Each property is only decoded once.
+   *
+   * @param name
+   *     the name of the property as it is written in Json
+   * @param <V>
+   *     the type of the property
+   *
+   * @return the value of the property or null, if the payload or the property is null
+   *
+   * @throws java.lang.IllegalArgumentException
+   *     if the type of the payload has no such property
+   */
+  public synchronized <V> V get(String name) {
+
+    final BeanPropertyDefinition property = propertiesOf(type).get(name);
+    if (property == null && decoded && value == null && type.getRawClass() == Object.class) {
+      //the type of a view created on a null value is not known
+      return null;
+    }
+    if (property == null) {
+      throw new IllegalArgumentException(type.getRawClass().getName() + " has no property " + name);
+    }
+    if (decoded || !isIndexable()) {
+      final Object bean = get();
+      return bean == null ? null : (V) property.getAccessor().getValue(bean);
+    }
+    if (properties == null) {
+      properties = new HashMap<>();
+      index = indexFields();
+    }
+    if (!properties.containsKey(name)) {
+      final int[] region = index.get(name);
+      properties.put(name,
+                     region == null ? null : JsonBinding.forType(property.getPrimaryType())
+                                                        .read(buffer, region[0], region[1]));
+    }
+    return (V) properties.get(name);
+  }
+
+  /**
+   * @return true if the payload has been decoded completely
+   */
+  public synchronized boolean isDecoded() {
+
+    return decoded;
+  }
+
+  /**
+   * @param format
+   *     the format the payload should be written in
+   *
+   * @return the received bytes of the payload, if the payload was received in the specified format, otherwise null
+   */
+  Buffer encoded(WireFormat format) {
+
+    return buffer != null && this.format == format ? buffer.slice(start, end) : null;
+  }
+
+  @Override
+  public PayloadView<T> copy() {
+
+    if (buffer != null) {
+      //the received bytes are never modified, so a copy may refer to the same bytes
+      return new PayloadView<>(buffer, start, end, type, format, decoder);
+    }
+    return new PayloadView<>((T) Copiers.copy(value), type);
+  }
+
+  private boolean isIndexable() {
+
+    return format instanceof JsonWireFormat && !propertiesOf(type).isEmpty();
+  }
+
+  /**
+   * Determines the regions of the values of all top-level fields of the Json object without decoding them.
+   */
+  private Map<String, int[]> indexFields() {
+
+    try (JsonParser parser = Json.mapper.getFactory().createParser(new BufferInputStream(buffer, start, end))) {
+      final Map<String, int[]> fields = new HashMap<>();
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        //null payload
+        return fields;
+      }
+      JsonToken token = parser.nextToken();
+      while (token == JsonToken.FIELD_NAME) {
+        final String name = parser.getCurrentName();
+        parser.nextToken();
+        final int valueStart = offsetOf(parser);
+        parser.skipChildren();
+        token = parser.nextToken();
+        //the value ends before the separator of the next field or the end of the object
+        int valueEnd = offsetOf(parser);
+        while (valueEnd > valueStart && isSeparator(buffer.getByte(valueEnd - 1))) {
+          valueEnd--;
+        }
+        fields.put(name, new int[] { valueStart, valueEnd });
+      }
+      return fields;
+    } catch (IOException e) {
+      throw new DecodeException("Failed to decode: " + e.getMessage());
+    }
+  }
+
+  private int offsetOf(JsonParser parser) {
+
+    return start + (int) parser.getTokenLocation().getByteOffset();
+  }
+
+  private static boolean isSeparator(byte b) {
+
+    return b == ',' || b == ' ' || b == '\t' || b == '\r' || b == '\n';
+  }
+
+  private static Map<String, BeanPropertyDefinition> propertiesOf(JavaType type) {
+
+    return PROPERTIES.computeIfAbsent(type, t -> {
+      if (t.isContainerType() || t.isJavaLangObject() || GenericTypes.isSimpleType(t.getRawClass())) {
+        return Collections.emptyMap();
+      }
+      final Map<String, BeanPropertyDefinition> properties = new HashMap<>();
+      for (BeanPropertyDefinition def : Json.mapper.getSerializationConfig().introspect(t).findProperties()) {
+        if (def.getAccessor() != null) {
+          def.getAccessor().fixAccess(true);
+          properties.put(def.getName(), def);
+        }
+      }
+      return properties;
+    });
+  }
+
+  /**
+   * @param type
+   *     the type to check
+   *
+   * @return true if the type is a view on a payload
+   */
+  static boolean isView(Type type) {
+
+    return type == PayloadView.class
+        || type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == PayloadView.class;
+  }
+
+  /**
+   * @param type
+   *     the declared type
+   *
+   * @return the type of the viewed payload, if the type is a view, otherwise the type itself
+   */
+  static Type unwrapViewType(Type type) {
+
+    if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == PayloadView.class) {
+      return ((ParameterizedType) type).getActualTypeArguments()[0];
+    }
+    return type == PayloadView.class ? Object.class : type;
+  }
+}
@@ -0,0 +1,50 @@
+package io.devcon5.vertx.codec;
+
+/**
+ * Reflection-free codec for a single bean type. Type codecs are generated at compile time for the final argument and
+ * return types of interfaces annotated with {@link io.devcon5.vertx.codec.GenerateCodecs} and are discovered using
+ * the {@link java.util.ServiceLoader}.
+ * <br>
+ * Type codecs are only used by the binary wire format. The Json format binds the values using Jackson as before, so
+ * generating codecs does not change the Json representation seen by other consumers.
+ *
+ * @param <T>
+ *     the type of the values
+ */
+public interface TypeCodec<T> {
+
+  /**
+   * @return the type of values written and read by this codec
+   */
+  Class<T> type();
+
+  /**
+   * Writes a value.
+   *
+   * @param out
+   *     the writer to write the value to
+   * @param value
+   *     the value to write, never null
+   */
+  void write(BinaryWriter out, T value);
+
+  /**
+   * Reads a value.
+   *
+   * @param in
+   *     the reader to read the value from
+   *
+   * @return the value read
+   */
+  T read(BinaryReader in);
+
+  /**
+   * Creates a deep copy of a value for local delivery.
+   *
+   * @param value
+   *     the value to copy, never null
+   *
+   * @return the copy of the value
+   */
+  T copy(T value);
+}
@@ -0,0 +1,57 @@
+package io.devcon5.vertx.codec;
+
+import static io.vertx.core.logging.LoggerFactory.getLogger;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import io.vertx.core.logging.Logger;
+
+/**
+ * Registry of the generated {@link io.devcon5.vertx.codec.TypeCodec}s, which are loaded once using the
+ * {@link java.util.ServiceLoader}. Codecs of non-final types are ignored, as values of subclasses would be written
+ * without their own properties and read as the declared type.
+ */
+final class TypeCodecs {
+
+  private static final Logger LOG = getLogger(TypeCodecs.class);
+
+  private static final Map<Class<?>, TypeCodec<?>> CODECS = loadCodecs();
+
+  private TypeCodecs() {
+
+  }
+
+  private static Map<Class<?>, TypeCodec<?>> loadCodecs() {
+
+    final Map<Class<?>, TypeCodec<?>> codecs = new HashMap<>();
+    try {
+      for (TypeCodec<?> codec : ServiceLoader.load(TypeCodec.class)) {
+        if (Modifier.isFinal(codec.type().getModifiers())) {
+          codecs.put(codec.type(), codec);
+        } else {
+          LOG.warn("Ignoring codec {} of non-final type {}", codec.getClass().getName(), codec.type().getName());
+        }
+      }
+    } catch (ServiceConfigurationError e) {
+      LOG.warn("Could not load generated codecs, using runtime codecs instead", e);
+    }
+    return codecs;
+  }
+
+  /**
+   * @param type
+   *     the (generic) type of values
+   *
+   * @return the generated codec for the type or null, if there is none. Codecs are only generated for non-generic
+   * classes.
+   */
+  static <T> TypeCodec<T> forType(Type type) {
+
+    return type instanceof Class ? (TypeCodec<T>) CODECS.get(type) : null;
+  }
+}
@@ -0,0 +1,320 @@
+package io.devcon5.vertx.codec;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import io.devcon5.vertx.codec.BinaryHandlers.Handler;
+
+/**
+ * Fast paths for the common value types of message fields, that are enums, {@link java.util.UUID}s, the value types
+ * of <code>java.time</code> and records. Instead of binding them with the general purpose bean binding, each value type
+ * has a compact binary representation and a text representation, which is used for Json. Enums are written by their
+ * name in the binary format, but are left to the mapper in Json.
+ * <br>
+ * Records are supported on runtimes that provide them, even though the codecs are compiled for Java 11. The components
+ * of a record are read using its accessors and the record is created using its canonical constructor, both being
+ * resolved once per record class.
+ */
+final class ValueTypes {
+
+  private static final Map<Class<?>, ValueType> VALUE_TYPES = new HashMap<>();
+
+  private static final Method IS_RECORD = findMethod(Class.class, "isRecord");
+  private static final Method GET_RECORD_COMPONENTS = findMethod(Class.class, "getRecordComponents");
+
+  private static final ClassValue<Boolean> RECORDS = new ClassValue<Boolean>() {
+
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+
+      try {
+        return IS_RECORD != null && (Boolean) IS_RECORD.invoke(type);
+      } catch (ReflectiveOperationException e) {
+        return false;
+      }
+    }
+  };
+
+  private static final ClassValue<RecordType> RECORD_TYPES = new ClassValue<RecordType>() {
+
+    @Override
+    protected RecordType computeValue(final Class<?> type) {
+
+      return new RecordType(type);
+    }
+  };
+
+  static {
+    register(UUID.class, UUID::fromString, (out, v) -> {
+      out.writeLong(((UUID) v).getMostSignificantBits());
+      out.writeLong(((UUID) v).getLeastSignificantBits());
+    }, in -> new UUID(in.readLong(), in.readLong()));
+    register(Instant.class, Instant::parse, (out, v) -> {
+      out.writeVarLong(((Instant) v).getEpochSecond());
+      out.writeVarInt(((Instant) v).getNano());
+    }, in -> Instant.ofEpochSecond(in.readVarLong(), in.readVarInt()));
+    register(Duration.class, Duration::parse, (out, v) -> {
+      out.writeVarLong(((Duration) v).getSeconds());
+      out.writeVarInt(((Duration) v).getNano());
+    }, in -> Duration.ofSeconds(in.readVarLong(), in.readVarInt()));
+    register(LocalDate.class,
+             LocalDate::parse,
+             (out, v) -> out.writeVarLong(((LocalDate) v).toEpochDay()),
+             in -> LocalDate.ofEpochDay(in.readVarLong()));
+    register(LocalTime.class,
+             LocalTime::parse,
+             (out, v) -> out.writeVarLong(((LocalTime) v).toNanoOfDay()),
+             in -> LocalTime.ofNanoOfDay(in.readVarLong()));
+    register(LocalDateTime.class, LocalDateTime::parse, (out, v) -> {
+      out.writeVarLong(((LocalDateTime) v).toLocalDate().toEpochDay());
+      out.writeVarLong(((LocalDateTime) v).toLocalTime().toNanoOfDay());
+    }, in -> LocalDateTime.of(LocalDate.ofEpochDay(in.readVarLong()), LocalTime.ofNanoOfDay(in.readVarLong())));
+    register(OffsetDateTime.class, OffsetDateTime::parse, (out, v) -> {
+      out.writeVarLong(((OffsetDateTime) v).toLocalDate().toEpochDay());
+      out.writeVarLong(((OffsetDateTime) v).toLocalTime().toNanoOfDay());
+      out.writeVarInt(((OffsetDateTime) v).getOffset().getTotalSeconds());
+    }, in -> OffsetDateTime.of(LocalDate.ofEpochDay(in.readVarLong()),
+                               LocalTime.ofNanoOfDay(in.readVarLong()),
+                               ZoneOffset.ofTotalSeconds(in.readVarInt())));
+    register(ZonedDateTime.class, ZonedDateTime::parse, (out, v) -> {
+      out.writeVarLong(((ZonedDateTime) v).toLocalDate().toEpochDay());
+      out.writeVarLong(((ZonedDateTime) v).toLocalTime().toNanoOfDay());
+      out.writeVarInt(((ZonedDateTime) v).getOffset().getTotalSeconds());
+      out.writeString(((ZonedDateTime) v).getZone().getId());
+    }, in -> ZonedDateTime.ofStrict(LocalDateTime.of(LocalDate.ofEpochDay(in.readVarLong()),
+                                                     LocalTime.ofNanoOfDay(in.readVarLong())),
+                                    ZoneOffset.ofTotalSeconds(in.readVarInt()),
+                                    ZoneId.of(in.readString())));
+  }
+
+  private ValueTypes() {
+
+  }
+
+  private static void register(Class<?> type,
+                               Function<String, Object> parser,
+                               BinaryHandlers.Writer writer,
+                               BinaryHandlers.Reader reader) {
+
+    VALUE_TYPES.put(type, new ValueType(parser, BinaryHandlers.nullable(BinaryHandlers.handler(writer, reader))));
+  }
+
+  /**
+   * @param type
+   *     the type to check
+   *
+   * @return true if the type is an enum, a {@link java.util.UUID}, a supported <code>java.time</code> type or a record
+   */
+  static boolean isValueType(Type type) {
+
+    return type instanceof Class
+        && (((Class<?>) type).isEnum() || isTextValueType((Class<?>) type) || isRecord((Class<?>) type));
+  }
+
+  /**
+   * @return true if values of the type are represented as text in Json, that are UUIDs and <code>java.time</code>
+   * types. Enums are bound by the mapper, so that their Jackson annotations are honoured.
+   */
+  static boolean isTextValueType(Class<?> type) {
+
+    return VALUE_TYPES.containsKey(type);
+  }
+
+  /**
+   * Parses the text representation of a value type.
+   *
+   * @param type
+   *     the UUID or <code>java.time</code> type
+   * @param text
+   *     the text to parse
+   *
+   * @return the parsed value
+   */
+  static Object parse(Class<?> type, String text) {
+
+    return VALUE_TYPES.get(type).parser.apply(text);
+  }
+
+  /**
+   * @return the nullable binary handler of a UUID or <code>java.time</code> type, or null if the type has none
+   */
+  static Handler binaryHandler(Class<?> type) {
+
+    final ValueType valueType = VALUE_TYPES.get(type);
+    return valueType == null ? null : valueType.handler;
+  }
+
+  /**
+   * @param type
+   *     the type to check
+   *
+   * @return true if the type is a record. Always false on runtimes that do not support records.
+   */
+  static boolean isRecord(Class<?> type) {
+
+    return RECORDS.get(type);
+  }
+
+  /**
+   * @param type
+   *     a record class
+   *
+   * @return the cached accessors and canonical constructor of the record
+   */
+  static RecordType recordType(Class<?> type) {
+
+    return RECORD_TYPES.get(type);
+  }
+
+  private static Method findMethod(Class<?> type, String name) {
+
+    try {
+      return type.getMethod(name);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static final class ValueType {
+
+    private final Function<String, Object> parser;
+    private final Handler handler;
+
+    ValueType(final Function<String, Object> parser, final Handler handler) {
+
+      this.parser = parser;
+      this.handler = handler;
+    }
+  }
+
+  /**
+   * The components of a record class. Records are created by invoking the canonical constructor with the values of
+   * all components in their declaration order.
+   */
+  static final class RecordType {
+
+    private final String[] names;
+    private final Type[] types;
+    private final MethodHandle[] accessors;
+    private final MethodHandle constructor;
+
+    RecordType(final Class<?> type) {
+
+      try {
+        final Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+        names = new String[components.length];
+        types = new Type[components.length];
+        accessors = new MethodHandle[components.length];
+        final Class<?>[] rawTypes = new Class<?>[components.length];
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < components.length; i++) {
+          final Class<?> componentClass = components[i].getClass();
+          names[i] = (String) componentClass.getMethod("getName").invoke(components[i]);
+          types[i] = (Type) componentClass.getMethod("getGenericType").invoke(components[i]);
+          rawTypes[i] = (Class<?>) componentClass.getMethod("getType").invoke(components[i]);
+          final Method accessor = (Method) componentClass.getMethod("getAccessor").invoke(components[i]);
+          accessor.setAccessible(true);
+          accessors[i] = lookup.unreflect(accessor).asType(methodType(Object.class, Object.class));
+        }
+        final Constructor<?> canonical = type.getDeclaredConstructor(rawTypes);
+        canonical.setAccessible(true);
+        constructor = lookup.unreflectConstructor(canonical).asSpreader(Object[].class, components.length);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        throw new IllegalArgumentException("Record " + type.getName() + " is not accessible", e);
+      }
+    }
+
+    String[] names() {
+
+      return names;
+    }
+
+    Type[] types() {
+
+      return types;
+    }
+
+    /**
+     * @return the values of the components of the record in their declaration order
+     */
+    Object[] components(Object record) {
+
+      final Object[] values = new Object[accessors.length];
+      try {
+        for (int i = 0; i < accessors.length; i++) {
+          values[i] = (Object) accessors[i].invokeExact(record);
+        }
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException("Could not read record " + record.getClass().getName(), e);
+      }
+      return values;
+    }
+
+    /**
+     * Creates a record using its canonical constructor.
+     */
+    Object newInstance(Object[] components) {
+
+      try {
+        return constructor.invoke(components);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException("Could not create record", e);
+      }
+    }
+
+    /**
+     * @return the components of the record by their name, in their declaration order, each component being converted
+     * using its declared type
+     */
+    Map<String, Object> toMap(Object record, BiFunction<Object, Type, Object> converter) {
+
+      final Object[] values = components(record);
+      final Map<String, Object> map = new LinkedHashMap<>();
+      for (int i = 0; i < names.length; i++) {
+        map.put(names[i], converter.apply(values[i], types[i]));
+      }
+      return map;
+    }
+
+    /**
+     * Creates a record from its components by their name, each component being converted to its declared type.
+     */
+    Object fromMap(Map<?, ?> map, BiFunction<Object, Type, Object> converter) {
+
+      final Object[] values = new Object[names.length];
+      for (int i = 0; i < names.length; i++) {
+        values[i] = converter.apply(map.get(names[i]), types[i]);
+        if (values[i] == null && types[i] instanceof Class && ((Class<?>) types[i]).isPrimitive()) {
+          //missing primitive components get their default value
+          values[i] = Array.get(Array.newInstance((Class<?>) types[i], 1), 0);
+        }
+      }
+      return newInstance(values);
+    }
+  }
+}
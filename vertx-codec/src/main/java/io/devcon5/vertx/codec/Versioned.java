@@ -0,0 +1,16 @@
+package io.devcon5.vertx.codec;
+
+/**
+ * Payloads with an application-defined version. When the encoding cache is enabled, a versioned payload is encoded
+ * only once per version and codec, all further messages with the same version reuse the encoded bytes, even if they
+ * are sent with a different instance. The version must therefore change whenever the content of the payload changes.
+ *
+ * @see io.devcon5.vertx.codec.EncodingCache
+ */
+public interface Versioned {
+
+  /**
+   * @return the version of the content of the payload
+   */
+  long version();
+}
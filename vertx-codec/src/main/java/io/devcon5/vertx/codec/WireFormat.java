@@ -0,0 +1,80 @@
+package io.devcon5.vertx.codec;
+
+import java.lang.reflect.Type;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Service provider interface for the representation in which the generic codecs write objects onto the wire. The
+ * codecs take care of framing (i.e. the length prefix), the format only has to write and read the payload itself.
+ * <br>
+ * Additional formats can be provided via the {@link java.util.ServiceLoader} mechanism by registering an
+ * implementation in META-INF/services/io.devcon5.vertx.codec.WireFormat. The format is then available by its
+ * {@link #name()} through {@link io.devcon5.vertx.codec.WireFormats#forName(String)}.
+ * <br>
+ * As the codec name does not reflect the format, all nodes of a cluster have to use the same format for the same
+ * codec.
+ */
+public interface WireFormat {
+
+  /**
+   * @return the unique name of this format, i.e. <code>json</code> or <code>binary</code>
+   */
+  String name();
+
+  /**
+   * Appends the representation of a single value to the buffer.
+   *
+   * @param buffer
+   *     the buffer to write the value to
+   * @param value
+   *     the value to write, may be null
+   * @param type
+   *     the declared (generic) type of the value
+   */
+  void encode(Buffer buffer, Object value, Type type);
+
+  /**
+   * Reads a single value from the specified region of the buffer.
+   *
+   * @param buffer
+   *     the buffer to read from
+   * @param start
+   *     the position of the first byte of the value (inclusive)
+   * @param end
+   *     the position after the last byte of the value (exclusive)
+   * @param type
+   *     the declared (generic) type of the value
+   *
+   * @return the decoded value
+   */
+  Object decode(Buffer buffer, int start, int end, Type type);
+
+  /**
+   * Appends the representation of multiple values of mixed types, such as the arguments of a method, to the buffer.
+   *
+   * @param buffer
+   *     the buffer to write the values to
+   * @param values
+   *     the values to write
+   * @param types
+   *     the declared (generic) types of the values, must have the same length as the values
+   */
+  void encodeAll(Buffer buffer, Object[] values, Type[] types);
+
+  /**
+   * Reads multiple values of mixed types from the specified region of the buffer.
+   *
+   * @param buffer
+   *     the buffer to read from
+   * @param start
+   *     the position of the first byte (inclusive)
+   * @param end
+   *     the position after the last byte (exclusive)
+   * @param types
+   *     the declared (generic) types of the values
+   *
+   * @return the decoded values
+   */
+  Object[] decodeAll(Buffer buffer, int start, int end, Type[] types);
+}
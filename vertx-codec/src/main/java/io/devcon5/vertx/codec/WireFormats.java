@@ -0,0 +1,87 @@
+package io.devcon5.vertx.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the available {@link io.devcon5.vertx.codec.WireFormat}s. The built-in formats are <code>json</code>,
+ * which is the default, and <code>binary</code>. Further formats are discovered using the
+ * {@link java.util.ServiceLoader}.
+ * <br>
+ * The format used by codecs that are created without an explicit format can be configured using the
+ * <code>codec.wireFormat</code> jvm parameter.
+ */
+public final class WireFormats {
+
+  /**
+   * Name of the jvm parameter to select the default wire format
+   */
+  public static final String DEFAULT_FORMAT_PROPERTY = "codec.wireFormat";
+
+  private static final WireFormat JSON = new JsonWireFormat();
+  private static final WireFormat BINARY = new BinaryWireFormat();
+  private static final Map<String, WireFormat> FORMATS = loadFormats();
+  private static final WireFormat DEFAULT = forName(System.getProperty(DEFAULT_FORMAT_PROPERTY, JsonWireFormat.NAME));
+
+  private WireFormats() {
+
+  }
+
+  private static Map<String, WireFormat> loadFormats() {
+
+    final Map<String, WireFormat> formats = new HashMap<>();
+    for (WireFormat format : ServiceLoader.load(WireFormat.class)) {
+      formats.put(format.name(), format);
+    }
+    //the built-in formats may not be replaced
+    formats.put(JSON.name(), JSON);
+    formats.put(BINARY.name(), BINARY);
+    return formats;
+  }
+
+  /**
+   * @return the Json wire format
+   */
+  public static WireFormat json() {
+
+    return JSON;
+  }
+
+  /**
+   * @return the compact binary wire format. The binary format is type-driven, it writes no field names or type
+   * information and prefixes variable-length values with their length.
+   */
+  public static WireFormat binary() {
+
+    return BINARY;
+  }
+
+  /**
+   * @return the format configured via the <code>codec.wireFormat</code> jvm parameter, Json if none is configured
+   */
+  public static WireFormat defaultFormat() {
+
+    return DEFAULT;
+  }
+
+  /**
+   * Resolves a wire format by its name.
+   *
+   * @param name
+   *     the name of the format
+   *
+   * @return the wire format with the specified name
+   *
+   * @throws java.lang.IllegalArgumentException
+   *     if no format of that name is known
+   */
+  public static WireFormat forName(String name) {
+
+    final WireFormat format = FORMATS.get(name);
+    if (format == null) {
+      throw new IllegalArgumentException("Unknown wire format " + name + ", supported formats are " + FORMATS.keySet());
+    }
+    return format;
+  }
+}
@@ -4,5 +4,9 @@
 module io.devcon5.vertx.codec {
   exports io.devcon5.vertx.codec;
   requires vertx.core;
+  requires com.fasterxml.jackson.core;
   requires com.fasterxml.jackson.databind;
+  uses io.devcon5.vertx.codec.WireFormat;
+  uses io.devcon5.vertx.codec.TypeCodec;
+  uses io.devcon5.vertx.codec.Compressor;
 }
@@ -0,0 +1,358 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class BinaryWireFormatTest {
+
+  private final WireFormat format = WireFormats.binary();
+
+  @Test
+  public void forName_binary() {
+
+    assertEquals("binary", WireFormats.forName("binary").name());
+  }
+
+  @Test
+  public void defaultFormat_json() {
+
+    assertEquals("json", WireFormats.defaultFormat().name());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void forName_unknownFormat_expectException() {
+
+    WireFormats.forName("unknown");
+  }
+
+  @Test
+  public void encode_and_decode_simpleTypes() {
+
+    assertEquals("bob", transcode("bob", String.class));
+    assertEquals(-128000, transcode(-128000, int.class));
+    assertEquals(Long.MAX_VALUE, transcode(Long.MAX_VALUE, Long.class));
+    assertEquals(Long.MIN_VALUE, transcode(Long.MIN_VALUE, long.class));
+    assertEquals(256.0, transcode(256.0, double.class));
+    assertEquals(true, transcode(true, Boolean.class));
+    assertEquals(Buffer.buffer("123"), transcode(Buffer.buffer("123"), Buffer.class));
+    assertEquals(new JsonObject().put("1", "one"), transcode(new JsonObject().put("1", "one"), JsonObject.class));
+    assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) transcode(new byte[] { 1, 2, 3 }, byte[].class));
+  }
+
+  @Test
+  public void encode_and_decode_null() {
+
+    assertNull(transcode(null, String.class));
+    assertNull(transcode(null, Pojo.class));
+  }
+
+  @Test
+  public void encode_and_decode_pojo() {
+
+    Pojo pojo = new Pojo().withName("bob").withAge(42).withTags(List.of("a", "b")).withState(State.ACTIVE);
+
+    assertEquals(pojo, transcode(pojo, Pojo.class));
+  }
+
+  @Test
+  public void encode_and_decode_pojo_noFieldNames() {
+
+    Pojo pojo = new Pojo().withName("bob").withAge(42).withTags(List.of("a", "b")).withState(State.ACTIVE);
+
+    Buffer binary = Buffer.buffer();
+    format.encode(binary, pojo, Pojo.class);
+
+    assertTrue(binary.length() < Json.encodeToBuffer(pojo).length() / 2);
+    assertTrue(binary.toString().indexOf("name") < 0);
+  }
+
+  @Test
+  public void encode_and_decode_nestedGenericType() {
+
+    Type type = Types.getType("listOfMapOfPojos");
+    List<Map<String, Pojo>> value = List.of(Map.of("bob", new Pojo().withName("bob")),
+                                            Map.of("alice", new Pojo().withName("alice"), "eve", new Pojo()));
+
+    assertEquals(value, transcode(value, type));
+  }
+
+  @Test
+  public void encode_and_decode_setOfPojos() {
+
+    Type type = Types.getType("setOfPojos");
+    Set<Pojo> value = Set.of(new Pojo().withName("bob"), new Pojo().withName("alice"));
+
+    assertEquals(value, transcode(value, type));
+  }
+
+  @Test
+  public void encode_and_decode_arrayOfPojos() {
+
+    Pojo[] value = { new Pojo().withName("bob"), null, new Pojo().withName("alice") };
+
+    assertArrayEquals(value, (Pojo[]) transcode(value, Pojo[].class));
+  }
+
+  @Test
+  public void encode_and_decode_recursiveType() {
+
+    Node value = new Node().withName("one").withNext(new Node().withName("two"));
+
+    assertEquals(value, transcode(value, Node.class));
+  }
+
+  @Test
+  public void encode_and_decode_objectType_jsonFallback() {
+
+    Map<String, Object> value = Map.of("name", "bob");
+
+    assertEquals(value, transcode(value, Object.class));
+  }
+
+  @Test
+  public void encodeAll_and_decodeAll_mixedTypes() {
+
+    Type[] types = { String.class, int.class, Pojo.class, Types.getType("setOfPojos") };
+    Object[] values = { "bob", 42, new Pojo().withName("alice"), Set.of(new Pojo().withName("eve")) };
+
+    Buffer buffer = Buffer.buffer();
+    format.encodeAll(buffer, values, types);
+
+    assertArrayEquals(values, format.decodeAll(buffer, 0, buffer.length(), types));
+  }
+
+  @Test
+  public void genericTypeCodec_withBinaryFormat() {
+
+    GenericTypeCodec codec = new GenericTypeCodec(Types.getType("listOfMapOfPojos"), WireFormats.binary());
+    List<Map<String, Pojo>> value = List.of(Map.of("bob", new Pojo().withName("bob")));
+
+    Buffer buffer = Buffer.buffer();
+    buffer.appendString("prefix");
+    codec.encodeToWire(buffer, value);
+
+    assertEquals(value, codec.decodeFromWire(6, buffer));
+  }
+
+  @Test
+  public void genericTypeArrayCodec_withBinaryFormat() {
+
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(new Type[] { Pojo.class, String.class },
+                                                            WireFormats.binary());
+    Object[] values = { new Pojo().withName("bob"), "alice" };
+
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, values);
+
+    assertArrayEquals(values, codec.decodeFromWire(0, buffer));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void decode_truncatedPayload_expectException() {
+
+    Buffer buffer = Buffer.buffer();
+    format.encode(buffer, new Pojo().withName("bob"), Pojo.class);
+
+    format.decode(buffer, 0, buffer.length() - 2, Pojo.class);
+  }
+
+  private Object transcode(Object value, Type type) {
+
+    Buffer buffer = Buffer.buffer();
+    format.encode(buffer, value, type);
+    return format.decode(buffer, 0, buffer.length(), type);
+  }
+
+  public enum State {
+    ACTIVE,
+    INACTIVE
+  }
+
+  public static class Types {
+
+    public List<Map<String, Pojo>> listOfMapOfPojos;
+    public Set<Pojo> setOfPojos;
+
+    public static Type getType(String fieldName) {
+
+      try {
+        return Types.class.getField(fieldName).getGenericType();
+      } catch (NoSuchFieldException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  public static class Pojo {
+
+    private String name;
+    private int age;
+    private List<String> tags;
+    private State state;
+
+    public String getName() {
+
+      return name;
+    }
+
+    public void setName(final String name) {
+
+      this.name = name;
+    }
+
+    public Pojo withName(final String name) {
+
+      this.name = name;
+      return this;
+    }
+
+    public int getAge() {
+
+      return age;
+    }
+
+    public void setAge(final int age) {
+
+      this.age = age;
+    }
+
+    public Pojo withAge(final int age) {
+
+      this.age = age;
+      return this;
+    }
+
+    public List<String> getTags() {
+
+      return tags;
+    }
+
+    public void setTags(final List<String> tags) {
+
+      this.tags = tags;
+    }
+
+    public Pojo withTags(final List<String> tags) {
+
+      this.tags = tags;
+      return this;
+    }
+
+    public State getState() {
+
+      return state;
+    }
+
+    public void setState(final State state) {
+
+      this.state = state;
+    }
+
+    public Pojo withState(final State state) {
+
+      this.state = state;
+      return this;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Pojo pojo = (Pojo) o;
+      return age == pojo.age
+          && Objects.equals(name, pojo.name)
+          && Objects.equals(tags, pojo.tags)
+          && state == pojo.state;
+    }
+
+    @Override
+    public int hashCode() {
+
+      return Objects.hash(name, age, tags, state);
+    }
+
+    @Override
+    public String toString() {
+
+      return "Pojo{" + name + ", " + age + ", " + tags + ", " + state + "}";
+    }
+  }
+
+  public static class Node {
+
+    private String name;
+    private Node next;
+
+    public String getName() {
+
+      return name;
+    }
+
+    public void setName(final String name) {
+
+      this.name = name;
+    }
+
+    public Node withName(final String name) {
+
+      this.name = name;
+      return this;
+    }
+
+    public Node getNext() {
+
+      return next;
+    }
+
+    public void setNext(final Node next) {
+
+      this.next = next;
+    }
+
+    public Node withNext(final Node next) {
+
+      this.next = next;
+      return this;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Node node = (Node) o;
+      return Objects.equals(name, node.name) && Objects.equals(next, node.next);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return Objects.hash(name, next);
+    }
+  }
+}
@@ -0,0 +1,259 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.streams.ReadStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ChunkedStreamsTest {
+
+  private Vertx vertx;
+
+  @Before
+  public void setUp() {
+
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+
+    CompletableFuture<Void> closed = new CompletableFuture<>();
+    vertx.close(r -> closed.complete(null));
+    closed.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void publish_and_subscribe_iterable() throws Exception {
+
+    List<Pojo> source = IntStream.range(0, 2500).mapToObj(i -> new Pojo("name" + i)).collect(Collectors.toList());
+
+    List<Pojo> result = readAll(ChunkedStreams.publish(vertx, source, Pojo.class), Pojo.class);
+
+    assertEquals(source, result);
+  }
+
+  @Test
+  public void publish_and_subscribe_withNullElements() throws Exception {
+
+    List<String> source = Arrays.asList("a", null, "c");
+
+    assertEquals(source, readAll(ChunkedStreams.publish(vertx, source, String.class), String.class));
+  }
+
+  @Test
+  public void publish_and_subscribe_readStream() throws Exception {
+
+    List<String> source = IntStream.range(0, 3000).mapToObj(i -> "name" + i).collect(Collectors.toList());
+
+    List<String> result = readAll(ChunkedStreams.publish(vertx, new ListStream<>(source), String.class), String.class);
+
+    assertEquals(source, result);
+  }
+
+  @Test
+  public void subscribe_fetch_deliversOnlyRequestedElements() throws Exception {
+
+    List<Integer> source = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+    String address = await(ChunkedStreams.publish(vertx, source, Integer.class));
+
+    List<Integer> received = new ArrayList<>();
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    vertx.runOnContext(v -> {
+      ReadStream<Integer> stream = ChunkedStreams.subscribe(vertx, address, Integer.class);
+      stream.pause();
+      stream.handler(received::add);
+      stream.fetch(3);
+      vertx.setTimer(200, id -> done.complete(null));
+    });
+    done.get(5, TimeUnit.SECONDS);
+
+    assertEquals(List.of(0, 1, 2), received);
+  }
+
+  @Test
+  public void subscribe_cancel_closesSource() throws Exception {
+
+    List<Integer> source = IntStream.range(0, 5000).boxed().collect(Collectors.toList());
+    String address = await(ChunkedStreams.publish(vertx, source, Integer.class));
+
+    CompletableFuture<Throwable> pullAfterCancel = new CompletableFuture<>();
+    vertx.runOnContext(v -> {
+      ReadStream<Integer> stream = ChunkedStreams.subscribe(vertx, address, Integer.class);
+      stream.handler(i -> {
+        if (i == 0) {
+          stream.handler(null);
+          vertx.setTimer(100, id -> vertx.eventBus().send(address, null, r -> pullAfterCancel.complete(r.cause())));
+        }
+      });
+    });
+
+    assertTrue(pullAfterCancel.get(5, TimeUnit.SECONDS) instanceof ReplyException);
+  }
+
+  @Test
+  public void elementTypeOf() throws Exception {
+
+    Type type = Signatures.class.getMethod("stream").getGenericReturnType();
+    Type futureType = Signatures.class.getMethod("futureStream").getGenericReturnType();
+
+    assertEquals(Pojo.class, ChunkedStreams.elementTypeOf(type));
+    assertEquals(Pojo.class, ChunkedStreams.elementTypeOf(futureType));
+    assertNull(ChunkedStreams.elementTypeOf(Pojo.class));
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    future.setHandler(r -> {
+      if (r.succeeded()) {
+        result.complete(r.result());
+      } else {
+        result.completeExceptionally(r.cause());
+      }
+    });
+    return result.get(5, TimeUnit.SECONDS);
+  }
+
+  private <T> List<T> readAll(Future<String> address, Type elementType) throws Exception {
+
+    CompletableFuture<List<T>> result = new CompletableFuture<>();
+    address.setHandler(addr -> {
+      List<T> elements = new ArrayList<>();
+      ReadStream<T> stream = ChunkedStreams.subscribe(vertx, addr.result(), elementType);
+      stream.exceptionHandler(result::completeExceptionally);
+      stream.endHandler(v -> result.complete(elements));
+      stream.handler(elements::add);
+    });
+    return result.get(10, TimeUnit.SECONDS);
+  }
+
+  public interface Signatures {
+
+    ReadStream<Pojo> stream();
+
+    Future<ReadStream<Pojo>> futureStream();
+  }
+
+  public static class Pojo {
+
+    private String name;
+
+    public Pojo() {
+
+    }
+
+    public Pojo(final String name) {
+
+      this.name = name;
+    }
+
+    public String getName() {
+
+      return name;
+    }
+
+    public void setName(final String name) {
+
+      this.name = name;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+      return o instanceof Pojo && Objects.equals(name, ((Pojo) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return Objects.hashCode(name);
+    }
+  }
+
+  /**
+   * Read stream emitting the elements of a list while it is not paused
+   */
+  private static class ListStream<T> implements ReadStream<T> {
+
+    private final List<T> elements;
+    private int pos;
+    private boolean paused;
+    private Handler<T> handler;
+    private Handler<Void> endHandler;
+
+    ListStream(final List<T> elements) {
+
+      this.elements = elements;
+    }
+
+    @Override
+    public ReadStream<T> exceptionHandler(final Handler<Throwable> handler) {
+
+      return this;
+    }
+
+    @Override
+    public ReadStream<T> handler(final Handler<T> handler) {
+
+      this.handler = handler;
+      return this;
+    }
+
+    @Override
+    public ReadStream<T> pause() {
+
+      paused = true;
+      return this;
+    }
+
+    @Override
+    public ReadStream<T> resume() {
+
+      paused = false;
+      while (!paused && handler != null && pos < elements.size()) {
+        handler.handle(elements.get(pos++));
+      }
+      if (pos == elements.size() && endHandler != null) {
+        final Handler<Void> h = endHandler;
+        endHandler = null;
+        h.handle(null);
+      }
+      return this;
+    }
+
+    @Override
+    public ReadStream<T> fetch(final long amount) {
+
+      return resume();
+    }
+
+    @Override
+    public ReadStream<T> endHandler(final Handler<Void> endHandler) {
+
+      this.endHandler = endHandler;
+      return this;
+    }
+  }
+}
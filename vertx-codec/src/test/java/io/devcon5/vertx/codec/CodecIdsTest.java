@@ -0,0 +1,102 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class CodecIdsTest {
+
+  private Vertx vertx;
+
+  @Before
+  public void setUp() {
+
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+
+    CompletableFuture<Void> closed = new CompletableFuture<>();
+    vertx.close(r -> closed.complete(null));
+    closed.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void localEventBus_usesFullName() throws Exception {
+
+    GenericTypeCodec codec = new GenericTypeCodec(GenericTypesTest.Pojo.class);
+
+    assertEquals(codec.name(), await(CodecIds.register(vertx, codec)));
+    assertEquals(codec.name(), CodecIds.nameFor(vertx, codec));
+  }
+
+  @Test
+  public void negotiate_sameNameSameId() throws Exception {
+
+    String first = await(CodecIds.negotiate(vertx, new GenericTypeCodec(GenericTypesTest.Pojo.class)));
+    String second = await(CodecIds.negotiate(vertx, new GenericTypeCodec(GenericTypesTest.Pojo.class)));
+    String other = await(CodecIds.negotiate(vertx, new GenericTypeArrayCodec(new Type[] { String.class })));
+
+    assertTrue(first, first.startsWith(CodecIds.ID_PREFIX));
+    assertEquals(first, second);
+    assertFalse(first.equals(other));
+    assertTrue(first.length() < GenericTypeCodec.codecNameFor(GenericTypesTest.Pojo.class).length());
+  }
+
+  @Test
+  public void negotiate_registersCodecUnderId() throws Exception {
+
+    GenericTypeCodec codec = new GenericTypeCodec(GenericTypesTest.Pojo.class);
+    String id = await(CodecIds.negotiate(vertx, codec));
+
+    CompletableFuture<Object> received = new CompletableFuture<>();
+    vertx.eventBus().consumer("pojo", msg -> received.complete(msg.body()));
+    vertx.eventBus().send("pojo", new GenericTypesTest.Pojo().withName("bob"), new DeliveryOptions().setCodecName(id));
+
+    assertEquals(new GenericTypesTest.Pojo().withName("bob"), received.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void aliasCodec_delegates() {
+
+    GenericTypeCodec codec = new GenericTypeCodec(List.class);
+    CodecIds.AliasCodec<Object, Object> alias = new CodecIds.AliasCodec<>("#1", codec);
+
+    Buffer buffer = Buffer.buffer();
+    alias.encodeToWire(buffer, List.of("bob"));
+
+    assertEquals("#1", alias.name());
+    assertEquals(List.of("bob"), codec.decodeFromWire(0, buffer));
+    assertEquals(List.of("bob"), alias.decodeFromWire(0, buffer));
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    future.setHandler(r -> {
+      if (r.succeeded()) {
+        result.complete(r.result());
+      } else {
+        result.completeExceptionally(r.cause());
+      }
+    });
+    return result.get(5, TimeUnit.SECONDS);
+  }
+}
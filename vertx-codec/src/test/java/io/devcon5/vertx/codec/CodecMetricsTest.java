@@ -0,0 +1,136 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class CodecMetricsTest {
+
+  @Before
+  public void setUp() {
+
+    CodecMetrics.setEnabled(true);
+  }
+
+  @After
+  public void tearDown() {
+
+    CodecMetrics.setEnabled(false);
+  }
+
+  @Test
+  public void encodeAndDecode_recorded() {
+
+    GenericTypeCodec codec = new GenericTypeCodec(GenericTypesTest.Pojo.class);
+    CodecMetrics metrics = CodecMetrics.getMetrics().get(codec.name());
+    long encodes = metrics.getEncode().getCount();
+    long decodes = metrics.getDecode().getCount();
+    long bytesOut = metrics.getBytesOut();
+    long bytesIn = metrics.getBytesIn();
+
+    Buffer buffer = Buffer.buffer().appendString("prefix");
+    codec.encodeToWire(buffer, new GenericTypesTest.Pojo().withName("bob"));
+    codec.decodeFromWire(6, buffer);
+
+    assertEquals(encodes + 1, metrics.getEncode().getCount());
+    assertEquals(decodes + 1, metrics.getDecode().getCount());
+    assertEquals(bytesOut + buffer.length() - 6, metrics.getBytesOut());
+    assertEquals(bytesIn + buffer.length() - 6, metrics.getBytesIn());
+    assertTrue(metrics.getEncode().getTotalNanos() > 0);
+  }
+
+  @Test
+  public void transform_strategyRecorded() {
+
+    GenericTypeCodec codec = new GenericTypeCodec(GenericTypesTest.Pojo.class);
+    CodecMetrics metrics = CodecMetrics.getMetrics().get(codec.name());
+    long transforms = metrics.getTransform().getCount();
+    long deepCopies = metrics.getStrategies().get(GenericTypeTransformation.Strategy.DEEP_COPY);
+
+    codec.transform(new GenericTypesTest.Pojo().withName("bob"));
+
+    assertEquals(transforms + 1, metrics.getTransform().getCount());
+    assertEquals(deepCopies + 1, (long) metrics.getStrategies().get(GenericTypeTransformation.Strategy.DEEP_COPY));
+  }
+
+  @Test
+  public void arrayCodec_recorded() {
+
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(new Type[] { String.class, Long.class });
+    CodecMetrics metrics = CodecMetrics.getMetrics().get(codec.name());
+    long immutables = metrics.getStrategies().get(GenericTypeTransformation.Strategy.IMMUTABLE);
+
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, new Object[] { "bob", 42L });
+    codec.decodeFromWire(0, buffer);
+    codec.transform(new Object[] { "bob", 42L });
+
+    assertTrue(metrics.getEncode().getCount() > 0);
+    assertTrue(metrics.getDecode().getCount() > 0);
+    assertEquals(immutables + 2, (long) metrics.getStrategies().get(GenericTypeTransformation.Strategy.IMMUTABLE));
+  }
+
+  @Test
+  public void disabled_notRecorded() {
+
+    CodecMetrics.setEnabled(false);
+    GenericTypeCodec codec = new GenericTypeCodec(GenericTypesTest.Pojo.class);
+    CodecMetrics metrics = CodecMetrics.getMetrics().get(codec.name());
+    long encodes = metrics.getEncode().getCount();
+
+    codec.encodeToWire(Buffer.buffer(), new GenericTypesTest.Pojo().withName("bob"));
+
+    assertEquals(encodes, metrics.getEncode().getCount());
+  }
+
+  @Test
+  public void timer_percentiles() {
+
+    CodecMetrics.Timer timer = new CodecMetrics.Timer();
+    for (int i = 0; i < 99; i++) {
+      timer.record(100);
+    }
+    timer.record(100_000);
+
+    assertEquals(100, timer.getCount());
+    assertEquals(99 * 100 + 100_000, timer.getTotalNanos());
+    assertEquals(127, timer.getPercentileNanos(0.5));
+    assertEquals(127, timer.getPercentileNanos(0.99));
+    assertEquals(100_000, timer.getPercentileNanos(1.0));
+    assertEquals(100_000, timer.getMaxNanos());
+    assertEquals(0, new CodecMetrics.Timer().getPercentileNanos(0.5));
+  }
+
+  @Test
+  public void publish_periodically() throws Exception {
+
+    Vertx vertx = Vertx.vertx();
+    try {
+      GenericTypeCodec codec = new GenericTypeCodec(GenericTypesTest.Pojo.class);
+      codec.encodeToWire(Buffer.buffer(), new GenericTypesTest.Pojo().withName("bob"));
+      CompletableFuture<JsonObject> published = new CompletableFuture<>();
+      vertx.eventBus().<JsonObject>consumer(CodecMetrics.ADDRESS, msg -> published.complete(msg.body()));
+
+      CodecMetrics.publish(vertx, CodecMetrics.ADDRESS, 10);
+
+      JsonObject metrics = published.get(5, TimeUnit.SECONDS).getJsonObject(codec.name());
+      assertTrue(metrics.getJsonObject("encode").getLong("count") > 0);
+      assertTrue(metrics.getLong("bytesOut") > 0);
+    } finally {
+      vertx.close();
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.vertx.core.Future;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class CodecRegistryTest {
+
+  private final CodecRegistry registry = new CodecRegistry(4);
+
+  @Test
+  public void codecFor_equalGenericTypes_sameCodec() throws Exception {
+
+    Type first = Signatures.class.getMethod("first", List.class, String.class).getGenericParameterTypes()[0];
+    Type second = Signatures.class.getMethod("second", List.class, int.class).getGenericParameterTypes()[0];
+
+    assertSame(registry.codecFor(first), registry.codecFor(second));
+    assertEquals(1, registry.getMisses());
+    assertEquals(1, registry.getHits());
+  }
+
+  @Test
+  public void codecFor_futureType_sameCodecAsValueType() throws Exception {
+
+    Type future = Signatures.class.getMethod("future").getGenericReturnType();
+
+    assertSame(registry.codecFor(String.class), registry.codecFor(future));
+  }
+
+  @Test
+  public void codecFor_equalSignatures_sameCodec() throws Exception {
+
+    Type[] first = Signatures.class.getMethod("first", List.class, String.class).getGenericParameterTypes();
+    Type[] again = Signatures.class.getMethod("first", List.class, String.class).getGenericParameterTypes();
+
+    assertSame(registry.codecFor(first), registry.codecFor(again));
+  }
+
+  @Test
+  public void codecFor_differentSignatures_differentCodecs() throws Exception {
+
+    Type[] first = Signatures.class.getMethod("first", List.class, String.class).getGenericParameterTypes();
+    Type[] second = Signatures.class.getMethod("second", List.class, int.class).getGenericParameterTypes();
+
+    GenericTypeArrayCodec firstCodec = registry.codecFor(first);
+    GenericTypeArrayCodec secondCodec = registry.codecFor(second);
+
+    assertNotSame(firstCodec, secondCodec);
+    assertEquals("[java.util.List<java.util.Map<java.lang.String, java.lang.Integer>>, java.lang.String]",
+                 firstCodec.name());
+    assertEquals("[java.util.List<java.util.Map<java.lang.String, java.lang.Integer>>, int]", secondCodec.name());
+  }
+
+  @Test
+  public void codecFor_exceedingMaxSize_evicts() {
+
+    registry.codecFor(String.class);
+    registry.codecFor(Integer.class);
+    registry.codecFor(Long.class);
+    registry.codecFor(Double.class);
+    registry.codecFor(Float.class);
+    registry.codecFor(Short.class);
+
+    assertEquals(4, registry.size());
+    assertEquals(2, registry.getEvictions());
+  }
+
+  @Test
+  public void codecFor_concurrentThreads_sameCodec() throws Exception {
+
+    CompletableFuture<GenericTypeCodec> other = CompletableFuture.supplyAsync(() -> registry.codecFor(Pojo.class));
+
+    assertSame(registry.codecFor(Pojo.class), other.get());
+  }
+
+  @Test
+  public void forType_usesGlobalRegistry() {
+
+    assertSame(GenericTypeCodec.forType(Pojo.class), GenericTypeCodec.forType(Pojo.class));
+    assertSame(GenericTypeArrayCodec.forType(new Type[] { Pojo.class, String.class }),
+               GenericTypeArrayCodec.forType(new Type[] { Pojo.class, String.class }));
+    assertTrue(CodecRegistry.getInstance().getHits() >= 2);
+  }
+
+  public interface Signatures {
+
+    void first(List<Map<String, Integer>> values, String name);
+
+    void second(List<Map<String, Integer>> values, int count);
+
+    Future<String> future();
+  }
+
+  public static class Pojo {
+
+  }
+}
@@ -0,0 +1,148 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class CompressionTest {
+
+  @Test
+  public void largePayload_compressed() {
+
+    List<String> payload = documents(1000);
+    Buffer compressed = Buffer.buffer();
+    Buffer uncompressed = Buffer.buffer();
+
+    new GenericTypeCodec(List.class, WireFormats.json(), Compression.deflate(1024)).encodeToWire(compressed, payload);
+    new GenericTypeCodec(List.class, WireFormats.json(), Compression.none()).encodeToWire(uncompressed, payload);
+
+    assertTrue(Compression.isCompressed(compressed.getInt(0)));
+    assertTrue(compressed.length() * 5 < uncompressed.length());
+    //the receiving codec does not have to compress itself
+    assertEquals(payload, new GenericTypeCodec(List.class, WireFormats.json(), Compression.none())
+        .decodeFromWire(0, compressed));
+  }
+
+  @Test
+  public void smallPayload_notCompressed() {
+
+    List<String> payload = documents(2);
+    Buffer compressed = Buffer.buffer();
+    Buffer uncompressed = Buffer.buffer();
+
+    new GenericTypeCodec(List.class, WireFormats.json(), Compression.deflate(1024)).encodeToWire(compressed, payload);
+    new GenericTypeCodec(List.class, WireFormats.json(), Compression.none()).encodeToWire(uncompressed, payload);
+
+    assertEquals(uncompressed, compressed);
+  }
+
+  @Test
+  public void incompressiblePayload_notCompressed() {
+
+    byte[] random = new byte[4096];
+    new Random(42).nextBytes(random);
+    Buffer buffer = Buffer.buffer().appendString("prefix");
+
+    new GenericTypeCodec(Buffer.class, WireFormats.binary(), Compression.deflate(0))
+        .encodeToWire(buffer, Buffer.buffer(random));
+
+    assertTrue(buffer.getInt(6) > 0);
+  }
+
+  @Test
+  public void arrayCodec_compressed() {
+
+    Type[] types = { String.class, List.class };
+    Object[] args = { "bob", documents(1000) };
+    Buffer buffer = Buffer.buffer().appendString("prefix");
+
+    new GenericTypeArrayCodec(types, WireFormats.binary(), Compression.deflate(1024)).encodeToWire(buffer, args);
+    Object[] decoded = new GenericTypeArrayCodec(types, WireFormats.binary()).decodeFromWire(6, buffer);
+
+    assertTrue(Compression.isCompressed(buffer.getInt(6)));
+    assertEquals("bob", decoded[0]);
+    assertEquals(args[1], decoded[1]);
+  }
+
+  @Test(expected = DecodeException.class)
+  public void unknownCompressor_rejected() {
+
+    Buffer buffer = Buffer.buffer().appendInt(-3).appendByte((byte) 99).appendShort((short) 0);
+
+    new GenericTypeCodec(List.class).decodeFromWire(0, buffer);
+  }
+
+  @Test(expected = DecodeException.class)
+  public void negativeDecompressedLength_rejected() {
+
+    decompressDeclaring(-1, 4096);
+  }
+
+  @Test(expected = DecodeException.class)
+  public void excessiveDecompressedLength_rejected() {
+
+    decompressDeclaring(Integer.MAX_VALUE, 4096);
+  }
+
+  @Test(expected = DecodeException.class)
+  public void shorterThanDeclared_rejected() {
+
+    decompressDeclaring(4097, 4096);
+  }
+
+  @Test(expected = DecodeException.class)
+  public void longerThanDeclared_rejected() {
+
+    decompressDeclaring(4095, 4096);
+  }
+
+  @Test
+  public void declaredLength_decompressed() {
+
+    assertEquals(4096, decompressDeclaring(4096, 4096).length());
+  }
+
+  @Test
+  public void forName_deflate() {
+
+    assertEquals("deflate", Compression.forName("deflate").name());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void forName_unknown() {
+
+    Compression.forName("unknown");
+  }
+
+  /**
+   * Compresses a payload of the specified size and replaces its declared length
+   */
+  private static Buffer decompressDeclaring(int declared, int size) {
+
+    Compression.DeflateCompressor compressor = new Compression.DeflateCompressor();
+    Buffer compressed = compressor.compress(Buffer.buffer(new byte[size]), 0, size);
+    compressed.setInt(0, declared);
+
+    return compressor.decompress(compressed, 0, compressed.length());
+  }
+
+  private static List<String> documents(int count) {
+
+    List<String> documents = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      documents.add("{\"id\":" + i + ",\"title\":\"Document\",\"status\":\"PUBLISHED\"}");
+    }
+    return documents;
+  }
+}
@@ -0,0 +1,294 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class CopiersTest {
+
+  @Test
+  public void copy_null() {
+
+    assertNull(Copiers.copy(null));
+  }
+
+  @Test
+  public void copy_immutableValues_shared() {
+
+    String string = new String("bob");
+    BigDecimal decimal = new BigDecimal("1.5");
+    LocalDate date = LocalDate.now();
+
+    assertSame(string, Copiers.copy(string));
+    assertSame(decimal, Copiers.copy(decimal));
+    assertSame(date, Copiers.copy(date));
+    assertSame(State.ACTIVE, Copiers.copy(State.ACTIVE));
+  }
+
+  @Test
+  public void copy_shareable() {
+
+    JsonObject json = new JsonObject().put("name", "bob");
+
+    Object copy = Copiers.copy(json);
+
+    assertEquals(json, copy);
+    assertNotSame(json, copy);
+  }
+
+  @Test
+  public void copy_pojo() {
+
+    Pojo pojo = new Pojo("bob", 42).withTags("a", "b").withState(State.ACTIVE);
+
+    Pojo copy = (Pojo) Copiers.copy(pojo);
+
+    assertEquals(pojo, copy);
+    assertNotSame(pojo, copy);
+    assertNotSame(pojo.tags, copy.tags);
+    assertSame(pojo.name, copy.name);
+  }
+
+  @Test
+  public void copy_pojo_isIndependent() {
+
+    Pojo pojo = new Pojo("bob", 42).withTags("a");
+
+    Pojo copy = (Pojo) Copiers.copy(pojo);
+    pojo.tags.add("b");
+
+    assertEquals(1, copy.tags.size());
+  }
+
+  @Test
+  public void copy_subclass_copiesInheritedFields() {
+
+    SubPojo pojo = new SubPojo();
+    pojo.withTags("a");
+    pojo.nickname = "bobby";
+
+    SubPojo copy = (SubPojo) Copiers.copy(pojo);
+
+    assertEquals(List.of("a"), ((Pojo) copy).tags);
+    assertEquals("bobby", copy.nickname);
+  }
+
+  @Test
+  public void copy_nestedCollections() {
+
+    Map<String, List<Pojo>> value = new HashMap<>();
+    value.put("bob", new ArrayList<>(List.of(new Pojo("bob", 1))));
+
+    Map<String, List<Pojo>> copy = (Map<String, List<Pojo>>) Copiers.copy(value);
+
+    assertEquals(value, copy);
+    assertNotSame(value.get("bob"), copy.get("bob"));
+    assertNotSame(value.get("bob").get(0), copy.get("bob").get(0));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void copy_immutableList_staysImmutable() {
+
+    List<Pojo> copy = (List<Pojo>) Copiers.copy(List.of(new Pojo("bob", 1)));
+
+    copy.add(new Pojo("alice", 2));
+  }
+
+  @Test
+  public void copy_singletonsWithNullElements() {
+
+    Pojo bob = new Pojo("bob", 1);
+    List<Object> value = new ArrayList<>();
+    value.add(Collections.singletonList(null));
+    value.add(Arrays.asList(bob, null));
+    value.add(Collections.singleton(null));
+    value.add(Collections.singletonMap(bob, null));
+    value.add(Collections.singletonMap(null, bob));
+    value.add(Collections.singletonList(bob));
+    value.add(Collections.singletonMap("bob", List.of(bob)));
+
+    List<Object> copy = (List<Object>) Copiers.copy(value);
+
+    assertEquals(value, copy);
+    assertNotSame(bob, ((List<?>) copy.get(5)).get(0));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void copy_singletonList_staysImmutable() {
+
+    List<Pojo> copy = (List<Pojo>) Copiers.copy(Collections.singletonList(new Pojo("bob", 1)));
+
+    copy.add(null);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void copy_unmodifiableList_staysUnmodifiable() {
+
+    List<Pojo> copy = (List<Pojo>) Copiers.copy(Collections.unmodifiableList(new ArrayList<>()));
+
+    copy.add(new Pojo("alice", 2));
+  }
+
+  @Test
+  public void copy_sortedSet_keepsComparator() {
+
+    SortedSet<String> value = new TreeSet<>(Comparator.reverseOrder());
+    value.addAll(Set.of("a", "b", "c"));
+
+    SortedSet<String> copy = (SortedSet<String>) Copiers.copy(value);
+
+    assertEquals("c", copy.first());
+  }
+
+  @Test
+  public void copy_arrays() {
+
+    int[] ints = { 1, 2, 3 };
+    Pojo[] pojos = { new Pojo("bob", 1), null };
+
+    int[] intsCopy = (int[]) Copiers.copy(ints);
+    Pojo[] pojosCopy = (Pojo[]) Copiers.copy(pojos);
+
+    assertArrayEquals(ints, intsCopy);
+    assertNotSame(ints, intsCopy);
+    assertArrayEquals(pojos, pojosCopy);
+    assertNotSame(pojos[0], pojosCopy[0]);
+  }
+
+  @Test(expected = Copiers.NotCopyableException.class)
+  public void copy_cyclicGraph_notCopyable() {
+
+    Node node = new Node();
+    node.next = node;
+
+    Copiers.copy(node);
+  }
+
+  @Test(expected = Copiers.NotCopyableException.class)
+  public void copy_noDefaultConstructor_notCopyable() {
+
+    Copiers.copy(new NoDefaultConstructor("bob"));
+  }
+
+  @Test
+  public void transformation_cyclicGraph_fallsBackToSerialization() {
+
+    Node node = new Node();
+    node.next = node;
+
+    Node copy = (Node) GenericTypeTransformation.copy(node, new GenericTypeCodec(Node.class));
+
+    assertNotSame(node, copy);
+    assertSame(copy, copy.next);
+  }
+
+  @Test
+  public void transformation_arrayWithNulls() {
+
+    Object[] args = { new Pojo("bob", 1), null, "alice" };
+
+    Object[] copy = GenericTypeTransformation.copy(args,
+                                                   new GenericTypeArrayCodec(new java.lang.reflect.Type[] {
+                                                       Pojo.class, Pojo.class, String.class }));
+
+    assertArrayEquals(args, copy);
+    assertNotSame(args[0], copy[0]);
+  }
+
+  public enum State {
+    ACTIVE,
+    INACTIVE
+  }
+
+  public static class Pojo {
+
+    private String name;
+    private int age;
+    private List<String> tags = new ArrayList<>();
+    private State state;
+
+    private Pojo() {
+
+    }
+
+    public Pojo(final String name, final int age) {
+
+      this.name = name;
+      this.age = age;
+    }
+
+    public Pojo withTags(String... tags) {
+
+      this.tags.addAll(List.of(tags));
+      return this;
+    }
+
+    public Pojo withState(final State state) {
+
+      this.state = state;
+      return this;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Pojo pojo = (Pojo) o;
+      return age == pojo.age && Objects.equals(name, pojo.name) && Objects.equals(tags, pojo.tags) && state == pojo.state;
+    }
+
+    @Override
+    public int hashCode() {
+
+      return Objects.hash(name, age, tags, state);
+    }
+  }
+
+  public static class SubPojo extends Pojo {
+
+    private String nickname;
+  }
+
+  public static class Node implements Serializable {
+
+    private Node next;
+  }
+
+  public static class NoDefaultConstructor {
+
+    private String name;
+
+    public NoDefaultConstructor(final String name) {
+
+      this.name = name;
+    }
+  }
+}
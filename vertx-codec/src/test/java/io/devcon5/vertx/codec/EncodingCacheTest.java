@@ -0,0 +1,229 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class EncodingCacheTest {
+
+  @Test
+  public void disabled_byDefault() {
+
+    EncodingCache cache = new EncodingCache(0, 0);
+
+    assertNull(cache.keyFor(Snapshot.class, WireFormats.json(), new Snapshot(1, "a")));
+  }
+
+  @Test
+  public void mutablePayload_notCached() {
+
+    EncodingCache cache = new EncodingCache(16, 0);
+
+    assertNull(cache.keyFor(List.class, WireFormats.json(), new ArrayList<>()));
+  }
+
+  @Test
+  public void immutableByContentOnly_notCached() {
+
+    EncodingCache cache = new EncodingCache(16, 0);
+
+    assertNull(cache.keyFor(List.class, WireFormats.json(), List.of("a", "b")));
+  }
+
+  @Test
+  public void immutableType_keyedPerClass() {
+
+    EncodingCache cache = new EncodingCache(16, 0);
+
+    assertNotNull(cache.keyFor(ImmutablePayload.class, WireFormats.json(), new ImmutablePayload("bob")));
+  }
+
+  @Test
+  public void versionedPayload_encodedOncePerVersion() {
+
+    EncodingCache cache = new EncodingCache(16, 0);
+    GenericTypeCodec codec = new GenericTypeCodec(Snapshot.class, WireFormats.json(), cache);
+
+    Buffer first = Buffer.buffer();
+    codec.encodeToWire(first, new Snapshot(1, "a"));
+    //same version, so the cached encoding is used
+    Buffer second = Buffer.buffer();
+    codec.encodeToWire(second, new Snapshot(1, "b"));
+    Buffer third = Buffer.buffer();
+    codec.encodeToWire(third, new Snapshot(2, "c"));
+
+    assertEquals(first, second);
+    assertEquals("a", ((Snapshot) codec.decodeFromWire(0, second)).getContent());
+    assertEquals("c", ((Snapshot) codec.decodeFromWire(0, third)).getContent());
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  public void immutablePayload_cachedByIdentity() {
+
+    EncodingCache cache = new EncodingCache(16, 0);
+    GenericTypeCodec codec = new GenericTypeCodec(ImmutablePayload.class, WireFormats.binary(), cache);
+    ImmutablePayload payload = new ImmutablePayload("bob");
+
+    Buffer buffer = Buffer.buffer().appendString("prefix");
+    codec.encodeToWire(buffer, payload);
+    codec.encodeToWire(buffer, payload);
+    codec.encodeToWire(buffer, new ImmutablePayload("bob"));
+
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    final int length = buffer.getInt(6);
+    assertEquals("bob", ((ImmutablePayload) codec.decodeFromWire(6 + 4 + length, buffer)).getName());
+  }
+
+  @Test
+  public void smallPayload_notCached() {
+
+    EncodingCache cache = new EncodingCache(16, 1024);
+    GenericTypeCodec codec = new GenericTypeCodec(Snapshot.class, WireFormats.json(), cache);
+
+    codec.encodeToWire(Buffer.buffer(), new Snapshot(1, "a"));
+    codec.encodeToWire(Buffer.buffer(), new Snapshot(1, "a"));
+
+    assertEquals(0, cache.getHits());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void fullCache_evictsEntries() {
+
+    EncodingCache cache = new EncodingCache(2, 0);
+    GenericTypeCodec codec = new GenericTypeCodec(Snapshot.class, WireFormats.json(), cache);
+
+    for (int i = 0; i < 10; i++) {
+      codec.encodeToWire(Buffer.buffer(), new Snapshot(i, "a"));
+    }
+
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void immutableArguments_encodedOnce() {
+
+    EncodingCache cache = new EncodingCache(16, 0);
+    Type[] types = { String.class, ImmutablePayload.class, Snapshot.class };
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(types, WireFormats.json(), cache);
+    ImmutablePayload payload = new ImmutablePayload("bob");
+
+    Buffer first = Buffer.buffer();
+    codec.encodeToWire(first, new Object[] { "hello", payload, new Snapshot(1, "a") });
+    Buffer second = Buffer.buffer();
+    codec.encodeToWire(second, new Object[] { "hello", payload, new Snapshot(1, "b") });
+    codec.encodeToWire(Buffer.buffer(), new Object[] { "bye", payload, new Snapshot(1, "a") });
+
+    assertEquals(first, second);
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    Object[] decoded = codec.decodeFromWire(0, second);
+    assertEquals("hello", decoded[0]);
+    assertEquals("bob", ((ImmutablePayload) decoded[1]).getName());
+    assertEquals("a", ((Snapshot) decoded[2]).getContent());
+  }
+
+  @Test
+  public void mutableArgument_notCached() {
+
+    EncodingCache cache = new EncodingCache(16, 0);
+    Type[] types = { String.class, List.class };
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(types, WireFormats.json(), cache);
+
+    codec.encodeToWire(Buffer.buffer(), new Object[] { "hello", new ArrayList<>() });
+
+    assertNull(cache.keyFor(types, WireFormats.json(), new Object[] { "hello", new ArrayList<>() }));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void nullArgument_cached() {
+
+    EncodingCache cache = new EncodingCache(16, 0);
+    Type[] types = { String.class, ImmutablePayload.class };
+
+    assertNotNull(cache.keyFor(types, WireFormats.json(), new Object[] { null, null }));
+    assertEquals(cache.keyFor(types, WireFormats.json(), new Object[] { "a", null }),
+                 cache.keyFor(types, WireFormats.json(), new Object[] { "a", null }));
+  }
+
+  public static class Snapshot implements Versioned {
+
+    private long version;
+    private String content;
+
+    public Snapshot() {
+
+    }
+
+    Snapshot(final long version, final String content) {
+
+      this.version = version;
+      this.content = content;
+    }
+
+    @Override
+    public long version() {
+
+      return version;
+    }
+
+    public long getVersion() {
+
+      return version;
+    }
+
+    public void setVersion(final long version) {
+
+      this.version = version;
+    }
+
+    public String getContent() {
+
+      return content;
+    }
+
+    public void setContent(final String content) {
+
+      this.content = content;
+    }
+  }
+
+  @Immutable
+  public static class ImmutablePayload {
+
+    private String name;
+
+    public ImmutablePayload() {
+
+    }
+
+    ImmutablePayload(final String name) {
+
+      this.name = name;
+    }
+
+    public String getName() {
+
+      return name;
+    }
+
+    public void setName(final String name) {
+
+      this.name = name;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package io.devcon5.vertx.codec;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import java.lang.reflect.Type;
@@ -12,6 +13,8 @@ import java.util.Objects;
 import java.util.Set;
 
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import org.junit.Test;
 
 /**
@@ -39,6 +42,45 @@ public class GenericTypeArrayCodecTest {
     assertEquals(expected,codecName);
   }
 
+  @Test
+  public void encodeToWire_and_decodeFromWire_simpleArgs() throws Exception {
+
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(TestContract.class.getMethod("testMethod",
+                                                                                        String.class,
+                                                                                        Integer.class,
+                                                                                        Boolean.class)
+                                                                              .getGenericParameterTypes());
+
+    Object[] recv = transcode(codec, "bob", 42, true);
+
+    assertArrayEquals(new Object[] { "bob", 42, true }, recv);
+  }
+
+  @Test
+  public void encodeToWire_and_decodeFromWire_vertxTypeArgs() throws Exception {
+
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(new Type[] { JsonObject.class,
+                                                                         JsonArray.class,
+                                                                         Buffer.class });
+
+    Object[] args = { new JsonObject().put("name", "bob"), new JsonArray().add(1).add("two"), Buffer.buffer("123") };
+    Object[] recv = transcode(codec, args);
+
+    assertArrayEquals(args, recv);
+  }
+
+  @Test
+  public void encodeToWire_singleJsonArray() throws Exception {
+
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(new Type[] { String.class, Pojo.class });
+
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, new Object[] { "bob", new Pojo().withValue("test") });
+
+    assertEquals(buffer.length() - 4, buffer.getInt(0));
+    assertEquals("[\"bob\",{\"value\":\"test\"}]", buffer.getString(4, buffer.length()));
+  }
+
   @Test
   public void encodeToWire_and_decodeFromWire_pojoArg() throws Exception {
 
@@ -76,6 +76,22 @@ public class GenericTypeCodecTest {
     assertEquals("{\"name\":\"bob\"}", buffer.slice(4, buffer.length()).toString("UTF-8"));
   }
 
+  @Test
+  public void encodeToWire_afterExistingContent() {
+
+    GenericTypeCodec codec = new GenericTypeCodec(Pojo.class);
+    Buffer buffer = Buffer.buffer().appendString("header");
+
+    codec.encodeToWire(buffer, new Pojo().withName("bob"));
+    codec.encodeToWire(buffer, new Pojo().withName("alice"));
+
+    assertEquals(14, buffer.getInt(6));
+    assertEquals(new Pojo().withName("bob"), codec.decodeFromWire(6, buffer));
+    assertEquals(16, buffer.getInt(24));
+    assertEquals(new Pojo().withName("alice"), codec.decodeFromWire(24, buffer));
+    assertEquals(44, buffer.length());
+  }
+
   @Test
   public void decodeFromWire() {
 
@@ -0,0 +1,226 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.devcon5.vertx.codec.GenericTypeTransformation.CopyStats;
+import io.devcon5.vertx.codec.GenericTypeTransformation.Strategy;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class GenericTypeTransformationTest {
+
+  @Test
+  public void copy_immutable_recordsImmutable() {
+
+    ImmutableValue value = new ImmutableValue("bob");
+
+    Object copy1 = GenericTypeTransformation.copy(value, new GenericTypeCodec(ImmutableValue.class));
+    Object copy2 = GenericTypeTransformation.copy(value, new GenericTypeCodec(ImmutableValue.class));
+
+    assertSame(value, copy1);
+    assertSame(value, copy2);
+    assertStats(ImmutableValue.class, Strategy.IMMUTABLE, 2, 0);
+  }
+
+  @Test
+  public void copy_bean_recordsDeepCopy() {
+
+    Bean bean = new Bean();
+    bean.name = "bob";
+
+    Bean copy = (Bean) GenericTypeTransformation.copy(bean, new GenericTypeCodec(Bean.class));
+
+    assertNotSame(bean, copy);
+    assertEquals("bob", copy.name);
+    assertStats(Bean.class, Strategy.DEEP_COPY, 1, 0);
+  }
+
+  @Test
+  public void copy_serializable_recordsSerialization() {
+
+    SerializableValue value = new SerializableValue("bob");
+
+    GenericTypeCodec codec = new GenericTypeCodec(SerializableValue.class);
+
+    SerializableValue copy1 = (SerializableValue) GenericTypeTransformation.copy(value, codec);
+    SerializableValue copy2 = (SerializableValue) GenericTypeTransformation.copy(value, codec);
+
+    assertNotSame(value, copy1);
+    assertNotSame(value, copy2);
+    assertEquals("bob", copy2.name);
+    assertStats(SerializableValue.class, Strategy.SERIALIZATION, 2, 0);
+  }
+
+  @Test
+  public void copy_notCopyable_recordsCodec() {
+
+    CodecOnlyValue value = new CodecOnlyValue("bob");
+
+    CodecOnlyValue copy = (CodecOnlyValue) GenericTypeTransformation.copy(value,
+                                                                         new GenericTypeCodec(CodecOnlyValue.class));
+
+    assertNotSame(value, copy);
+    assertEquals("bob", copy.name);
+    assertStats(CodecOnlyValue.class, Strategy.CODEC, 1, 0);
+  }
+
+  @Test
+  public void copy_recordedStrategyFails_fallsBack() {
+
+    List<String> mutable = new ArrayList<>();
+    mutable.add("bob");
+
+    Object shared = GenericTypeTransformation.copy(new Holder("bob"), new GenericTypeCodec(Holder.class));
+    Holder copy = (Holder) GenericTypeTransformation.copy(new Holder(mutable), new GenericTypeCodec(Holder.class));
+
+    assertEquals("bob", ((Holder) shared).value);
+    assertNotSame(mutable, copy.value);
+    assertEquals(mutable, copy.value);
+    assertStats(Holder.class, Strategy.SERIALIZATION, 2, 1);
+  }
+
+  @Test
+  public void copy_array_recordsElementTypes() {
+
+    ArrayElement element = new ArrayElement();
+
+    Object[] copy = GenericTypeTransformation.copy(new Object[] { element, null },
+                                                   new GenericTypeArrayCodec(new java.lang.reflect.Type[] {
+                                                       ArrayElement.class, String.class }));
+
+    assertNotSame(element, copy[0]);
+    assertStats(ArrayElement.class, Strategy.DEEP_COPY, 1, 0);
+  }
+
+  @Test
+  public void copy_classOfOtherLoader_loaderNotRetained() throws Exception {
+
+    WeakReference<ClassLoader> loader = copyWithOwnLoader(ImmutableValue.class);
+
+    for (int i = 0; i < 50 && loader.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(loader.get());
+  }
+
+  private static WeakReference<ClassLoader> copyWithOwnLoader(Class<?> type) throws Exception {
+
+    ClassLoader loader = new IsolatingClassLoader(type);
+    Object value = loader.loadClass(type.getName()).getConstructor(String.class).newInstance("bob");
+
+    assertSame(value, GenericTypeTransformation.copy(value, null));
+    assertTrue(GenericTypeTransformation.getCopyStats().containsKey(value.getClass()));
+    return new WeakReference<>(loader);
+  }
+
+  private static void assertStats(Class<?> type, Strategy strategy, long copies, long fallbacks) {
+
+    CopyStats stats = GenericTypeTransformation.getCopyStats().get(type);
+    assertEquals(strategy, stats.getStrategy());
+    assertEquals(copies, stats.getCopies());
+    assertEquals(fallbacks, stats.getFallbacks());
+  }
+
+  /**
+   * Loads a single class by itself, like the class loader of a redeployed verticle
+   */
+  private static class IsolatingClassLoader extends ClassLoader {
+
+    private final String className;
+
+    IsolatingClassLoader(final Class<?> type) {
+
+      super(type.getClassLoader());
+      this.className = type.getName();
+    }
+
+    @Override
+    protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+
+      if (!className.equals(name)) {
+        return super.loadClass(name, resolve);
+      }
+      try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+        final byte[] bytes = in.readAllBytes();
+        return defineClass(name, bytes, 0, bytes.length);
+      } catch (IOException e) {
+        throw new ClassNotFoundException(name, e);
+      }
+    }
+  }
+
+  public static final class ImmutableValue {
+
+    private final String name;
+
+    public ImmutableValue(final String name) {
+
+      this.name = name;
+    }
+  }
+
+  public static class Bean {
+
+    private String name;
+  }
+
+  public static class ArrayElement {
+
+    private String name;
+  }
+
+  public static class SerializableValue implements Serializable {
+
+    private String name;
+
+    public SerializableValue(final String name) {
+
+      this.name = name;
+    }
+  }
+
+  public static class CodecOnlyValue {
+
+    private String name;
+
+    @JsonCreator
+    public CodecOnlyValue(@JsonProperty("name") final String name) {
+
+      this.name = name;
+    }
+
+    public String getName() {
+
+      return name;
+    }
+  }
+
+  /**
+   * Immutable only if the value is immutable
+   */
+  public static final class Holder implements Serializable {
+
+    private final Object value;
+
+    public Holder(final Object value) {
+
+      this.value = value;
+    }
+  }
+}
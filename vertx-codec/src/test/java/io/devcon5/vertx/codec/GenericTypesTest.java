@@ -152,6 +152,43 @@ public class GenericTypesTest {
     assertEquals(expected, GenericTypes.decode(input, pt));
   }
 
+  @Test
+  public void decode_complexTypes_listOfMapOfPojos() throws Exception {
+
+    final String input = new JsonArray().add(new JsonObject().put("bob", new JsonObject().put("name", "bob")))
+                                        .add(new JsonObject().put("alice", new JsonObject().put("name", "alice")))
+                                        .toString();
+
+    Type type = GenericExample.class.getMethod("getListOfMapOfPojos").getGenericReturnType();
+
+    assertEquals(List.of(Map.of("bob", new Pojo().withName("bob")), Map.of("alice", new Pojo().withName("alice"))),
+                 GenericTypes.decode(input, type));
+  }
+
+  @Test
+  public void decode_complexTypes_fromBuffer() {
+
+    final Buffer input = new JsonArray().add(new JsonObject().put("name", "bob")).toBuffer();
+
+    ParameterizedType pt = new ParameterizedTypeImpl(List.class, null, Pojo.class);
+
+    assertEquals(List.of(new Pojo().withName("bob")), GenericTypes.decode(input, pt));
+  }
+
+  @Test
+  public void decode_complexTypes_nullValue() {
+
+    assertEquals(null, GenericTypes.decode("null", Pojo.class));
+  }
+
+  @Test
+  public void jsonBinding_cachedPerType() {
+
+    ParameterizedType pt = new ParameterizedTypeImpl(List.class, null, Pojo.class);
+
+    assertTrue(JsonBinding.forType(pt) == JsonBinding.forType(pt));
+  }
+
 
 
   @Test
@@ -544,6 +581,11 @@ public class GenericTypesTest {
 
       return null;
     }
+
+    public List<Map<String, Pojo>> getListOfMapOfPojos() {
+
+      return null;
+    }
   }
 
   public static class Pojo {
@@ -0,0 +1,118 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ImmutablesTest {
+
+  @Test
+  public void isImmutable_valueTypes() {
+
+    assertTrue(Immutables.isImmutable(null));
+    assertTrue(Immutables.isImmutable("bob"));
+    assertTrue(Immutables.isImmutable(42L));
+    assertTrue(Immutables.isImmutable(Instant.now()));
+  }
+
+  @Test
+  public void isImmutable_allFinalClass() {
+
+    assertTrue(Immutables.isImmutable(new Person("bob", 42)));
+    assertTrue(Immutables.isImmutableType(Person.class));
+  }
+
+  @Test
+  public void isImmutable_allFinalClass_withImmutableCollection() {
+
+    assertTrue(Immutables.isImmutable(new Team(List.of(new Person("bob", 42)))));
+    assertFalse(Immutables.isImmutableType(Team.class));
+  }
+
+  @Test
+  public void isImmutable_allFinalClass_withMutableCollection() {
+
+    assertFalse(Immutables.isImmutable(new Team(new ArrayList<>())));
+  }
+
+  @Test
+  public void isImmutable_allFinalClass_withUnmodifiableView() {
+
+    assertFalse(Immutables.isImmutable(new Team(Collections.unmodifiableList(new ArrayList<>()))));
+  }
+
+  @Test
+  public void isImmutable_immutableCollections() {
+
+    assertTrue(Immutables.isImmutable(List.of("a", "b")));
+    assertTrue(Immutables.isImmutable(Map.of("bob", new Person("bob", 42))));
+    assertTrue(Immutables.isImmutable(Collections.emptyList()));
+    assertFalse(Immutables.isImmutable(List.of(new MutablePerson())));
+  }
+
+  @Test
+  public void isImmutable_annotatedType() {
+
+    assertTrue(Immutables.isImmutable(new AnnotatedPerson()));
+  }
+
+  @Test
+  public void isImmutable_mutableTypes() {
+
+    assertFalse(Immutables.isImmutable(new MutablePerson()));
+    assertFalse(Immutables.isImmutable(new int[0]));
+    assertFalse(Immutables.isImmutable(new ArrayList<>()));
+  }
+
+  @Test
+  public void transformation_immutableValue_passedByReference() {
+
+    Team team = new Team(List.of(new Person("bob", 42)));
+
+    assertSame(team, GenericTypeTransformation.copy(team, new GenericTypeCodec(Team.class)));
+  }
+
+  public static final class Person {
+
+    private final String name;
+    private final int age;
+
+    public Person(final String name, final int age) {
+
+      this.name = name;
+      this.age = age;
+    }
+  }
+
+  public static final class Team {
+
+    private final List<Person> members;
+
+    public Team(final List<Person> members) {
+
+      this.members = members;
+    }
+  }
+
+  public static class MutablePerson {
+
+    private String name;
+  }
+
+  @Immutable
+  public static class AnnotatedPerson {
+
+    private String name;
+  }
+}
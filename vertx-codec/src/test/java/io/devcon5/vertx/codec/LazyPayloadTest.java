@@ -0,0 +1,180 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class LazyPayloadTest {
+
+  private Vertx vertx;
+
+  @Before
+  public void setUp() {
+
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+
+    CompletableFuture<Void> closed = new CompletableFuture<>();
+    vertx.close(r -> closed.complete(null));
+    closed.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void get_decodesOnce() {
+
+    AtomicInteger decodings = new AtomicInteger();
+    LazyPayload payload = new LazyPayload(Buffer.buffer("xxbobxx"), 2, 5, (buffer, start, end) -> {
+      decodings.incrementAndGet();
+      return buffer.getString(start, end);
+    });
+
+    assertEquals(3, payload.size());
+    assertEquals("bob", payload.get());
+    assertEquals("bob", payload.get());
+    assertEquals(1, decodings.get());
+  }
+
+  @Test
+  public void decode_onWorker_completesOnCallerContext() throws Exception {
+
+    CompletableFuture<String> decodingThread = new CompletableFuture<>();
+    LazyPayload payload = new LazyPayload(Buffer.buffer("bob"), 0, 3, (buffer, start, end) -> {
+      decodingThread.complete(Thread.currentThread().getName());
+      return buffer.getString(start, end);
+    });
+
+    CompletableFuture<Boolean> sameContext = new CompletableFuture<>();
+    CompletableFuture<Object> result = new CompletableFuture<>();
+    Context context = vertx.getOrCreateContext();
+    context.runOnContext(v -> payload.decode(vertx).setHandler(r -> {
+      sameContext.complete(Vertx.currentContext() == context);
+      result.complete(r.result());
+    }));
+
+    assertEquals("bob", result.get(5, TimeUnit.SECONDS));
+    assertTrue(sameContext.get());
+    assertTrue(decodingThread.get(), decodingThread.get().startsWith("vert.x-worker-thread"));
+  }
+
+  @Test
+  public void of_lazyArray() {
+
+    LazyPayload payload = new LazyPayload(Buffer.buffer(), 0, 0, (buffer, start, end) -> new Object[0]);
+
+    assertSame(payload, LazyPayload.of(new LazyPayload[] { payload }));
+    assertNull(LazyPayload.of(new Object[] { payload }));
+    assertNull(LazyPayload.of(new Object[0]));
+  }
+
+  @Test
+  public void unwrap() {
+
+    LazyPayload payload = new LazyPayload(Buffer.buffer("bob"), 0, 3, (b, start, end) -> b.getString(start, end));
+
+    assertEquals("bob", LazyPayload.unwrap(payload));
+    assertEquals("bob", LazyPayload.unwrap(new LazyPayload[] { payload }));
+    assertEquals("alice", LazyPayload.unwrap("alice"));
+  }
+
+  @Test
+  public void resolve_decodedValue_completed() {
+
+    Future<Object> resolved = LazyPayload.resolve(vertx, "bob");
+
+    assertTrue(resolved.succeeded());
+    assertEquals("bob", resolved.result());
+  }
+
+  @Test
+  public void decode_arrayCodecPayload() throws Exception {
+
+    Type[] types = { String.class, List.class };
+    Buffer buffer = Buffer.buffer();
+    new GenericTypeArrayCodec(types).encodeToWire(buffer, new Object[] { "bob", List.of("alice") });
+    WireFormat format = WireFormats.defaultFormat();
+    LazyPayload.Decoder decoder = (b, start, end) -> format.decodeAll(b, start, end, types);
+    LazyPayload payload = new LazyPayload(buffer, 4, buffer.length(), decoder);
+
+    CompletableFuture<Object[]> result = new CompletableFuture<>();
+    LazyPayload.<Object[]>resolve(vertx, new LazyPayload[] { payload }).setHandler(r -> result.complete(r.result()));
+
+    Object[] args = result.get(5, TimeUnit.SECONDS);
+    assertEquals("bob", args[0]);
+    assertEquals(List.of("alice"), args[1]);
+  }
+
+  @Test
+  public void offloadingCodec_largePayload_lazy() {
+
+    GenericTypeCodec codec = new GenericTypeCodec(List.class, WireFormats.json(), 16);
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, List.of("alice", "bob", "charlie", "dave"));
+
+    Object decoded = codec.decodeFromWire(0, buffer);
+
+    assertTrue(decoded instanceof LazyPayload);
+    assertEquals(List.of("alice", "bob", "charlie", "dave"), ((LazyPayload) decoded).get());
+  }
+
+  @Test
+  public void offloadingCodec_smallPayload_decoded() {
+
+    GenericTypeCodec codec = new GenericTypeCodec(List.class, WireFormats.json(), 1024);
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, List.of("bob"));
+
+    assertEquals(List.of("bob"), codec.decodeFromWire(0, buffer));
+  }
+
+  @Test
+  public void offloadingArrayCodec_largePayload_lazy() {
+
+    Type[] types = { String.class, List.class };
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(types, WireFormats.json(), 16);
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, new Object[] { "bob", List.of("alice", "charlie", "dave") });
+
+    Object[] decoded = codec.decodeFromWire(0, buffer);
+
+    assertTrue(LazyPayload.of(decoded) != null);
+    assertEquals(List.of("alice", "charlie", "dave"), ((Object[]) LazyPayload.unwrap(decoded))[1]);
+  }
+
+  @Test
+  public void sharedCodecs_notOffloading_namedApart() {
+
+    GenericTypeCodec codec = GenericTypeCodec.forType(List.class);
+    GenericTypeCodec offloading = GenericTypeCodec.offloadingForType(List.class);
+    GenericTypeArrayCodec arrayCodec = GenericTypeArrayCodec.forType(new Type[] { String.class });
+    GenericTypeArrayCodec offloadingArray = GenericTypeArrayCodec.offloadingForType(new Type[] { String.class });
+
+    //consumers of the plain codecs never receive lazy payloads
+    assertEquals("java.util.List", codec.name());
+    assertEquals("lazy:java.util.List", offloading.name());
+    assertSame(offloading, GenericTypeCodec.offloadingForType(List.class));
+    assertEquals("[java.lang.String]", arrayCodec.name());
+    assertEquals("lazy:[java.lang.String]", offloadingArray.name());
+    assertSame(offloadingArray, GenericTypeArrayCodec.offloadingForType(new Type[] { String.class }));
+  }
+}
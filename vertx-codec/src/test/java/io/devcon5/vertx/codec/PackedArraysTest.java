@@ -0,0 +1,210 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class PackedArraysTest {
+
+  @Test
+  public void forType_packableTypes() {
+
+    assertTrue(PackedArrays.forType(int[].class) != null);
+    assertTrue(PackedArrays.forType(Types.getType("listOfLongs")) != null);
+    assertTrue(PackedArrays.forType(Types.getType("setOfInts")) != null);
+  }
+
+  @Test
+  public void forType_nonPackableTypes() {
+
+    assertNull(PackedArrays.forType(String[].class));
+    assertNull(PackedArrays.forType(byte[].class));
+    assertNull(PackedArrays.forType(Types.getType("arrayListOfLongs")));
+    assertNull(PackedArrays.forType(Types.getType("listOfStrings")));
+  }
+
+  @Test
+  public void genericTypeCodec_listOfLongs_decodedAsPrimitiveList() {
+
+    GenericTypeCodec codec = new GenericTypeCodec(Types.getType("listOfLongs"), WireFormats.binary());
+    List<Long> value = LongStream.range(-500, 500).boxed().collect(Collectors.toList());
+
+    Object result = transcode(codec, value);
+
+    assertEquals(value, result);
+    assertTrue(result instanceof PackedArrays.LongList);
+  }
+
+  @Test
+  public void genericTypeCodec_primitiveArrays() {
+
+    assertArrayEquals(new int[] { 1, -2, Integer.MAX_VALUE },
+                      (int[]) transcode(binaryCodec(int[].class), new int[] { 1, -2, Integer.MAX_VALUE }));
+    assertArrayEquals(new double[] { 1.5, -2.25 },
+                      (double[]) transcode(binaryCodec(double[].class), new double[] { 1.5, -2.25 }),
+                      0.0);
+  }
+
+  @Test
+  public void genericTypeCodec_setOfInts() {
+
+    assertEquals(Set.of(1, 2, 3), transcode(binaryCodec(Types.getType("setOfInts")), Set.of(1, 2, 3)));
+  }
+
+  @Test
+  public void genericTypeCodec_listWithNulls() {
+
+    List<Long> value = Arrays.asList(1L, null, 3L);
+
+    assertEquals(value, transcode(binaryCodec(Types.getType("listOfLongs")), value));
+  }
+
+  @Test
+  public void genericTypeCodec_null() {
+
+    assertNull(transcode(binaryCodec(long[].class), null));
+  }
+
+  @Test
+  public void genericTypeCodec_packedIsSmallerThanJson() {
+
+    List<Long> value = LongStream.range(0, 10_000).boxed().collect(Collectors.toList());
+
+    Buffer buffer = Buffer.buffer();
+    binaryCodec(Types.getType("listOfLongs")).encodeToWire(buffer, value);
+
+    assertTrue(buffer.length() < Json.encodeToBuffer(value).length() / 2);
+  }
+
+  @Test
+  public void genericTypeCodec_json_notPacked() {
+
+    Buffer buffer = Buffer.buffer();
+    new GenericTypeCodec(Types.getType("listOfLongs"), WireFormats.json()).encodeToWire(buffer, List.of(1L, 2L, 3L));
+
+    assertEquals("[1,2,3]", buffer.getString(4, buffer.length()));
+  }
+
+  @Test
+  public void genericTypeArrayCodec_json_plainJsonArrays() {
+
+    Type[] types = { Types.getType("listOfLongs"), String.class, float[].class };
+    Object[] values = { List.of(1L, 2L, 3L), "bob", new float[] { 1.5f } };
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(types, WireFormats.json());
+
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, values);
+    Object[] result = codec.decodeFromWire(0, buffer);
+
+    assertEquals("[[1,2,3],\"bob\",[1.5]]", buffer.getString(4, buffer.length()));
+    assertEquals(values[0], result[0]);
+    assertEquals(values[1], result[1]);
+    assertArrayEquals((float[]) values[2], (float[]) result[2], 0.0f);
+  }
+
+  @Test
+  public void decodedList_isMutable() {
+
+    List<Long> result = (List<Long>) transcode(binaryCodec(Types.getType("listOfLongs")), List.of(1L, 2L, 3L));
+
+    result.add(4L);
+    result.remove(0);
+    result.add(0, 0L);
+    result.removeIf(v -> v == 3L);
+    for (long v = 5; v < 20; v++) {
+      result.add(v);
+    }
+
+    List<Long> expected = new ArrayList<>(List.of(0L, 2L, 4L));
+    LongStream.range(5, 20).forEach(expected::add);
+    assertEquals(expected, result);
+    assertEquals(expected, transcode(binaryCodec(Types.getType("listOfLongs")), result));
+  }
+
+  @Test
+  public void genericTypeArrayCodec_json_plainJsonArrayArgument() {
+
+    Buffer payload = Buffer.buffer("[[1,2,3],\"bob\"]");
+    Buffer buffer = Buffer.buffer().appendInt(payload.length()).appendBuffer(payload);
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(new Type[] { Types.getType("listOfLongs"), String.class },
+                                                            WireFormats.json());
+
+    assertArrayEquals(new Object[] { List.of(1L, 2L, 3L), "bob" }, codec.decodeFromWire(0, buffer));
+  }
+
+  @Test
+  public void binaryFormat_packedArrays() {
+
+    WireFormat format = WireFormats.binary();
+    Buffer buffer = Buffer.buffer();
+    format.encode(buffer, new long[] { 1L, Long.MIN_VALUE }, long[].class);
+
+    assertArrayEquals(new long[] { 1L, Long.MIN_VALUE }, (long[]) format.decode(buffer, 0, buffer.length(), long[].class));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void decode_truncatedPayload_expectException() {
+
+    PackedArrays.Packing packing = PackedArrays.forType(int[].class);
+    Buffer buffer = Buffer.buffer();
+    packing.write(new BinaryWriter(buffer), new int[] { 1, 2, 3, 4 });
+
+    packing.read(new BinaryReader(buffer, 0, 4));
+  }
+
+  @Test
+  public void copy_packedList() {
+
+    List<Long> list = new PackedArrays.LongList(new long[] { 1L, 2L });
+
+    List<Long> copy = (List<Long>) Copiers.copy(list);
+    list.set(0, 42L);
+
+    assertEquals(List.of(1L, 2L), copy);
+  }
+
+  private static GenericTypeCodec binaryCodec(Type type) {
+
+    return new GenericTypeCodec(type, WireFormats.binary());
+  }
+
+  private static Object transcode(GenericTypeCodec codec, Object value) {
+
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, value);
+    return codec.decodeFromWire(0, buffer);
+  }
+
+  public static class Types {
+
+    public List<Long> listOfLongs;
+    public ArrayList<Long> arrayListOfLongs;
+    public List<String> listOfStrings;
+    public Set<Integer> setOfInts;
+
+    public static Type getType(String fieldName) {
+
+      try {
+        return Types.class.getField(fieldName).getGenericType();
+      } catch (NoSuchFieldException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
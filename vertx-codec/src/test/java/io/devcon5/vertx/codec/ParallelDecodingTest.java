@@ -0,0 +1,185 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ParallelDecodingTest {
+
+  @Before
+  public void setUp() {
+
+    ParallelDecoding.setThreshold(1000);
+  }
+
+  @After
+  public void tearDown() {
+
+    ParallelDecoding.setThreshold(0);
+  }
+
+  @Test
+  public void decode_keepsOrder() {
+
+    Object[] decoded = ParallelDecoding.decode(100_000, i -> i);
+
+    for (int i = 0; i < decoded.length; i++) {
+      assertEquals(i, decoded[i]);
+    }
+  }
+
+  @Test(expected = DecodeException.class)
+  public void decode_failure_propagated() {
+
+    ParallelDecoding.decode(10_000, i -> {
+      if (i == 5000) {
+        throw new DecodeException("broken");
+      }
+      return i;
+    });
+  }
+
+  @Test
+  public void isParallel_threshold() {
+
+    assertTrue(ParallelDecoding.isParallel(1000));
+    assertFalse(ParallelDecoding.isParallel(999));
+
+    ParallelDecoding.setThreshold(0);
+
+    assertFalse(ParallelDecoding.isParallel(1_000_000));
+  }
+
+  @Test
+  public void isParallel_notOnEventLoop() throws Exception {
+
+    Vertx vertx = Vertx.vertx();
+    try {
+      CompletableFuture<Boolean> parallel = new CompletableFuture<>();
+      vertx.runOnContext(v -> parallel.complete(ParallelDecoding.isParallel(1_000_000)));
+
+      assertFalse(parallel.get(5, TimeUnit.SECONDS));
+    } finally {
+      vertx.close();
+    }
+  }
+
+  @Test
+  public void jsonList_decodedInParallel() {
+
+    List<GenericTypesTest.Pojo> pojos = IntStream.range(0, 5000)
+                                                 .mapToObj(i -> i % 100 == 0 ? null : new GenericTypesTest.Pojo()
+                                                     .withName("name" + i))
+                                                 .collect(Collectors.toList());
+    Type type = new GenericTypesTest.ParameterizedTypeImpl(List.class, null, GenericTypesTest.Pojo.class);
+    Buffer buffer = Buffer.buffer();
+
+    WireFormats.json().encode(buffer, pojos, type);
+
+    assertEquals(pojos, WireFormats.json().decode(buffer, 0, buffer.length(), type));
+  }
+
+  @Test
+  public void jsonSet_decodedInParallel() {
+
+    Set<String> names = IntStream.range(0, 5000).mapToObj(i -> "name" + i).collect(Collectors.toSet());
+    Type type = new GenericTypesTest.ParameterizedTypeImpl(Set.class, null, String.class);
+    Buffer buffer = Buffer.buffer();
+
+    WireFormats.json().encode(buffer, names, type);
+
+    assertEquals(names, WireFormats.json().decode(buffer, 0, buffer.length(), type));
+  }
+
+  @Test
+  public void jsonList_structuralCharactersInStrings_decodedInParallel() {
+
+    List<String> values = IntStream.range(0, 5000)
+                                   .mapToObj(i -> i % 3 == 0 ? "a,b]}" + i : i % 3 == 1 ? "q\"[{," + i : i + "\\")
+                                   .collect(Collectors.toList());
+    Type type = new GenericTypesTest.ParameterizedTypeImpl(List.class, null, String.class);
+    Buffer buffer = Buffer.buffer();
+
+    WireFormats.json().encode(buffer, values, type);
+
+    assertEquals(values, WireFormats.json().decode(buffer, 0, buffer.length(), type));
+  }
+
+  @Test
+  public void jsonList_nestedLists_decodedInParallel() {
+
+    List<List<String>> values = IntStream.range(0, 5000)
+                                         .mapToObj(i -> List.of("a" + i, "b,[" + i))
+                                         .collect(Collectors.toList());
+    Type type = new TypeReference<List<List<String>>>() {}.getType();
+    Buffer buffer = Buffer.buffer(" \n");
+
+    WireFormats.json().encode(buffer, values, type);
+
+    assertEquals(values, WireFormats.json().decode(buffer, 0, buffer.length(), type));
+  }
+
+  @Test(expected = DecodeException.class)
+  public void jsonList_unterminated_expectDecodeException() {
+
+    Type type = new GenericTypesTest.ParameterizedTypeImpl(List.class, null, String.class);
+    Buffer buffer = Buffer.buffer("[");
+    IntStream.range(0, 5000).forEach(i -> buffer.appendString("\"name" + i + "\","));
+
+    WireFormats.json().decode(buffer, 0, buffer.length(), type);
+  }
+
+  @Test
+  public void decodeList_parallel() {
+
+    JsonArray arr = new JsonArray();
+    IntStream.range(0, 5000).forEach(i -> arr.add(new JsonObject().put("name", "name" + i)));
+
+    List decoded = GenericTypes.decodeList(arr, GenericTypesTest.Pojo.class);
+
+    assertEquals(5000, decoded.size());
+    assertEquals(new GenericTypesTest.Pojo().withName("name4711"), decoded.get(4711));
+  }
+
+  @Test
+  public void decodeSetAndMap_parallel() {
+
+    JsonArray arr = new JsonArray();
+    JsonObject obj = new JsonObject();
+    Set<String> expectedSet = new HashSet<>();
+    Map<String, GenericTypesTest.Pojo> expectedMap = new HashMap<>();
+    IntStream.range(0, 5000).forEach(i -> {
+      arr.add("name" + i);
+      expectedSet.add("name" + i);
+      obj.put("key" + i, new JsonObject().put("name", "name" + i));
+      expectedMap.put("key" + i, new GenericTypesTest.Pojo().withName("name" + i));
+    });
+
+    assertEquals(expectedSet, GenericTypes.decodeSet(arr, String.class));
+    assertEquals(expectedMap, GenericTypes.decodeMap(obj, String.class, GenericTypesTest.Pojo.class));
+  }
+}
@@ -0,0 +1,229 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.devcon5.vertx.codec.GenericTypesTest.ParameterizedTypeImpl;
+import io.vertx.core.buffer.Buffer;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class PayloadViewTest {
+
+  private static final Type VIEW_TYPE = new ParameterizedTypeImpl(PayloadView.class, null, Envelope.class);
+
+  @Before
+  public void setUp() {
+
+    Envelope.bodyDecodings.set(0);
+  }
+
+  @Test
+  public void codecName_isNameOfPayloadType() {
+
+    assertEquals(GenericTypeCodec.codecNameFor(Envelope.class), GenericTypeCodec.codecNameFor(VIEW_TYPE));
+    assertEquals(GenericTypeArrayCodec.codecNameFor(new Type[] { Envelope.class }),
+                 GenericTypeArrayCodec.codecNameFor(new Type[] { VIEW_TYPE }));
+  }
+
+  @Test
+  public void jsonView_decodesAccessedPropertiesOnly() {
+
+    Buffer buffer = Buffer.buffer();
+    new GenericTypeCodec(Envelope.class, WireFormats.json()).encodeToWire(buffer, new Envelope("route-1", 3));
+
+    PayloadView<Envelope> view = decodeView(buffer, WireFormats.json());
+
+    assertEquals("route-1", view.get("header"));
+    assertEquals(Integer.valueOf(3), view.get("priority"));
+    assertFalse(view.isDecoded());
+    assertEquals(0, Envelope.bodyDecodings.get());
+    assertEquals(List.of("a", "b"), view.get("body"));
+    assertEquals("route-1", view.get().getHeader());
+  }
+
+  @Test
+  public void jsonView_forwardedAsReceived() {
+
+    Buffer buffer = Buffer.buffer();
+    new GenericTypeCodec(Envelope.class, WireFormats.json()).encodeToWire(buffer, new Envelope("route-1", 3));
+    PayloadView<Envelope> view = decodeView(buffer, WireFormats.json());
+    view.get("header");
+
+    Buffer forwarded = Buffer.buffer();
+    new GenericTypeCodec(VIEW_TYPE, WireFormats.json()).encodeToWire(forwarded, view);
+
+    assertEquals(buffer, forwarded);
+    assertEquals(0, Envelope.bodyDecodings.get());
+  }
+
+  @Test
+  public void arrayCodec_jsonView() {
+
+    Buffer buffer = Buffer.buffer();
+    new GenericTypeArrayCodec(new Type[] { String.class, Envelope.class }, WireFormats.json())
+        .encodeToWire(buffer, new Object[] { "bob", new Envelope("route-1", 3) });
+    GenericTypeArrayCodec viewCodec = new GenericTypeArrayCodec(new Type[] { String.class, VIEW_TYPE },
+                                                                WireFormats.json());
+
+    Object[] args = viewCodec.decodeFromWire(0, buffer);
+    PayloadView<Envelope> view = (PayloadView<Envelope>) args[1];
+    Buffer forwarded = Buffer.buffer();
+    viewCodec.encodeToWire(forwarded, args);
+
+    assertEquals("bob", args[0]);
+    assertEquals("route-1", view.get("header"));
+    assertEquals(0, Envelope.bodyDecodings.get());
+    assertEquals(buffer, forwarded);
+  }
+
+  @Test
+  public void binaryView_decodedCompletely() {
+
+    Buffer buffer = Buffer.buffer();
+    new GenericTypeCodec(Envelope.class, WireFormats.binary()).encodeToWire(buffer, new Envelope("route-1", 3));
+
+    PayloadView<Envelope> view = decodeView(buffer, WireFormats.binary());
+    Buffer forwarded = Buffer.buffer();
+    new GenericTypeCodec(VIEW_TYPE, WireFormats.binary()).encodeToWire(forwarded, view);
+
+    assertEquals("route-1", view.get("header"));
+    assertTrue(view.isDecoded());
+    assertEquals(buffer, forwarded);
+  }
+
+  @Test
+  public void nullPayload() {
+
+    Buffer buffer = Buffer.buffer();
+    new GenericTypeCodec(Envelope.class, WireFormats.json()).encodeToWire(buffer, null);
+
+    PayloadView<Envelope> view = decodeView(buffer, WireFormats.json());
+
+    assertNull(view.get("header"));
+    assertNull(view.get());
+  }
+
+  @Test
+  public void nullArgument_json() {
+
+    assertNullArgumentView(WireFormats.json());
+  }
+
+  @Test
+  public void nullArgument_binary() {
+
+    assertNullArgumentView(WireFormats.binary());
+  }
+
+  @Test
+  public void viewOfNull() {
+
+    assertNull(PayloadView.of(null).get("header"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullArgument_unknownProperty_rejected() {
+
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(new Type[] { VIEW_TYPE }, WireFormats.json());
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, new Object[] { null });
+
+    ((PayloadView<?>) codec.decodeFromWire(0, buffer)[0]).get("unknown");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownProperty_rejected() {
+
+    PayloadView.of(new Envelope("route-1", 3)).get("unknown");
+  }
+
+  @Test
+  public void copy_ofDecodedValue() {
+
+    Envelope envelope = new Envelope("route-1", 3);
+
+    PayloadView<Envelope> copy = PayloadView.of(envelope).copy();
+
+    assertNotSame(envelope, copy.get());
+    assertEquals("route-1", copy.get("header"));
+  }
+
+  private static void assertNullArgumentView(WireFormat format) {
+
+    GenericTypeArrayCodec codec = new GenericTypeArrayCodec(new Type[] { VIEW_TYPE, String.class }, format);
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, new Object[] { null, "bob" });
+
+    PayloadView<?> view = (PayloadView<?>) codec.decodeFromWire(0, buffer)[0];
+
+    assertNull(view.get("header"));
+    assertNull(view.get());
+  }
+
+  private static PayloadView<Envelope> decodeView(Buffer buffer, WireFormat format) {
+
+    return (PayloadView<Envelope>) new GenericTypeCodec(VIEW_TYPE, format).decodeFromWire(0, buffer);
+  }
+
+  public static class Envelope {
+
+    static final AtomicInteger bodyDecodings = new AtomicInteger();
+
+    private String header;
+    private int priority;
+    private List<String> body;
+
+    public Envelope() {
+
+    }
+
+    Envelope(final String header, final int priority) {
+
+      this.header = header;
+      this.priority = priority;
+      this.body = List.of("a", "b");
+    }
+
+    public String getHeader() {
+
+      return header;
+    }
+
+    public void setHeader(final String header) {
+
+      this.header = header;
+    }
+
+    public int getPriority() {
+
+      return priority;
+    }
+
+    public void setPriority(final int priority) {
+
+      this.priority = priority;
+    }
+
+    public List<String> getBody() {
+
+      return body;
+    }
+
+    public void setBody(final List<String> body) {
+
+      bodyDecodings.incrementAndGet();
+      this.body = body;
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package io.devcon5.vertx.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ValueTypesTest {
+
+  @Test
+  public void isValueType() {
+
+    assertTrue(GenericTypes.isValueType(UUID.class));
+    assertTrue(GenericTypes.isValueType(Instant.class));
+    assertTrue(GenericTypes.isValueType(BinaryWireFormatTest.State.class));
+    assertFalse(GenericTypes.isValueType(String.class));
+    assertFalse(GenericTypes.isValueType(GenericTypesTest.Pojo.class));
+  }
+
+  @Test
+  public void binary_valueTypes() {
+
+    assertTranscoded(UUID.randomUUID(), UUID.class);
+    assertTranscoded(Instant.ofEpochSecond(1571305200L, 123456789), Instant.class);
+    assertTranscoded(Duration.ofMillis(-1500), Duration.class);
+    assertTranscoded(LocalDate.of(2019, 10, 17), LocalDate.class);
+    assertTranscoded(LocalTime.of(13, 37, 42, 1000), LocalTime.class);
+    assertTranscoded(LocalDateTime.of(2019, 10, 17, 13, 37), LocalDateTime.class);
+    assertTranscoded(OffsetDateTime.of(2019, 10, 17, 13, 37, 0, 0, ZoneOffset.ofHours(2)), OffsetDateTime.class);
+    assertTranscoded(ZonedDateTime.of(2019, 10, 17, 13, 37, 0, 0, ZoneId.of("Europe/Berlin")), ZonedDateTime.class);
+    assertTranscoded(null, UUID.class);
+  }
+
+  @Test
+  public void binary_uuid_compact() {
+
+    Buffer buffer = Buffer.buffer();
+    WireFormats.binary().encode(buffer, UUID.randomUUID(), UUID.class);
+
+    //presence flag and two longs
+    assertEquals(17, buffer.length());
+  }
+
+  @Test
+  public void binary_enum_byName() {
+
+    Buffer buffer = Buffer.buffer();
+    WireFormats.binary().encode(buffer, BinaryWireFormatTest.State.INACTIVE, BinaryWireFormatTest.State.class);
+
+    assertTrue(buffer.toString().endsWith("INACTIVE"));
+    assertEquals(BinaryWireFormatTest.State.INACTIVE,
+                 WireFormats.binary().decode(buffer, 0, buffer.length(), BinaryWireFormatTest.State.class));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void binary_enum_unknownName_expectException() {
+
+    Buffer buffer = Buffer.buffer();
+    WireFormats.binary().encode(buffer, "PAUSED", String.class);
+
+    WireFormats.binary().decode(buffer, 0, buffer.length(), BinaryWireFormatTest.State.class);
+  }
+
+  @Test
+  public void json_enum_jacksonAnnotationsHonoured() {
+
+    Buffer buffer = Buffer.buffer();
+    WireFormats.json().encode(buffer, Level.HIGH, Level.class);
+
+    assertEquals("\"high\"", buffer.toString());
+    assertEquals(Level.HIGH, WireFormats.json().decode(buffer, 0, buffer.length(), Level.class));
+    assertEquals(Level.LOW, GenericTypes.decodeValue("low", Level.class));
+  }
+
+  @Test(expected = DecodeException.class)
+  public void json_enum_unknownConstant_expectDecodeException() {
+
+    Buffer buffer = Buffer.buffer("\"PAUSED\"");
+
+    WireFormats.json().decode(buffer, 0, buffer.length(), BinaryWireFormatTest.State.class);
+  }
+
+  @Test
+  public void json_valueTypes_asText() {
+
+    UUID uuid = UUID.randomUUID();
+    LocalDate date = LocalDate.of(2019, 10, 17);
+    Buffer buffer = Buffer.buffer();
+
+    WireFormats.json().encode(buffer, date, LocalDate.class);
+
+    assertEquals("\"2019-10-17\"", buffer.toString());
+    assertEquals(date, WireFormats.json().decode(buffer, 0, buffer.length(), LocalDate.class));
+    Type uuids = new GenericTypesTest.ParameterizedTypeImpl(List.class, null, UUID.class);
+    assertEquals(List.of(uuid), transcodeJson(List.of(uuid), uuids));
+  }
+
+  @Test
+  public void decodeValue_fromText() {
+
+    UUID uuid = UUID.randomUUID();
+
+    assertEquals(uuid, GenericTypes.decodeValue(uuid.toString(), UUID.class));
+    assertEquals(BinaryWireFormatTest.State.ACTIVE,
+                 GenericTypes.decodeValue("ACTIVE", BinaryWireFormatTest.State.class));
+    assertEquals(List.of(Duration.ofSeconds(3)), GenericTypes.decodeList(new JsonArray().add("PT3S"), Duration.class));
+  }
+
+  @Test
+  public void record_binaryAndJson() throws Exception {
+
+    Class<?> point = compileRecord("Point", "int x, String label, java.time.Instant at");
+    ValueTypes.RecordType recordType = ValueTypes.recordType(point);
+    Object record = recordType.newInstance(new Object[] { 42, "bob", Instant.ofEpochSecond(1571305200L) });
+
+    assertTrue(GenericTypes.isValueType(point));
+    assertEquals(record, transcodeBinary(record, point));
+    assertEquals(record, transcodeJson(record, point));
+    assertEquals(record,
+                 GenericTypes.decodeValue(new JsonObject().put("x", 42)
+                                                          .put("label", "bob")
+                                                          .put("at", "2019-10-17T09:40:00Z"), point));
+  }
+
+  @Test
+  public void record_missingPrimitive_default() throws Exception {
+
+    Class<?> point = compileRecord("Origin", "int x, String label");
+
+    Object record = GenericTypes.decodeValue(new JsonObject().put("label", "origin"), point);
+
+    assertEquals(0, ValueTypes.recordType(point).components(record)[0]);
+  }
+
+  public enum Level {
+    LOW("low"),
+    HIGH("high");
+
+    private final String code;
+
+    Level(final String code) {
+
+      this.code = code;
+    }
+
+    @JsonValue
+    public String getCode() {
+
+      return code;
+    }
+
+    @JsonCreator
+    public static Level of(String code) {
+
+      for (Level level : values()) {
+        if (level.code.equals(code)) {
+          return level;
+        }
+      }
+      throw new IllegalArgumentException("Unknown level " + code);
+    }
+  }
+
+  private static void assertTranscoded(Object value, Type type) {
+
+    assertEquals(value, transcodeBinary(value, type));
+    assertEquals(value, transcodeJson(value, type));
+  }
+
+  private static Object transcodeBinary(Object value, Type type) {
+
+    Buffer buffer = Buffer.buffer();
+    WireFormats.binary().encode(buffer, value, type);
+    return WireFormats.binary().decode(buffer, 0, buffer.length(), type);
+  }
+
+  private static Object transcodeJson(Object value, Type type) {
+
+    Buffer buffer = Buffer.buffer();
+    WireFormats.json().encode(buffer, value, type);
+    return WireFormats.json().decode(buffer, 0, buffer.length(), type);
+  }
+
+  /**
+   * The codecs are compiled for Java 11, so records can only be tested by compiling them on a runtime that supports
+   * them.
+   */
+  private static Class<?> compileRecord(String name, String components) throws Exception {
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assumeTrue(compiler != null && Runtime.version().feature() >= 16);
+
+    Path dir = Files.createTempDirectory("records");
+    Path source = Files.writeString(dir.resolve(name + ".java"), "public record " + name + "(" + components + ") {}");
+    assertEquals(0, compiler.run(null, null, null, "-d", dir.toString(), source.toString()));
+    return new URLClassLoader(new URL[] { dir.toUri().toURL() }).loadClass(name);
+  }
+}